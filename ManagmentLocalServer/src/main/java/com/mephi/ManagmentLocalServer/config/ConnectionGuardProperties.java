@@ -0,0 +1,31 @@
+package com.mephi.ManagmentLocalServer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки защиты соединений Tomcat от медленных клиентов (секция {@code connection-guard})
+ */
+@Data
+@ConfigurationProperties(prefix = "connection-guard")
+public class ConnectionGuardProperties {
+
+    private boolean enabled = true;
+
+    /** Максимум одновременно открытых соединений с одного адреса */
+    private int maxConnectionsPerIp = 32;
+
+    /** За это время клиент должен прислать заголовки запроса: после подключения или после предыдущего ответа */
+    private Duration headerTimeout = Duration.ofSeconds(10);
+
+    /** Минимальная скорость передачи тела запроса, байт в секунду */
+    private long minBodyBytesPerSecond = 1024;
+
+    /** Сколько тело может передаваться без проверки скорости */
+    private Duration bodyGracePeriod = Duration.ofSeconds(5);
+
+    /** Период проверки соединений */
+    private Duration sweepInterval = Duration.ofSeconds(1);
+}
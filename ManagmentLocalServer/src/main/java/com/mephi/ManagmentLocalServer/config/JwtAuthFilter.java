@@ -1,6 +1,7 @@
 package com.mephi.ManagmentLocalServer.config;
 
 import com.mephi.ManagmentLocalServer.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +23,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final RequestLogger requestLogger;
     
     @Override
     protected void doFilterInternal(
@@ -30,30 +32,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         
-        System.out.println("🔐 LOCAL JWT Filter: " + request.getMethod() + " " + request.getRequestURI());
-        
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String username;
         
-        System.out.println("🔐 LOCAL Auth Header: " + (authHeader != null ? "Bearer ****" : "null"));
-        
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("🔐 LOCAL No JWT token found, continuing filter chain");
+            requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                    "result", "no_token");
             filterChain.doFilter(request, response);
             return;
         }
         
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
-        System.out.println("🔐 LOCAL JWT Username: " + username);
+        // Токен разбирается и проверяется один раз на запрос
+        claims = jwtService.verify(jwt);
+        username = claims.getSubject();
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                System.out.println("🔐 LOCAL User found: " + userDetails.getUsername());
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -63,18 +63,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("🔐 LOCAL Authentication successful for: " + username);
+                    requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                            "user", username, "result", "authenticated");
                 } else {
-                    System.out.println("🔐 LOCAL JWT token is invalid for user: " + username);
+                    requestLogger.warn("jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                            "user", username, "result", "invalid_token");
                 }
             } catch (Exception e) {
-                System.out.println("🔐 LOCAL Error during authentication: " + e.getMessage());
+                requestLogger.warn("jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                        "user", username, "result", "error", "error", e.getMessage());
             }
         } else if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            System.out.println("🔐 LOCAL User already authenticated: " + SecurityContextHolder.getContext().getAuthentication().getName());
+            requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                    "user", SecurityContextHolder.getContext().getAuthentication().getName(), "result", "already_authenticated");
         }
         
-        System.out.println("🔐 LOCAL JWT Filter completed, continuing chain");
         filterChain.doFilter(request, response);
     }
 } 
\ No newline at end of file
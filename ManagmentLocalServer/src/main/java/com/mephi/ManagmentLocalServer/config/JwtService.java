@@ -1,6 +1,7 @@
 package com.mephi.ManagmentLocalServer.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,8 +11,12 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -24,12 +29,53 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
     
+    @Value("${jwt.verified-cache-size:1024}")
+    private int verifiedCacheSize;
+    
+    // Ключ и парсер строятся один раз при первом обращении
+    private volatile SecretKey signInKey;
+    private volatile JwtParser parser;
+    
+    // Недавно проверенные токены по SHA-256 от токена
+    private final Map<String, Claims> verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+            return size() > verifiedCacheSize;
+        }
+    };
+    
+    /**
+     * Проверяет подпись и срок действия токена за один разбор и возвращает его claims
+     */
+    public Claims verify(String token) {
+        if (verifiedCacheSize <= 0) {
+            return extractAllClaims(token);
+        }
+        
+        String digest = digest(token);
+        synchronized (verifiedTokens) {
+            Claims cached = verifiedTokens.get(digest);
+            if (cached != null && cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.remove(digest);
+        }
+        
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(digest, claims);
+            }
+        }
+        return claims;
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
     
@@ -57,29 +103,51 @@ public class JwtService {
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
     
+    private JwtParser getParser() {
+        JwtParser result = parser;
+        if (result == null) {
+            result = Jwts
+                    .parser()
+                    .verifyWith(getSignInKey())
+                    .build();
+            parser = result;
+        }
+        return result;
+    }
+    
     private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey result = signInKey;
+        if (result == null) {
+            byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
+            result = Keys.hmacShaKeyFor(keyBytes);
+            signInKey = result;
+        }
+        return result;
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 } 
\ No newline at end of file
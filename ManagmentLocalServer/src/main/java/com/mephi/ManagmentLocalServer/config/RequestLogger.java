@@ -0,0 +1,235 @@
+package com.mephi.ManagmentLocalServer.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Журнал HTTP-запросов для фильтров.
+ * <p>
+ * Потоки запросов только кладут событие в ограниченную очередь и никогда не ждут вывода:
+ * если очередь заполнена, событие отбрасывается и учитывается в счетчике потерь.
+ * Форматирование, маскирование секретов и запись в лог выполняет задача общего планировщика,
+ * раз в flushInterval забирающая все накопленные события.
+ * Обычные события пишутся с вероятностью, заданной для группы эндпоинтов (префикса пути);
+ * предупреждения и ошибки пишутся всегда.
+ */
+@Component
+@Slf4j(topic = "request-log")
+public class RequestLogger {
+
+    private static final String SAMPLED_ATTRIBUTE = RequestLogger.class.getName() + ".sampled";
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final String MASK = "****";
+
+    private static final Set<String> SECRET_KEYS = Set.of(
+        "authorization", "x-remote-token", "cookie", "set-cookie",
+        "password", "passwordhash", "salt", "token", "remotetoken", "secret",
+        "otp", "otpcode", "recoverycode"
+    );
+    private static final Pattern SECRET_JSON_FIELD = Pattern.compile(
+        "(\"(?i:password|passwordHash|salt|token|remoteToken|secret|otp|otpCode|recoveryCode)\"\\s*:\\s*)\"[^\"]*\"");
+    private static final Pattern BEARER = Pattern.compile("(?i)(Bearer\\s+)\\S+");
+
+    private final BlockingQueue<Event> queue;
+    private final Duration flushInterval;
+    private final TaskScheduler taskScheduler;
+    private final double defaultSampleRate;
+    private final List<Map.Entry<String, Double>> sampleRates;
+    private final AtomicLong dropped = new AtomicLong();
+    private long reportedDropped; // только в drain
+    private ScheduledFuture<?> flush;
+
+    public RequestLogger(@Value("${request-log.queue-size:4096}") int queueSize,
+                         @Value("${request-log.default-sample-rate:1.0}") double defaultSampleRate,
+                         @Value("${request-log.sample-rates:}") String sampleRates,
+                         @Value("${request-log.flush-interval:200ms}") Duration flushInterval,
+                         MeterRegistry meterRegistry,
+                         TaskScheduler taskScheduler) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.flushInterval = flushInterval;
+        this.taskScheduler = taskScheduler;
+        this.defaultSampleRate = defaultSampleRate;
+        this.sampleRates = parseSampleRates(sampleRates);
+
+        FunctionCounter.builder("request.log.dropped", dropped, AtomicLong::get)
+            .description("События журнала запросов, отброшенные из-за заполненной очереди")
+            .register(meterRegistry);
+        Gauge.builder("request.log.queue.size", queue, BlockingQueue::size)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flush = taskScheduler.scheduleWithFixedDelay(this::drain, Instant.now().plus(flushInterval), flushInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        flush.cancel(false);
+        // Дописываем то, что накопилось после последнего запуска
+        drain();
+    }
+
+    /**
+     * Событие обработки запроса; пишется, если запрос попал в выборку своей группы
+     */
+    public void log(HttpServletRequest request, String event, Object... fields) {
+        if (isSampled(request)) {
+            enqueue(new Event(Level.INFO, event, fields, null));
+        }
+    }
+
+    public void info(String event, Object... fields) {
+        enqueue(new Event(Level.INFO, event, fields, null));
+    }
+
+    public void warn(String event, Object... fields) {
+        enqueue(new Event(Level.WARN, event, fields, null));
+    }
+
+    public void error(String event, Throwable error, Object... fields) {
+        enqueue(new Event(Level.ERROR, event, fields, error));
+    }
+
+    /**
+     * Решение о выборке принимается один раз на запрос, чтобы его события не терялись по отдельности
+     */
+    public boolean isSampled(HttpServletRequest request) {
+        Object decision = request.getAttribute(SAMPLED_ATTRIBUTE);
+        if (decision == null) {
+            double rate = sampleRateFor(request.getRequestURI());
+            decision = rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+            request.setAttribute(SAMPLED_ATTRIBUTE, decision);
+        }
+        return (Boolean) decision;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void enqueue(Event event) {
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private double sampleRateFor(String uri) {
+        for (Map.Entry<String, Double> rate : sampleRates) {
+            if (uri.startsWith(rate.getKey())) {
+                return rate.getValue();
+            }
+        }
+        return defaultSampleRate;
+    }
+
+    private synchronized void drain() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                // Ошибка форматирования одного события не должна останавливать журнал
+                log.warn("event=request_log.write_failed error=\"{}\"", e.getMessage());
+            }
+        }
+        reportDropped();
+    }
+
+    private void write(Event event) {
+        String line = format(event);
+        switch (event.level()) {
+            case ERROR -> log.error(line, event.error());
+            case WARN -> log.warn(line);
+            default -> log.info(line);
+        }
+    }
+
+    private void reportDropped() {
+        long total = dropped.get();
+        if (total > reportedDropped) {
+            log.warn("event=request_log.dropped count={} total={}", total - reportedDropped, total);
+            reportedDropped = total;
+        }
+    }
+
+    private String format(Event event) {
+        StringBuilder line = new StringBuilder("event=").append(event.name());
+        Object[] fields = event.fields();
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            String key = String.valueOf(fields[i]);
+            line.append(' ').append(key).append('=').append(quote(redact(key, fields[i + 1])));
+        }
+        return line.toString();
+    }
+
+    private String redact(String key, Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (SECRET_KEYS.contains(key.toLowerCase(Locale.ROOT))) {
+            return MASK;
+        }
+        if (value instanceof Map<?, ?> map) {
+            StringBuilder entries = new StringBuilder("{");
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entries.length() > 1) {
+                    entries.append(", ");
+                }
+                String entryKey = String.valueOf(entry.getKey());
+                entries.append(entryKey).append(": ").append(redact(entryKey, entry.getValue()));
+            }
+            return entries.append('}').toString();
+        }
+        // Маскируем до обрезки: иначе обрезанное поле с секретом не совпадет с шаблоном
+        String text = SECRET_JSON_FIELD.matcher(String.valueOf(value)).replaceAll("$1\"" + MASK + "\"");
+        text = BEARER.matcher(text).replaceAll("$1" + MASK);
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text;
+    }
+
+    private static String quote(String value) {
+        if (value.isEmpty() || value.chars().anyMatch(c -> c == ' ' || c == '"' || c == '=')) {
+            return '"' + value.replace("\"", "\\\"") + '"';
+        }
+        return value;
+    }
+
+    // Формат: "/api/auth=1.0,/api/sync=0.2"; более длинный префикс проверяется первым
+    private static List<Map.Entry<String, Double>> parseSampleRates(String value) {
+        List<Map.Entry<String, Double>> rates = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String[] parts = item.trim().split("=");
+            if (parts.length == 2) {
+                rates.add(Map.entry(parts[0].trim(), Double.parseDouble(parts[1].trim())));
+            }
+        }
+        rates.sort(Comparator.comparingInt((Map.Entry<String, Double> rate) -> rate.getKey().length()).reversed());
+        return rates;
+    }
+
+    private record Event(Level level, String name, Object[] fields, Throwable error) {}
+}
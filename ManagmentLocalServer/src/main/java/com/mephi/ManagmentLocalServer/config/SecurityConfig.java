@@ -1,18 +1,27 @@
 package com.mephi.ManagmentLocalServer.config;
 
 import com.mephi.ManagmentLocalServer.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
@@ -22,9 +31,45 @@ import org.springframework.http.HttpMethod;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String ACTUATOR_ROLE = "ACTUATOR";
+
     private final JwtAuthFilter jwtAuthFilter;
     private final CustomUserDetailsService userDetailsService;
 
+    /**
+     * Метрики actuator - отдельная цепочка с Basic-аутентификацией учетной записи оператора
+     * (сборщик метрик), как на удаленном сервере. Сервер слушает все интерфейсы, поэтому
+     * без заданного пароля метрики закрыты для всех; токены пользователей сюда не подходят.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http,
+                                                   @Value("${actuator-security.username:actuator}") String username,
+                                                   @Value("${actuator-security.password:}") String password) throws Exception {
+        // Пароли пользователей здесь не хешируются (NoOp), для пароля оператора берем BCrypt
+        PasswordEncoder operatorEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager operators = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            operators.createUser(User.withUsername(username)
+                    .password(operatorEncoder.encode(password))
+                    .roles(ACTUATOR_ROLE)
+                    .build());
+        }
+        DaoAuthenticationProvider operatorProvider = new DaoAuthenticationProvider();
+        operatorProvider.setUserDetailsService(operators);
+        operatorProvider.setPasswordEncoder(operatorEncoder);
+
+        http
+                .securityMatcher(EndpointRequest.to("prometheus", "metrics"))
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(ACTUATOR_ROLE))
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authenticationManager(new ProviderManager(operatorProvider))
+                .httpBasic(Customizer.withDefaults())
+                .formLogin(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -41,6 +86,8 @@ public class SecurityConfig {
                                 "/api-docs/**",
                                 "/actuator/health"
                         ).permitAll()
+                        // Асинхронная повторная диспетчеризация ответов Mono (запрос уже авторизован)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Разрешаем ALL OPTIONS запросы (CORS preflight)
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // Все остальные требуют аутентификации
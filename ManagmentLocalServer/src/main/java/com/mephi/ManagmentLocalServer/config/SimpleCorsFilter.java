@@ -3,6 +3,7 @@ package com.mephi.ManagmentLocalServer.config;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
@@ -10,8 +11,11 @@ import java.io.IOException;
 
 @Component
 @Order(1)
+@RequiredArgsConstructor
 public class SimpleCorsFilter implements Filter {
 
+    private final RequestLogger requestLogger;
+
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
         HttpServletResponse response = (HttpServletResponse) res;
@@ -50,11 +54,11 @@ public class SimpleCorsFilter implements Filter {
 
     @Override
     public void init(FilterConfig filterConfig) {
-        System.out.println("🔧 LOCAL SimpleCorsFilter initialized!");
+        requestLogger.info("cors.filter", "state", "initialized");
     }
 
     @Override
     public void destroy() {
-        System.out.println("🔧 LOCAL SimpleCorsFilter destroyed!");
+        requestLogger.info("cors.filter", "state", "destroyed");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.mephi.ManagmentLocalServer.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Формат обмена с удаленным сервером при синхронизации.
+ * <p>
+ * По умолчанию (remote.sync.wire-format = smile) пакеты отправляются в бинарном Smile,
+ * а ответы запрашиваются с {@code Accept: application/x-jackson-smile, application/json;q=0.9}:
+ * сервер без поддержки Smile ответит JSON, и ответ разбирается по его Content-Type.
+ * Значение json возвращает прежний текстовый обмен.
+ */
+@Component
+public class SyncCodec {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final MediaType JSON_FALLBACK = new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.9"));
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final boolean smile;
+
+    public SyncCodec(ObjectMapper objectMapper,
+                     Jackson2ObjectMapperBuilder objectMapperBuilder,
+                     @Value("${remote.sync.wire-format:smile}") String wireFormat) {
+        this.jsonMapper = objectMapper;
+        // Те же модули и настройки, что у JSON ObjectMapper Spring Boot
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.smile = "smile".equalsIgnoreCase(wireFormat);
+    }
+
+    public MediaType requestType() {
+        return smile ? APPLICATION_SMILE : MediaType.APPLICATION_JSON;
+    }
+
+    public List<MediaType> acceptTypes() {
+        return smile ? List.of(APPLICATION_SMILE, JSON_FALLBACK) : List.of(MediaType.APPLICATION_JSON);
+    }
+
+    public ObjectMapper smileMapper() {
+        return smileMapper;
+    }
+
+    public <T> T read(byte[] body, MediaType contentType, TypeReference<T> type) throws IOException {
+        ObjectMapper mapper = contentType != null && APPLICATION_SMILE.isCompatibleWith(contentType)
+                ? smileMapper
+                : jsonMapper;
+        return mapper.readValue(body, type);
+    }
+}
@@ -1,30 +1,75 @@
 package com.mephi.ManagmentLocalServer.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${remote.server.url}")
+    private String remoteServerUrl;
+
     @Value("${remote.server.timeout}")
     private int timeout;
 
-    @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder()
-                .codecs(configurer -> configurer
-                        .defaultCodecs()
-                        .maxInMemorySize(1024 * 1024)) // 1MB buffer
-                .build()
-                .mutate();
+    @Value("${remote.client.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${remote.client.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${remote.client.max-idle-time:30s}")
+    private Duration maxIdleTime;
+
+    @Value("${remote.client.max-in-memory-size:16777216}")
+    private int maxInMemorySize;
+
+    /**
+     * Пул соединений к удаленному серверу: соединения переиспользуются между запросами,
+     * простаивающие закрываются раньше, чем их оборвет сервер или прокси
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider remoteConnectionProvider() {
+        return ConnectionProvider.builder("remote-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(timeout))
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
     }
 
+    /**
+     * Единый клиент удаленного сервера для синхронизации и удаленной аутентификации.
+     * Строится из автоконфигурированного WebClient.Builder, поэтому каждый вызов попадает
+     * в метрику http.client.requests (задержка удаленных вызовов по uri и статусу)
+     */
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+    public WebClient webClient(WebClient.Builder webClientBuilder, ConnectionProvider remoteConnectionProvider,
+                               SyncCodec syncCodec) {
+        HttpClient httpClient = HttpClient.create(remoteConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofMillis(timeout));
+
+        return webClientBuilder
+                .baseUrl(remoteServerUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().maxInMemorySize(maxInMemorySize); // полная выгрузка хранилища может превышать 1MB
+                    configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(syncCodec.smileMapper()));
+                    configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(syncCodec.smileMapper()));
+                })
+                .build();
     }
-} 
\ No newline at end of file
+}
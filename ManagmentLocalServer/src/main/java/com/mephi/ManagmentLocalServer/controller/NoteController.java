@@ -1,9 +1,11 @@
 package com.mephi.ManagmentLocalServer.controller;
 
+import com.mephi.ManagmentLocalServer.dto.listing.ListingPage;
 import com.mephi.ManagmentLocalServer.dto.note.NoteRequest;
 import com.mephi.ManagmentLocalServer.dto.note.NoteResponse;
 import com.mephi.ManagmentLocalServer.service.SecureNoteService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -73,6 +75,65 @@ public class NoteController {
         return ResponseEntity.ok(notes);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(
+        summary = "Получить страницу заметок",
+        description = """
+            Постраничный список заметок, новые изменения первыми (по времени обновления и ID).
+            Включается параметром `limit`; без него возвращается полный список.
+            
+            **Важно**: 
+            - `nextCursor` из ответа передается в `cursor` следующего запроса; null - записей больше нет
+            - `fields=summary` возвращает только ID, название, тип и время обновления - для отображения списка.
+              Полные данные записи загружаются отдельно через GET по ID
+            - Не более 500 записей на странице
+            """
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Страница получена",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ListingPage.class),
+                examples = @ExampleObject(
+                    name = "Краткий список",
+                    value = """
+                        {
+                          "items": [
+                            {
+                              "id": 42,
+                              "encryptedTitle": "U2FsdGVkX1+encrypted_title",
+                              "encryptedType": "U2FsdGVkX1+encrypted_type",
+                              "updatedAt": "2024-01-15T11:00:00Z"
+                            }
+                          ],
+                          "nextCursor": "MjAyNC0wMS0xNVQxMTowMDowMFpfNDI"
+                        }
+                        """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Неверный курсор"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<ListingPage<?>> getNotePage(
+            @Parameter(description = "Размер страницы (до 500)", example = "50")
+            @RequestParam int limit,
+            @Parameter(description = "Курсор из предыдущего ответа")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "summary - только краткие данные записей", example = "summary")
+            @RequestParam(defaultValue = "full") String fields) {
+        try {
+            if ("summary".equalsIgnoreCase(fields)) {
+                return ResponseEntity.ok(noteService.getNoteSummaries(cursor, limit));
+            }
+            return ResponseEntity.ok(noteService.getNotePage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     @Operation(
         summary = "Создать новую заметку",
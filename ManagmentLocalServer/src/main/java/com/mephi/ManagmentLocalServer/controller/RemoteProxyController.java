@@ -3,6 +3,7 @@ package com.mephi.ManagmentLocalServer.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mephi.ManagmentLocalServer.config.RequestLogger;
 import com.mephi.ManagmentLocalServer.service.RemoteProxyService;
 import com.mephi.ManagmentLocalServer.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ public class RemoteProxyController {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final RemoteProxyService remoteProxyService;
     private final UserService userService;
+    private final RequestLogger requestLogger;
 
     /**
      * Прокси для всех запросов к удаленному серверу
@@ -43,44 +45,33 @@ public class RemoteProxyController {
         long startTime = System.currentTimeMillis();
         String method = request.getMethod();
         String path = request.getRequestURI().substring("/remote-proxy".length());
-        String userAgent = headers.getOrDefault("user-agent", "Unknown");
         
-        System.out.println("🔄 ========== PROXY REQUEST START ==========");
-        System.out.println("🔄 Method: " + method);
-        System.out.println("🔄 Path: " + path);
-        System.out.println("🔄 Full URI: " + request.getRequestURI());
-        System.out.println("🔄 Query String: " + request.getQueryString());
-        System.out.println("🔄 Body: " + (body != null ? body.substring(0, Math.min(body.length(), 200)) + "..." : "null"));
+        // Тело пишется с маскированием секретов и обрезкой (см. RequestLogger)
+        requestLogger.log(request, "proxy.request", "method", method, "path", path,
+                "query", request.getQueryString(), "body", body);
         
         // ✅ ДЕТАЛЬНОЕ ЛОГИРОВАНИЕ ДЛЯ SYNC-SETUP
-        if (path.contains("sync-setup")) {
-            System.out.println("🔄 ======= SYNC-SETUP DETAILED LOGGING =======");
-            System.out.println("🔄 Full Request Body: " + (body != null ? body : "null"));
-            if (body != null) {
-                try {
-                    JsonNode json = objectMapper.readTree(body);
-                    System.out.println("🔄 Parsed JSON:");
-                    System.out.println("🔄   username: " + (json.has("username") ? json.get("username").asText() : "MISSING"));
-                    System.out.println("🔄   email: " + (json.has("email") ? json.get("email").asText() : "MISSING"));
-                    System.out.println("🔄   passwordHash: " + (json.has("passwordHash") ? (json.get("passwordHash").asText().isEmpty() ? "EMPTY" : "Present (" + json.get("passwordHash").asText().length() + " chars)") : "MISSING"));
-                    System.out.println("🔄   salt: " + (json.has("salt") ? (json.get("salt").asText().isEmpty() ? "EMPTY" : "Present (" + json.get("salt").asText().length() + " chars)") : "MISSING"));
-                    System.out.println("🔄   localUserId: " + (json.has("localUserId") ? (json.get("localUserId").asText().isEmpty() ? "EMPTY" : json.get("localUserId").asText()) : "MISSING"));
-                } catch (Exception e) {
-                    System.out.println("🔄 Failed to parse JSON: " + e.getMessage());
-                }
+        if (path.contains("sync-setup") && body != null && requestLogger.isSampled(request)) {
+            try {
+                JsonNode json = objectMapper.readTree(body);
+                requestLogger.log(request, "proxy.sync_setup",
+                        "username", json.path("username").asText("MISSING"),
+                        "email", json.path("email").asText("MISSING"),
+                        "hasPasswordHash", !json.path("passwordHash").asText().isEmpty(),
+                        "hasSalt", !json.path("salt").asText().isEmpty(),
+                        "localUserId", json.path("localUserId").asText("MISSING"));
+            } catch (Exception e) {
+                requestLogger.warn("proxy.sync_setup", "path", path, "error", "Failed to parse JSON: " + e.getMessage());
             }
-            System.out.println("🔄 =======================================");
         }
         
         // ✅ АВТОМАТИЧЕСКОЕ ДОПОЛНЕНИЕ ЗАПРОСА SYNC-SETUP
         if (path.equals("/auth/sync-setup") && "POST".equals(method) && body != null) {
             try {
-                System.out.println("🔄 🔧 ДОПОЛНЯЕМ ЗАПРОС SYNC-SETUP 🔧");
-                
                 // Получаем JWT токен из заголовка Authorization
                 String authHeader = headers.get("authorization");
                 if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                    System.out.println("🔄 ❌ Нет JWT токена для дополнения запроса");
+                    requestLogger.warn("proxy.sync_setup_enrich", "result", "no_local_token");
                     // Продолжаем без дополнения
                 } else {
                     String jwtToken = authHeader.substring(7); // Убираем "Bearer "
@@ -88,8 +79,6 @@ public class RemoteProxyController {
                     // Получаем пользователя по JWT токену
                     var currentUser = userService.getUserByJwtToken(jwtToken);
                     if (currentUser != null) {
-                        System.out.println("🔄 Получили пользователя из JWT: " + currentUser.getUsername() + ", ID: " + currentUser.getId());
-                        
                         // Парсим существующий JSON
                         ObjectNode jsonNode = (ObjectNode) objectMapper.readTree(body);
                         
@@ -101,24 +90,20 @@ public class RemoteProxyController {
                         // Обновляем тело запроса
                         body = objectMapper.writeValueAsString(jsonNode);
                         
-                        System.out.println("🔄 ✅ Запрос дополнен данными из локальной БД:");
-                        System.out.println("🔄   passwordHash: Present (" + currentUser.getPasswordHash().length() + " chars)");
-                        System.out.println("🔄   salt: Present (" + currentUser.getSalt().length() + " chars)");
-                        System.out.println("🔄   localUserId: " + currentUser.getId());
-                        System.out.println("🔄 🔧 ГОТОВО К ОТПРАВКЕ 🔧");
+                        requestLogger.log(request, "proxy.sync_setup_enrich", "user", currentUser.getUsername(),
+                                "localUserId", currentUser.getId(), "result", "enriched");
                     } else {
-                        System.out.println("🔄 ❌ Не удалось найти пользователя по JWT токену");
+                        requestLogger.warn("proxy.sync_setup_enrich", "result", "user_not_found");
                     }
                 }
                 
             } catch (Exception e) {
-                System.out.println("🔄 ❌ Ошибка дополнения запроса: " + e.getMessage());
-                e.printStackTrace();
+                requestLogger.error("proxy.sync_setup_enrich", e, "result", "error");
             }
         }
         
-        // Логируем входящий запрос
-        remoteProxyService.logProxyRequest(method, path, userAgent);
+        // Учитываем запрос в статистике прокси
+        remoteProxyService.recordProxyRequest(method, path);
         
         try {
             String targetUrl = remoteServerUrl + path;
@@ -136,22 +121,12 @@ public class RemoteProxyController {
             boolean isPublicEndpoint = path.startsWith("/auth/");
             boolean needsRemoteAuth = path.startsWith("/sync/") || path.startsWith("/api/");
             
-            System.out.println("🔄 Is Public Endpoint: " + isPublicEndpoint);
-            System.out.println("🔄 Needs Remote Auth: " + needsRemoteAuth);
-            
-            System.out.println("🔄 Incoming Headers:");
-            for (Map.Entry<String, String> header : headers.entrySet()) {
-                System.out.println("🔄   " + header.getKey() + ": " + 
-                    (header.getKey().toLowerCase().equals("authorization") ? "Bearer ****" : header.getValue()));
-            }
-            
             // Копируем все важные заголовки КРОМЕ Authorization для публичных эндпоинтов
             for (Map.Entry<String, String> header : headers.entrySet()) {
                 String headerName = header.getKey().toLowerCase();
                 
                 // Пропускаем Authorization для публичных эндпоинтов удаленного сервера
                 if (headerName.equals("authorization") && isPublicEndpoint) {
-                    System.out.println("🔄 Пропускаем локальный токен для публичного эндпоинта: " + path);
                     continue;
                 }
                 
@@ -163,8 +138,6 @@ public class RemoteProxyController {
                     headerName.equals("accept-language") ||
                     headerName.equals("accept-encoding")) {
                     httpHeaders.set(header.getKey(), header.getValue());
-                    System.out.println("🔄 Передаем заголовок: " + header.getKey() + " = " + 
-                        (headerName.equals("authorization") ? "Bearer ****" : header.getValue()));
                 }
             }
             
@@ -173,7 +146,6 @@ public class RemoteProxyController {
             if (remoteToken != null && !remoteToken.isEmpty() && needsRemoteAuth) {
                 // Используем удаленный токен для защищенных эндпоинтов
                 httpHeaders.set("Authorization", "Bearer " + remoteToken);
-                System.out.println("🔄 Устанавливаем удаленный токен для защищенного эндпоинта: " + path);
             }
             
             // Подготавливаем тело запроса
@@ -182,14 +154,9 @@ public class RemoteProxyController {
             // Определяем HTTP метод
             HttpMethod httpMethod = HttpMethod.valueOf(method);
             
-            System.out.println("🔄 Final Headers to Remote Server:");
-            for (String headerName : httpHeaders.keySet()) {
-                System.out.println("🔄   " + headerName + ": " + 
-                    (headerName.toLowerCase().equals("authorization") ? "Bearer ****" : httpHeaders.getFirst(headerName)));
-            }
-            
-            System.out.println("🔄 Отправляем запрос на: " + targetUrl);
-            System.out.println("🔄 С заголовками: " + httpHeaders.keySet());
+            requestLogger.log(request, "proxy.forward", "target", targetUrl,
+                    "publicEndpoint", isPublicEndpoint, "remoteAuth", needsRemoteAuth,
+                    "incomingHeaders", headers, "headers", httpHeaders.toSingleValueMap());
             
             // Выполняем запрос к удаленному серверу
             ResponseEntity<String> response = restTemplate.exchange(
@@ -200,18 +167,13 @@ public class RemoteProxyController {
             );
             
             long duration = System.currentTimeMillis() - startTime;
-            System.out.println("🔄 Response Status: " + response.getStatusCode());
-            System.out.println("🔄 Response Body: " + (response.getBody() != null ? response.getBody().substring(0, Math.min(response.getBody().length(), 200)) + "..." : "null"));
-            System.out.println("🔄 Response Headers: " + response.getHeaders().keySet());
-            System.out.println("🔄 ========== PROXY REQUEST SUCCESS ==========");
-            
-            remoteProxyService.logProxyResponse(method, path, response.getStatusCode().value(), duration);
+            requestLogger.log(request, "proxy.response", "method", method, "path", path,
+                    "status", response.getStatusCode().value(), "durationMs", duration,
+                    "headers", response.getHeaders().keySet(), "body", response.getBody());
             
             // ✅ АВТОМАТИЧЕСКОЕ СОХРАНЕНИЕ РЕЗУЛЬТАТОВ VERIFY-OTP
             if (path.equals("/auth/verify-otp") && "POST".equals(method) && response.getStatusCode().is2xxSuccessful()) {
                 try {
-                    System.out.println("🔄 🔧 ОБРАБАТЫВАЕМ УСПЕШНУЮ ВЕРИФИКАЦИЮ OTP 🔧");
-                    
                     String responseBody = response.getBody();
                     if (responseBody != null) {
                         JsonNode responseJson = objectMapper.readTree(responseBody);
@@ -220,41 +182,28 @@ public class RemoteProxyController {
                             String remoteAuthToken = responseJson.get("token").asText();
                             String remoteUserId = responseJson.get("userId").asText();
                             
-                            System.out.println("🔄 Извлекли из ответа:");
-                            System.out.println("🔄   remoteToken: Present (" + remoteAuthToken.length() + " chars)");
-                            System.out.println("🔄   remoteUserId: " + remoteUserId);
-                            
                             // Сохраняем в локальной базе
                             userService.updateRemoteData(remoteUserId, remoteAuthToken);
                             
-                            System.out.println("🔄 ✅ Удаленные данные сохранены в локальной БД");
+                            requestLogger.info("proxy.remote_account_saved", "remoteUserId", remoteUserId);
                         } else {
-                            System.out.println("🔄 ℹ️ Ответ не содержит token/userId - пропускаем сохранение");
+                            requestLogger.log(request, "proxy.remote_account_saved", "result", "skipped_no_token");
                         }
                     }
                 } catch (Exception e) {
-                    System.out.println("🔄 ❌ Ошибка сохранения удаленных данных: " + e.getMessage());
-                    e.printStackTrace();
+                    requestLogger.error("proxy.remote_account_saved", e, "result", "error");
                 }
             }
             
             // ✅ ВОЗВРАЩАЕМ ОТВЕТ УДАЛЕННОГО СЕРВЕРА КАК ЕСТЬ (CORS заголовки уже есть)
-            System.out.println("🔄 ✅ ВОЗВРАЩАЕМ ОТВЕТ ФРОНТЕНДУ:");
-            System.out.println("🔄   Status: " + response.getStatusCode());
-            System.out.println("🔄   Headers from remote: " + response.getHeaders().keySet());
-            System.out.println("🔄   Body: " + (response.getBody() != null ? response.getBody().substring(0, Math.min(response.getBody().length(), 100)) + "..." : "null"));
-            
             return response;
                 
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             long duration = System.currentTimeMillis() - startTime;
-            String errorMsg = e.getStatusCode() + " - " + e.getResponseBodyAsString();
-            System.out.println("🔄 ========== PROXY REQUEST ERROR ==========");
-            System.out.println("🔄 Error Status: " + e.getStatusCode());
-            System.out.println("🔄 Error Body: " + e.getResponseBodyAsString());
-            System.out.println("🔄 ========== PROXY REQUEST ERROR END ==========");
+            requestLogger.warn("proxy.error", "method", method, "path", path,
+                    "status", e.getStatusCode().value(), "durationMs", duration, "body", e.getResponseBodyAsString());
             
-            remoteProxyService.logProxyError(method, path, errorMsg);
+            remoteProxyService.recordProxyError();
             
             return ResponseEntity
                 .status(e.getStatusCode())
@@ -262,12 +211,9 @@ public class RemoteProxyController {
                 
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
-            System.out.println("🔄 ========== PROXY REQUEST EXCEPTION ==========");
-            System.out.println("🔄 Exception: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("🔄 ========== PROXY REQUEST EXCEPTION END ==========");
+            requestLogger.error("proxy.exception", e, "method", method, "path", path, "durationMs", duration);
             
-            remoteProxyService.logProxyError(method, path, e.getMessage());
+            remoteProxyService.recordProxyError();
             
             return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
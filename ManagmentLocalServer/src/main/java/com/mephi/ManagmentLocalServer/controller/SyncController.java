@@ -20,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
@@ -72,7 +73,9 @@ public class SyncController {
                           "passwordsPushed": 5,
                           "notesPulled": 0,
                           "passwordsPulled": 0,
-                          "conflicts": 0
+                          "conflicts": 0,
+                          "skipped": 0,
+                          "bytesReceived": 0
                         }
                         """
                 )
@@ -81,12 +84,12 @@ public class SyncController {
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "400", description = "Нет связи с удаленным сервером")
     })
-    public ResponseEntity<SyncResponse> pushToRemote(@Valid @RequestBody SyncPushRequest request) {
+    public Mono<ResponseEntity<SyncResponse>> pushToRemote(@Valid @RequestBody SyncPushRequest request) {
         log.info("Push sync request: syncNotes={}, syncPasswords={}, forceSync={}", 
                 request.isSyncNotes(), request.isSyncPasswords(), request.isForceSync());
         
-        SyncResponse response = syncService.pushToRemote(request);
-        return ResponseEntity.ok(response);
+        // Поток сервлета освобождается до завершения синхронизации
+        return syncService.pushToRemote(request).map(ResponseEntity::ok);
     }
 
     @PostMapping("/pull")
@@ -126,7 +129,9 @@ public class SyncController {
                           "passwordsPushed": 0,
                           "notesPulled": 2,
                           "passwordsPulled": 3,
-                          "conflicts": 1
+                          "conflicts": 1,
+                          "skipped": 1,
+                          "bytesReceived": 4096
                         }
                         """
                 )
@@ -135,11 +140,10 @@ public class SyncController {
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "400", description = "Нет связи с удаленным сервером")
     })
-    public ResponseEntity<SyncResponse> pullFromRemote() {
+    public Mono<ResponseEntity<SyncResponse>> pullFromRemote() {
         log.info("Pull sync request received");
         
-        SyncResponse response = syncService.pullFromRemote();
-        return ResponseEntity.ok(response);
+        return syncService.pullFromRemote().map(ResponseEntity::ok);
     }
 
     @GetMapping("/status")
@@ -0,0 +1,21 @@
+package com.mephi.ManagmentLocalServer.dto.listing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Краткие данные записи для списка: без зашифрованного содержимого
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntrySummary {
+    
+    private Long id;
+    private String encryptedTitle;
+    private String encryptedType;
+    private Instant updatedAt;
+}
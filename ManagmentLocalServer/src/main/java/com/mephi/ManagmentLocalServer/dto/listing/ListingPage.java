@@ -0,0 +1,37 @@
+package com.mephi.ManagmentLocalServer.dto.listing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница списка записей (новые изменения первыми); nextCursor == null - записей больше нет
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingPage<T> {
+    
+    public static final int MAX_LIMIT = 500;
+    
+    private List<T> items;
+    private String nextCursor;
+    
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+    
+    /**
+     * Собирает страницу из limit + 1 строк: лишняя строка только сообщает, что есть продолжение
+     */
+    public static <T> ListingPage<T> of(List<T> rows, int limit, Function<T, ListingCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new ListingPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new ListingPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,16 @@
+package com.mephi.ManagmentLocalServer.dto.remote;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteBatchItemResult {
+    
+    private String clientRef;
+    private String op;
+    private String id;
+    private String status; // OK, NOT_FOUND или INVALID
+}
@@ -0,0 +1,24 @@
+package com.mephi.ManagmentLocalServer.dto.remote;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteBatchOperation<T> {
+    
+    private String op;        // CREATE, UPDATE или DELETE
+    private String clientRef; // локальный ID записи, сервер возвращает его в результате
+    private String id;        // ID записи на удаленном сервере (для UPDATE и DELETE)
+    private T data;
+    
+    /**
+     * CREATE для записей без remoteId, иначе UPDATE
+     */
+    public static <T> RemoteBatchOperation<T> upsert(Long localId, String remoteId, T data) {
+        return new RemoteBatchOperation<>(remoteId == null ? "CREATE" : "UPDATE",
+                String.valueOf(localId), remoteId, data);
+    }
+}
@@ -0,0 +1,16 @@
+package com.mephi.ManagmentLocalServer.dto.remote;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteBatchResponse {
+    
+    private List<RemoteBatchItemResult> results = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.mephi.ManagmentLocalServer.dto.remote;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteSyncChangesResponse {
+    
+    private long cursor;
+    private boolean hasMore;
+    private List<RemotePasswordResponse> passwords = new ArrayList<>();
+    private List<RemoteNoteResponse> notes = new ArrayList<>();
+    private List<String> deletedPasswordIds = new ArrayList<>();
+    private List<String> deletedNoteIds = new ArrayList<>();
+}
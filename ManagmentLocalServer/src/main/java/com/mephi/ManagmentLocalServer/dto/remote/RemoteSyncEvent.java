@@ -0,0 +1,20 @@
+package com.mephi.ManagmentLocalServer.dto.remote;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Уведомление из потока /api/sync/stream удаленного сервера.
+ * entityType, entityId и changeType пусты, если известна только новая версия хранилища.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteSyncEvent {
+
+    private String entityType;
+    private String entityId;
+    private String changeType;
+    private long version;
+}
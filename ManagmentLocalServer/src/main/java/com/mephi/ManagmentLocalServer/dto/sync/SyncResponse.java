@@ -20,7 +20,9 @@ public class SyncResponse {
     private int notesPulled = 0;
     private int passwordsPushed = 0;
     private int passwordsPulled = 0;
-    private int conflicts = 0;
+    private int conflicts = 0; // записи, измененные и локально, и удаленно (при CREATE_DUPLICATE локальная версия сохранена копией)
+    private int skipped = 0; // удаленные версии, не примененные по стратегии разрешения конфликтов
+    private long bytesReceived = 0;
     
     public static SyncResponse success(String message) {
         SyncResponse response = new SyncResponse();
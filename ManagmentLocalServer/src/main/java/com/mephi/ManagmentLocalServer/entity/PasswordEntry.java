@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "password_entries")
+@Table(
+    name = "password_entries",
+    indexes = @Index(name = "idx_password_entries_user_updated", columnList = "user_id, updated_at, id")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "secure_notes")
+@Table(
+    name = "secure_notes",
+    indexes = @Index(name = "idx_secure_notes_user_updated", columnList = "user_id, updated_at, id")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +42,15 @@ public class User implements UserDetails {
     @Column
     private String remoteId;
     
+    @Column
+    private Long syncCursor; // курсор журнала изменений удаленного сервера (/api/sync/changes)
+    
+    @Column
+    private String remoteNotesEtag; // ETag последней полной выгрузки /api/notes
+    
+    @Column
+    private String remotePasswordsEtag; // ETag последней полной выгрузки /api/passwords
+    
     @Column(nullable = false)
     private boolean isSetup = false;
     
@@ -57,6 +66,15 @@ public class User implements UserDetails {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<PasswordEntry> passwordEntries;
     
+    /**
+     * Сбрасывает позицию синхронизации: следующая загрузка будет полной и безусловной
+     */
+    public void resetSyncState() {
+        syncCursor = null;
+        remoteNotesEtag = null;
+        remotePasswordsEtag = null;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
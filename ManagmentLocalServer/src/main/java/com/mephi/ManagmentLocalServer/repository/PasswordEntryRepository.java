@@ -1,13 +1,17 @@
 package com.mephi.ManagmentLocalServer.repository;
 
+import com.mephi.ManagmentLocalServer.dto.listing.EntrySummary;
+import com.mephi.ManagmentLocalServer.dto.password.PasswordResponse;
 import com.mephi.ManagmentLocalServer.entity.PasswordEntry;
 import com.mephi.ManagmentLocalServer.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,8 @@ public interface PasswordEntryRepository extends JpaRepository<PasswordEntry, Lo
     
     Optional<PasswordEntry> findByRemoteIdAndUser(String remoteId, User user);
     
+    List<PasswordEntry> findByUserAndRemoteIdIn(User user, Collection<String> remoteIds);
+    
     @Query("SELECT p FROM PasswordEntry p WHERE p.user = :user AND p.lastSyncAt IS NULL")
     List<PasswordEntry> findUnsyncedByUser(@Param("user") User user);
     
@@ -30,4 +36,25 @@ public interface PasswordEntryRepository extends JpaRepository<PasswordEntry, Lo
     
     @Query("SELECT p FROM PasswordEntry p WHERE p.user = :user AND p.updatedAt > :since")
     List<PasswordEntry> findByUserAndUpdatedAtAfter(@Param("user") User user, @Param("since") Instant since);
-} 
\ No newline at end of file
+    
+    // Постраничный список по (updatedAt DESC, id DESC); курсор - последняя запись предыдущей страницы
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.listing.EntrySummary(p.id, p.encryptedTitle, p.encryptedType, p.updatedAt) " +
+           "FROM PasswordEntry p WHERE p.user = :user ORDER BY p.updatedAt DESC, p.id DESC")
+    List<EntrySummary> findSummaries(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.listing.EntrySummary(p.id, p.encryptedTitle, p.encryptedType, p.updatedAt) " +
+           "FROM PasswordEntry p WHERE p.user = :user AND (p.updatedAt < :updatedAt OR (p.updatedAt = :updatedAt AND p.id < :id)) " +
+           "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<EntrySummary> findSummariesAfter(@Param("user") User user, @Param("updatedAt") Instant updatedAt,
+                                          @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.password.PasswordResponse(p.id, p.encryptedTitle, p.encryptedSite, p.encryptedLogin, p.encryptedPassword, p.encryptedType, p.remoteId, p.createdAt, p.updatedAt, p.lastSyncAt) " +
+           "FROM PasswordEntry p WHERE p.user = :user ORDER BY p.updatedAt DESC, p.id DESC")
+    List<PasswordResponse> findResponses(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.password.PasswordResponse(p.id, p.encryptedTitle, p.encryptedSite, p.encryptedLogin, p.encryptedPassword, p.encryptedType, p.remoteId, p.createdAt, p.updatedAt, p.lastSyncAt) " +
+           "FROM PasswordEntry p WHERE p.user = :user AND (p.updatedAt < :updatedAt OR (p.updatedAt = :updatedAt AND p.id < :id)) " +
+           "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<PasswordResponse> findResponsesAfter(@Param("user") User user, @Param("updatedAt") Instant updatedAt,
+                                    @Param("id") Long id, Pageable pageable);
+}
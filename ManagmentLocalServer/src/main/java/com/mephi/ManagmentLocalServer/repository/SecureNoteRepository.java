@@ -1,14 +1,18 @@
 package com.mephi.ManagmentLocalServer.repository;
 
 
+import com.mephi.ManagmentLocalServer.dto.listing.EntrySummary;
+import com.mephi.ManagmentLocalServer.dto.note.NoteResponse;
 import com.mephi.ManagmentLocalServer.entity.SecureNote;
 import com.mephi.ManagmentLocalServer.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +27,8 @@ public interface SecureNoteRepository extends JpaRepository<SecureNote, Long> {
     
     Optional<SecureNote> findByRemoteIdAndUser(String remoteId, User user);
     
+    List<SecureNote> findByUserAndRemoteIdIn(User user, Collection<String> remoteIds);
+    
     @Query("SELECT n FROM SecureNote n WHERE n.user = :user AND n.lastSyncAt IS NULL")
     List<SecureNote> findUnsyncedByUser(@Param("user") User user);
     
@@ -31,4 +37,25 @@ public interface SecureNoteRepository extends JpaRepository<SecureNote, Long> {
     
     @Query("SELECT n FROM SecureNote n WHERE n.user = :user AND n.updatedAt > :since")
     List<SecureNote> findByUserAndUpdatedAtAfter(@Param("user") User user, @Param("since") Instant since);
-} 
\ No newline at end of file
+    
+    // Постраничный список по (updatedAt DESC, id DESC); курсор - последняя запись предыдущей страницы
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.listing.EntrySummary(n.id, n.encryptedTitle, n.encryptedType, n.updatedAt) " +
+           "FROM SecureNote n WHERE n.user = :user ORDER BY n.updatedAt DESC, n.id DESC")
+    List<EntrySummary> findSummaries(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.listing.EntrySummary(n.id, n.encryptedTitle, n.encryptedType, n.updatedAt) " +
+           "FROM SecureNote n WHERE n.user = :user AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<EntrySummary> findSummariesAfter(@Param("user") User user, @Param("updatedAt") Instant updatedAt,
+                                          @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.note.NoteResponse(n.id, n.encryptedTitle, n.encryptedType, n.encryptedData, n.remoteId, n.createdAt, n.updatedAt, n.lastSyncAt) " +
+           "FROM SecureNote n WHERE n.user = :user ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NoteResponse> findResponses(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT new com.mephi.ManagmentLocalServer.dto.note.NoteResponse(n.id, n.encryptedTitle, n.encryptedType, n.encryptedData, n.remoteId, n.createdAt, n.updatedAt, n.lastSyncAt) " +
+           "FROM SecureNote n WHERE n.user = :user AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NoteResponse> findResponsesAfter(@Param("user") User user, @Param("updatedAt") Instant updatedAt,
+                                    @Param("id") Long id, Pageable pageable);
+}
@@ -1,5 +1,8 @@
 package com.mephi.ManagmentLocalServer.service;
 
+import com.mephi.ManagmentLocalServer.dto.listing.EntrySummary;
+import com.mephi.ManagmentLocalServer.dto.listing.ListingCursor;
+import com.mephi.ManagmentLocalServer.dto.listing.ListingPage;
 import com.mephi.ManagmentLocalServer.dto.password.PasswordRequest;
 import com.mephi.ManagmentLocalServer.dto.password.PasswordResponse;
 import com.mephi.ManagmentLocalServer.entity.PasswordEntry;
@@ -7,11 +10,14 @@ import com.mephi.ManagmentLocalServer.entity.User;
 import com.mephi.ManagmentLocalServer.repository.PasswordEntryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -90,6 +96,44 @@ public class PasswordEntryService {
         return convertToResponse(password);
     }
 
+    /**
+     * Страница списка по (updatedAt DESC, id DESC) с полным содержимым записей
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<PasswordResponse> getPasswordPage(String cursor, int limit) {
+        User currentUser = userService.getCurrentUser();
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<PasswordResponse> rows;
+        if (cursor == null) {
+            rows = passwordRepository.findResponses(currentUser, page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = passwordRepository.findResponsesAfter(currentUser, after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.getUpdatedAt(), row.getId()));
+    }
+
+    /**
+     * Страница списка только с названием и типом: зашифрованное содержимое не читается из базы
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<EntrySummary> getPasswordSummaries(String cursor, int limit) {
+        User currentUser = userService.getCurrentUser();
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<EntrySummary> rows;
+        if (cursor == null) {
+            rows = passwordRepository.findSummaries(currentUser, page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = passwordRepository.findSummariesAfter(currentUser, after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.getUpdatedAt(), row.getId()));
+    }
+
     // Методы для синхронизации
     public List<PasswordEntry> getUnsyncedPasswords() {
         User currentUser = userService.getCurrentUser();
@@ -108,32 +152,39 @@ public class PasswordEntryService {
         log.info("Password {} marked as synced with remoteId: {}", passwordId, remoteId);
     }
 
-    public int countUnsyncedPasswords() {
-        User currentUser = userService.getCurrentUser();
-        return passwordRepository.findUnsyncedByUser(currentUser).size();
+    /**
+     * Отмечает синхронизированными сразу несколько записей: ключ - локальный ID, значение - remoteId
+     */
+    @Transactional
+    public void markAsSynced(Map<Long, String> remoteIdsByLocalId) {
+        if (remoteIdsByLocalId.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<PasswordEntry> passwords = passwordRepository.findAllById(remoteIdsByLocalId.keySet());
+        for (PasswordEntry password : passwords) {
+            password.setRemoteId(remoteIdsByLocalId.get(password.getId()));
+            password.setLastSyncAt(now);
+        }
+        passwordRepository.saveAll(passwords);
+        
+        log.info("{} passwords marked as synced", passwords.size());
     }
 
-    public PasswordEntry createPasswordFromRemote(String encryptedTitle, String encryptedSite, 
-                                                String encryptedLogin, String encryptedPassword, 
-                                                String encryptedType, String remoteId, 
-                                                Instant createdAt, Instant updatedAt) {
+    /**
+     * Сбрасывает remoteId у записей, которых больше нет на удаленном сервере:
+     * при следующей отправке они будут созданы заново
+     */
+    @Transactional
+    public void clearRemoteIds(Collection<Long> passwordIds) {
+        List<PasswordEntry> passwords = passwordRepository.findAllById(passwordIds);
+        passwords.forEach(password -> password.setRemoteId(null));
+        passwordRepository.saveAll(passwords);
+    }
+
+    public int countUnsyncedPasswords() {
         User currentUser = userService.getCurrentUser();
-        
-        PasswordEntry password = new PasswordEntry();
-        password.setUser(currentUser);
-        password.setEncryptedTitle(encryptedTitle);
-        password.setEncryptedSite(encryptedSite);
-        password.setEncryptedLogin(encryptedLogin);
-        password.setEncryptedPassword(encryptedPassword);
-        password.setEncryptedType(encryptedType);
-        password.setRemoteId(remoteId);
-        password.setLastSyncAt(Instant.now());
-        
-        // Устанавливаем времена создания/обновления с удаленного сервера
-        password.setCreatedAt(createdAt);
-        password.setUpdatedAt(updatedAt);
-        
-        return passwordRepository.save(password);
+        return passwordRepository.findUnsyncedByUser(currentUser).size();
     }
 
     public List<PasswordEntry> getAllPasswordsForUser() {
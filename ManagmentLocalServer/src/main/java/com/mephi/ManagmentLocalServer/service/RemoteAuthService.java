@@ -21,11 +21,8 @@ import java.util.Map;
 @Slf4j
 public class RemoteAuthService {
     
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
 
-    @Value("${remote.server.url}")
-    private String remoteServerUrl;
-    
     @Value("${remote.server.enabled}")
     private boolean remoteEnabled;
     
@@ -56,10 +53,6 @@ public class RemoteAuthService {
         try {
             RemoteRegisterRequest request = new RemoteRegisterRequest(username, salt, passwordHash);
             
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             RemoteJwtResponse response = webClient.post()
                     .uri("/auth/register")
                     .bodyValue(request)
@@ -101,10 +94,6 @@ public class RemoteAuthService {
         try {
             RemoteLoginRequest request = new RemoteLoginRequest(username, passwordHash);
             
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             RemoteJwtResponse response = webClient.post()
                     .uri("/auth/login")
                     .bodyValue(request)
@@ -135,10 +124,6 @@ public class RemoteAuthService {
         }
 
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             String response = webClient.get()
                     .uri("/api/notes") // Любой защищенный endpoint для проверки токена
                     .header("Authorization", "Bearer " + token)
@@ -161,10 +146,6 @@ public class RemoteAuthService {
      */
     public boolean checkRemoteConnection() {
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             webClient.get()
                     .uri("/actuator/health")
                     .retrieve()
@@ -217,10 +198,6 @@ public class RemoteAuthService {
         }
 
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             // Проверяем токен через endpoint /auth/login удаленного сервера
             Map<String, Object> response = webClient.post()
                     .uri("/auth/login")
@@ -258,10 +235,6 @@ public class RemoteAuthService {
         }
 
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             // Используем токен через endpoint удаленного сервера
             Map<String, Object> response = webClient.post()
                     .uri("/auth/use-transfer-token")
@@ -310,10 +283,6 @@ public class RemoteAuthService {
         }
 
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             // Отправляем данные на удаленный сервер для инициации входа
             Map<String, Object> response = webClient.post()
                     .uri("/auth/cloud-login")
@@ -358,10 +327,6 @@ public class RemoteAuthService {
         }
 
         try {
-            WebClient webClient = webClientBuilder
-                    .baseUrl(remoteServerUrl)
-                    .build();
-
             // Отправляем OTP код на удаленный сервер для верификации
             Map<String, Object> response = webClient.post()
                     .uri("/auth/verify-cloud-otp")
@@ -0,0 +1,174 @@
+package com.mephi.ManagmentLocalServer.service;
+
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteSyncEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подписка на поток изменений удаленного сервера (GET /api/sync/stream, Server-Sent Events).
+ * <p>
+ * Когда версия хранилища на сервере обгоняет сохраненный курсор, запускается инкрементальная
+ * синхронизация по журналу изменений - та же, что у /sync/pull с курсором. Синхронизации не
+ * перекрываются: уведомления, пришедшие во время одной, сливаются в одну следующую.
+ * Пока облачный аккаунт не подключен или сервер недоступен, подписка повторяется с растущей задержкой.
+ * До первой полной синхронизации (курсора еще нет) уведомления пропускаются.
+ */
+@Service
+@Slf4j
+public class RemoteChangeSubscriber {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<RemoteSyncEvent>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final UserService userService;
+    private final SyncService syncService;
+    private final boolean enabled;
+    private final Duration idleTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final AtomicBoolean pulling = new AtomicBoolean();
+    private final AtomicBoolean pullRequested = new AtomicBoolean();
+    private final Counter notifications;
+    private final Counter pulls;
+    private volatile boolean connected;
+    private Disposable subscription;
+
+    public RemoteChangeSubscriber(WebClient webClient,
+                                  UserService userService,
+                                  SyncService syncService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${remote.server.enabled}") boolean remoteEnabled,
+                                  @Value("${remote.sync.stream.enabled:true}") boolean streamEnabled,
+                                  @Value("${remote.sync.stream.idle-timeout:45s}") Duration idleTimeout,
+                                  @Value("${remote.sync.stream.initial-backoff:1s}") Duration initialBackoff,
+                                  @Value("${remote.sync.stream.max-backoff:1m}") Duration maxBackoff) {
+        this.webClient = webClient;
+        this.userService = userService;
+        this.syncService = syncService;
+        this.enabled = remoteEnabled && streamEnabled;
+        this.idleTimeout = idleTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.notifications = Counter.builder("sync.stream.notifications")
+                .description("Уведомления об изменениях, полученные от удаленного сервера")
+                .register(meterRegistry);
+        this.pulls = Counter.builder("sync.stream.pulls")
+                .description("Инкрементальные синхронизации, запущенные уведомлениями")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.defer(this::stream)
+                // Сервер закрывает поток по таймауту - открываем новый
+                .repeatWhen(completions -> completions.delayElements(initialBackoff))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, initialBackoff)
+                        .maxBackoff(maxBackoff)
+                        // Задержка растет только для ошибок подряд; полученное событие ее сбрасывает
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> {
+                            if (signal.totalRetriesInARow() == 0) {
+                                log.warn("Remote change stream unavailable, retrying: {}", signal.failure().getMessage());
+                            }
+                        }))
+                .subscribe(this::onEvent);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Открыт ли сейчас поток уведомлений
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private Flux<RemoteSyncEvent> stream() {
+        return Mono.fromCallable(() -> userService.hasRemoteAccount() ? userService.getRemoteToken() : null)
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Remote account not connected")))
+                .flatMapMany(remoteToken -> webClient.get()
+                        .uri("/api/sync/stream")
+                        .header("Authorization", "Bearer " + remoteToken)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        // Общий responseTimeout клиента рассчитан на обычные запросы; поток молчит
+                        // между heartbeat-сообщениями сервера (15s)
+                        .httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(idleTimeout))
+                        .retrieve()
+                        .bodyToFlux(EVENT_TYPE))
+                .doOnSubscribe(s -> connected = false)
+                .doOnNext(event -> {
+                    if (!connected) {
+                        connected = true;
+                        log.info("Subscribed to remote change stream");
+                    }
+                })
+                .doFinally(signal -> connected = false)
+                .mapNotNull(ServerSentEvent::data);
+    }
+
+    private void onEvent(RemoteSyncEvent event) {
+        notifications.increment();
+        Mono.fromCallable(() -> {
+                    Long cursor = userService.getSyncCursor();
+                    return cursor != null && event.getVersion() > cursor;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(behind -> {
+                    if (behind) {
+                        requestPull();
+                    }
+                }, e -> log.warn("Failed to check sync cursor: {}", e.getMessage()));
+    }
+
+    private void requestPull() {
+        pullRequested.set(true);
+        if (!pulling.compareAndSet(false, true)) {
+            return;
+        }
+        pullRequested.set(false);
+        pulls.increment();
+        syncService.pullFromRemote()
+                .doFinally(signal -> {
+                    pulling.set(false);
+                    // Уведомления, пришедшие во время синхронизации, - одна следующая
+                    if (pullRequested.get()) {
+                        requestPull();
+                    }
+                })
+                .subscribe(response -> {
+                    if (!response.isSuccess()) {
+                        log.warn("Incremental sync after remote change failed: {}", response.getMessage());
+                    }
+                }, e -> log.warn("Incremental sync after remote change failed: {}", e.getMessage()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.mephi.ManagmentLocalServer.service;
 
-import lombok.extern.slf4j.Slf4j;
+import com.mephi.ManagmentLocalServer.config.RequestLogger;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -9,44 +10,33 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@Slf4j
+@RequiredArgsConstructor
 public class RemoteProxyService {
 
     @Value("${remote.server.url:http://localhost:8080}")
     private String remoteServerUrl;
 
+    private final RequestLogger requestLogger;
+
     private final AtomicLong requestCounter = new AtomicLong(0);
+    private final AtomicLong errorCounter = new AtomicLong(0);
     private final ConcurrentHashMap<String, AtomicLong> endpointStats = new ConcurrentHashMap<>();
     private LocalDateTime lastRequestTime;
 
     /**
-     * Логирует прокси-запрос
+     * Учитывает прокси-запрос в статистике. Сам запрос журналирует RemoteProxyController через RequestLogger
      */
-    public void logProxyRequest(String method, String path, String userAgent) {
-        long requestId = requestCounter.incrementAndGet();
+    public void recordProxyRequest(String method, String path) {
+        requestCounter.incrementAndGet();
         lastRequestTime = LocalDateTime.now();
         
         // Увеличиваем счетчик для эндпоинта
         String endpoint = method + " " + path;
         endpointStats.computeIfAbsent(endpoint, k -> new AtomicLong(0)).incrementAndGet();
-        
-        log.info("🔄 Proxy Request #{}: {} {} - UserAgent: {}", 
-                requestId, method, path, userAgent);
-    }
-
-    /**
-     * Логирует ответ от удаленного сервера
-     */
-    public void logProxyResponse(String method, String path, int statusCode, long duration) {
-        log.info("✅ Proxy Response: {} {} - Status: {} - Duration: {}ms", 
-                method, path, statusCode, duration);
     }
 
-    /**
-     * Логирует ошибку прокси
-     */
-    public void logProxyError(String method, String path, String error) {
-        log.error("❌ Proxy Error: {} {} - Error: {}", method, path, error);
+    public void recordProxyError() {
+        errorCounter.incrementAndGet();
     }
 
     /**
@@ -55,6 +45,8 @@ public class RemoteProxyService {
     public ProxyStats getStats() {
         return ProxyStats.builder()
                 .totalRequests(requestCounter.get())
+                .totalErrors(errorCounter.get())
+                .droppedLogEvents(requestLogger.getDroppedCount())
                 .remoteServerUrl(remoteServerUrl)
                 .lastRequestTime(lastRequestTime)
                 .endpointStats(new ConcurrentHashMap<>(endpointStats))
@@ -65,6 +57,8 @@ public class RemoteProxyService {
     @lombok.Data
     public static class ProxyStats {
         private long totalRequests;
+        private long totalErrors;
+        private long droppedLogEvents;
         private String remoteServerUrl;
         private LocalDateTime lastRequestTime;
         private ConcurrentHashMap<String, AtomicLong> endpointStats;
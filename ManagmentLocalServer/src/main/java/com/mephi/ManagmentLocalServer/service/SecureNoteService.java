@@ -1,5 +1,8 @@
 package com.mephi.ManagmentLocalServer.service;
 
+import com.mephi.ManagmentLocalServer.dto.listing.EntrySummary;
+import com.mephi.ManagmentLocalServer.dto.listing.ListingCursor;
+import com.mephi.ManagmentLocalServer.dto.listing.ListingPage;
 import com.mephi.ManagmentLocalServer.dto.note.NoteRequest;
 import com.mephi.ManagmentLocalServer.dto.note.NoteResponse;
 import com.mephi.ManagmentLocalServer.entity.SecureNote;
@@ -7,11 +10,14 @@ import com.mephi.ManagmentLocalServer.entity.User;
 import com.mephi.ManagmentLocalServer.repository.SecureNoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -86,6 +92,44 @@ public class SecureNoteService {
         return convertToResponse(note);
     }
 
+    /**
+     * Страница списка по (updatedAt DESC, id DESC) с полным содержимым записей
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<NoteResponse> getNotePage(String cursor, int limit) {
+        User currentUser = userService.getCurrentUser();
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<NoteResponse> rows;
+        if (cursor == null) {
+            rows = noteRepository.findResponses(currentUser, page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = noteRepository.findResponsesAfter(currentUser, after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.getUpdatedAt(), row.getId()));
+    }
+
+    /**
+     * Страница списка только с названием и типом: зашифрованное содержимое не читается из базы
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<EntrySummary> getNoteSummaries(String cursor, int limit) {
+        User currentUser = userService.getCurrentUser();
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<EntrySummary> rows;
+        if (cursor == null) {
+            rows = noteRepository.findSummaries(currentUser, page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = noteRepository.findSummariesAfter(currentUser, after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.getUpdatedAt(), row.getId()));
+    }
+
     // Методы для синхронизации
     public List<SecureNote> getUnsyncedNotes() {
         User currentUser = userService.getCurrentUser();
@@ -104,28 +148,39 @@ public class SecureNoteService {
         log.info("Note {} marked as synced with remoteId: {}", noteId, remoteId);
     }
 
-    public int countUnsyncedNotes() {
-        User currentUser = userService.getCurrentUser();
-        return noteRepository.findUnsyncedByUser(currentUser).size();
+    /**
+     * Отмечает синхронизированными сразу несколько записей: ключ - локальный ID, значение - remoteId
+     */
+    @Transactional
+    public void markAsSynced(Map<Long, String> remoteIdsByLocalId) {
+        if (remoteIdsByLocalId.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<SecureNote> notes = noteRepository.findAllById(remoteIdsByLocalId.keySet());
+        for (SecureNote note : notes) {
+            note.setRemoteId(remoteIdsByLocalId.get(note.getId()));
+            note.setLastSyncAt(now);
+        }
+        noteRepository.saveAll(notes);
+        
+        log.info("{} notes marked as synced", notes.size());
     }
 
-    public SecureNote createNoteFromRemote(String encryptedTitle, String encryptedType, 
-                                         String encryptedData, String remoteId, Instant createdAt, Instant updatedAt) {
+    /**
+     * Сбрасывает remoteId у записей, которых больше нет на удаленном сервере:
+     * при следующей отправке они будут созданы заново
+     */
+    @Transactional
+    public void clearRemoteIds(Collection<Long> noteIds) {
+        List<SecureNote> notes = noteRepository.findAllById(noteIds);
+        notes.forEach(note -> note.setRemoteId(null));
+        noteRepository.saveAll(notes);
+    }
+
+    public int countUnsyncedNotes() {
         User currentUser = userService.getCurrentUser();
-        
-        SecureNote note = new SecureNote();
-        note.setUser(currentUser);
-        note.setEncryptedTitle(encryptedTitle);
-        note.setEncryptedType(encryptedType);
-        note.setEncryptedData(encryptedData);
-        note.setRemoteId(remoteId);
-        note.setLastSyncAt(Instant.now());
-        
-        // Устанавливаем времена создания/обновления с удаленного сервера
-        note.setCreatedAt(createdAt);
-        note.setUpdatedAt(updatedAt);
-        
-        return noteRepository.save(note);
+        return noteRepository.findUnsyncedByUser(currentUser).size();
     }
 
     public List<SecureNote> getAllNotesForUser() {
@@ -0,0 +1,250 @@
+package com.mephi.ManagmentLocalServer.service;
+
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteNoteResponse;
+import com.mephi.ManagmentLocalServer.dto.remote.RemotePasswordResponse;
+import com.mephi.ManagmentLocalServer.dto.sync.ConflictResolutionStrategy;
+import com.mephi.ManagmentLocalServer.dto.sync.SyncResponse;
+import com.mephi.ManagmentLocalServer.entity.PasswordEntry;
+import com.mephi.ManagmentLocalServer.entity.SecureNote;
+import com.mephi.ManagmentLocalServer.entity.User;
+import com.mephi.ManagmentLocalServer.repository.PasswordEntryRepository;
+import com.mephi.ManagmentLocalServer.repository.SecureNoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Слияние данных с удаленного сервера с локальной базой.
+ * Локальные записи индексируются по remoteId, вставки и обновления собираются за один проход
+ * и записываются пакетом в одной транзакции - без запроса к базе на каждую удаленную запись.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncMergeService {
+
+    // Ограничение на число параметров в IN (...) для SQLite
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private final UserService userService;
+    private final SecureNoteRepository noteRepository;
+    private final PasswordEntryRepository passwordRepository;
+
+    @Transactional
+    public void mergeNotes(List<RemoteNoteResponse> remoteNotes, List<String> deletedRemoteIds,
+                           ConflictResolutionStrategy strategy, SyncResponse response) {
+        if (remoteNotes.isEmpty() && deletedRemoteIds.isEmpty()) {
+            return;
+        }
+
+        User currentUser = userService.getCurrentUser();
+        Set<String> remoteIds = new LinkedHashSet<>(deletedRemoteIds);
+        remoteNotes.forEach(remoteNote -> remoteIds.add(remoteNote.getId()));
+        Map<String, SecureNote> localByRemoteId = indexByRemoteId(remoteIds,
+                ids -> noteRepository.findByUserAndRemoteIdIn(currentUser, ids), SecureNote::getRemoteId);
+
+        Instant now = Instant.now();
+        List<SecureNote> toSave = new ArrayList<>();
+        List<SecureNote> toDelete = new ArrayList<>();
+        int pulled = 0;
+
+        for (RemoteNoteResponse remoteNote : remoteNotes) {
+            SecureNote localNote = localByRemoteId.get(remoteNote.getId());
+            if (localNote == null) {
+                // Создаем новую локальную запись из удаленной
+                localNote = new SecureNote();
+                localNote.setUser(currentUser);
+                localNote.setRemoteId(remoteNote.getId());
+                localNote.setCreatedAt(remoteNote.getCreatedAt());
+                localByRemoteId.put(remoteNote.getId(), localNote);
+            } else {
+                // Обработка конфликтов для существующих записей
+                if (isModifiedLocally(localNote.getUpdatedAt(), localNote.getLastSyncAt())) {
+                    response.setConflicts(response.getConflicts() + 1);
+                    if (strategy == ConflictResolutionStrategy.CREATE_DUPLICATE) {
+                        // Локальная версия остается отдельной записью без remoteId и уйдет при следующем push
+                        toSave.add(duplicateOf(localNote));
+                    }
+                }
+                if (!shouldUpdate(localNote.getUpdatedAt(), remoteNote.getUpdatedAt(), strategy)) {
+                    response.setSkipped(response.getSkipped() + 1);
+                    continue;
+                }
+            }
+
+            localNote.setEncryptedTitle(remoteNote.getEncryptedTitle());
+            localNote.setEncryptedType(remoteNote.getEncryptedType());
+            localNote.setEncryptedData(remoteNote.getEncryptedData());
+            localNote.setUpdatedAt(remoteNote.getUpdatedAt());
+            localNote.setLastSyncAt(now);
+            toSave.add(localNote);
+            pulled++;
+        }
+
+        for (String remoteId : deletedRemoteIds) {
+            SecureNote localNote = localByRemoteId.get(remoteId);
+            if (localNote == null) {
+                continue;
+            }
+
+            if (keepLocalOnRemoteDelete(localNote.getUpdatedAt(), localNote.getLastSyncAt(), strategy)) {
+                // Локальные правки не теряем: при следующем push запись будет создана заново
+                localNote.setRemoteId(null);
+                localNote.setLastSyncAt(null);
+                toSave.add(localNote);
+                response.setConflicts(response.getConflicts() + 1);
+            } else {
+                toDelete.add(localNote);
+            }
+        }
+
+        noteRepository.saveAll(toSave);
+        noteRepository.deleteAll(toDelete);
+        response.setNotesPulled(response.getNotesPulled() + pulled);
+
+        log.info("Merged remote notes: {} saved, {} deleted", toSave.size(), toDelete.size());
+    }
+
+    @Transactional
+    public void mergePasswords(List<RemotePasswordResponse> remotePasswords, List<String> deletedRemoteIds,
+                               ConflictResolutionStrategy strategy, SyncResponse response) {
+        if (remotePasswords.isEmpty() && deletedRemoteIds.isEmpty()) {
+            return;
+        }
+
+        User currentUser = userService.getCurrentUser();
+        Set<String> remoteIds = new LinkedHashSet<>(deletedRemoteIds);
+        remotePasswords.forEach(remotePassword -> remoteIds.add(remotePassword.getId()));
+        Map<String, PasswordEntry> localByRemoteId = indexByRemoteId(remoteIds,
+                ids -> passwordRepository.findByUserAndRemoteIdIn(currentUser, ids), PasswordEntry::getRemoteId);
+
+        Instant now = Instant.now();
+        List<PasswordEntry> toSave = new ArrayList<>();
+        List<PasswordEntry> toDelete = new ArrayList<>();
+        int pulled = 0;
+
+        for (RemotePasswordResponse remotePassword : remotePasswords) {
+            PasswordEntry localPassword = localByRemoteId.get(remotePassword.getId());
+            if (localPassword == null) {
+                // Создаем новую локальную запись из удаленной
+                localPassword = new PasswordEntry();
+                localPassword.setUser(currentUser);
+                localPassword.setRemoteId(remotePassword.getId());
+                localPassword.setCreatedAt(remotePassword.getCreatedAt());
+                localByRemoteId.put(remotePassword.getId(), localPassword);
+            } else {
+                // Обработка конфликтов для существующих записей
+                if (isModifiedLocally(localPassword.getUpdatedAt(), localPassword.getLastSyncAt())) {
+                    response.setConflicts(response.getConflicts() + 1);
+                    if (strategy == ConflictResolutionStrategy.CREATE_DUPLICATE) {
+                        // Локальная версия остается отдельной записью без remoteId и уйдет при следующем push
+                        toSave.add(duplicateOf(localPassword));
+                    }
+                }
+                if (!shouldUpdate(localPassword.getUpdatedAt(), remotePassword.getUpdatedAt(), strategy)) {
+                    response.setSkipped(response.getSkipped() + 1);
+                    continue;
+                }
+            }
+
+            localPassword.setEncryptedTitle(remotePassword.getEncryptedTitle());
+            localPassword.setEncryptedSite(remotePassword.getEncryptedSite());
+            localPassword.setEncryptedLogin(remotePassword.getEncryptedLogin());
+            localPassword.setEncryptedPassword(remotePassword.getEncryptedPassword());
+            localPassword.setEncryptedType(remotePassword.getEncryptedType());
+            localPassword.setUpdatedAt(remotePassword.getUpdatedAt());
+            localPassword.setLastSyncAt(now);
+            toSave.add(localPassword);
+            pulled++;
+        }
+
+        for (String remoteId : deletedRemoteIds) {
+            PasswordEntry localPassword = localByRemoteId.get(remoteId);
+            if (localPassword == null) {
+                continue;
+            }
+
+            if (keepLocalOnRemoteDelete(localPassword.getUpdatedAt(), localPassword.getLastSyncAt(), strategy)) {
+                // Локальные правки не теряем: при следующем push запись будет создана заново
+                localPassword.setRemoteId(null);
+                localPassword.setLastSyncAt(null);
+                toSave.add(localPassword);
+                response.setConflicts(response.getConflicts() + 1);
+            } else {
+                toDelete.add(localPassword);
+            }
+        }
+
+        passwordRepository.saveAll(toSave);
+        passwordRepository.deleteAll(toDelete);
+        response.setPasswordsPulled(response.getPasswordsPulled() + pulled);
+
+        log.info("Merged remote passwords: {} saved, {} deleted", toSave.size(), toDelete.size());
+    }
+
+    private <T> Map<String, T> indexByRemoteId(Collection<String> remoteIds,
+                                               Function<List<String>, List<T>> loader,
+                                               Function<T, String> remoteIdGetter) {
+        List<String> ids = new ArrayList<>(remoteIds);
+        Map<String, T> index = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+            for (T entry : loader.apply(ids.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ids.size())))) {
+                index.put(remoteIdGetter.apply(entry), entry);
+            }
+        }
+        return index;
+    }
+
+    private SecureNote duplicateOf(SecureNote localNote) {
+        SecureNote copy = new SecureNote();
+        copy.setUser(localNote.getUser());
+        copy.setEncryptedTitle(localNote.getEncryptedTitle());
+        copy.setEncryptedType(localNote.getEncryptedType());
+        copy.setEncryptedData(localNote.getEncryptedData());
+        copy.setCreatedAt(localNote.getCreatedAt());
+        copy.setUpdatedAt(localNote.getUpdatedAt());
+        return copy;
+    }
+
+    private PasswordEntry duplicateOf(PasswordEntry localPassword) {
+        PasswordEntry copy = new PasswordEntry();
+        copy.setUser(localPassword.getUser());
+        copy.setEncryptedTitle(localPassword.getEncryptedTitle());
+        copy.setEncryptedSite(localPassword.getEncryptedSite());
+        copy.setEncryptedLogin(localPassword.getEncryptedLogin());
+        copy.setEncryptedPassword(localPassword.getEncryptedPassword());
+        copy.setEncryptedType(localPassword.getEncryptedType());
+        copy.setCreatedAt(localPassword.getCreatedAt());
+        copy.setUpdatedAt(localPassword.getUpdatedAt());
+        return copy;
+    }
+
+    private boolean isModifiedLocally(Instant localUpdatedAt, Instant lastSyncAt) {
+        return lastSyncAt == null || localUpdatedAt.isAfter(lastSyncAt);
+    }
+
+    private boolean keepLocalOnRemoteDelete(Instant localUpdatedAt, Instant lastSyncAt, ConflictResolutionStrategy strategy) {
+        return isModifiedLocally(localUpdatedAt, lastSyncAt) && strategy != ConflictResolutionStrategy.REMOTE_WINS;
+    }
+
+    private boolean shouldUpdate(Instant localUpdatedAt, Instant remoteUpdatedAt, ConflictResolutionStrategy strategy) {
+        return switch (strategy) {
+            case LOCAL_WINS -> false; // Всегда сохраняем локальную версию
+            case REMOTE_WINS -> true; // Всегда берем удаленную версию
+            case LATEST_TIMESTAMP -> remoteUpdatedAt.isAfter(localUpdatedAt); // Берем более новую
+            case CREATE_DUPLICATE -> true; // Локальная версия при конфликте сохраняется копией (duplicateOf)
+            case SKIP_CONFLICTS -> false; // Пропускаем конфликты
+        };
+    }
+}
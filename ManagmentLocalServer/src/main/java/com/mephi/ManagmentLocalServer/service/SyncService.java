@@ -1,392 +1,412 @@
 package com.mephi.ManagmentLocalServer.service;
 
+import com.mephi.ManagmentLocalServer.config.SyncCodec;
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteBatchItemResult;
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteBatchOperation;
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteBatchRequest;
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteBatchResponse;
 import com.mephi.ManagmentLocalServer.dto.remote.RemoteNoteResponse;
 import com.mephi.ManagmentLocalServer.dto.remote.RemotePasswordResponse;
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteSyncChangesResponse;
 import com.mephi.ManagmentLocalServer.dto.note.NoteRequest;
 import com.mephi.ManagmentLocalServer.dto.password.PasswordRequest;
 import com.mephi.ManagmentLocalServer.dto.sync.ConflictResolutionStrategy;
 import com.mephi.ManagmentLocalServer.dto.sync.SyncPushRequest;
 import com.mephi.ManagmentLocalServer.dto.sync.SyncResponse;
-import com.mephi.ManagmentLocalServer.entity.PasswordEntry;
-import com.mephi.ManagmentLocalServer.entity.SecureNote;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Синхронизация с удаленным сервером.
+ * HTTP-запросы идут неблокирующе через общий WebClient (до remote.sync.concurrency одновременно),
+ * работа с SQLite выполняется на boundedElastic и строго последовательно - база допускает одного писателя.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SyncService {
-    
+
     private final UserService userService;
     private final SecureNoteService noteService;
     private final PasswordEntryService passwordService;
-    private final WebClient.Builder webClientBuilder;
+    private final SyncMergeService mergeService;
+    private final WebClient webClient;
+    private final SyncCodec syncCodec;
+    private final MeterRegistry meterRegistry;
 
-    @Value("${remote.server.url}")
-    private String remoteServerUrl;
-    
     @Value("${remote.server.enabled}")
     private boolean remoteEnabled;
-    
+
     @Value("${remote.server.timeout}")
     private int timeout;
 
-    @Transactional
-    public SyncResponse pushToRemote(SyncPushRequest request) {
+    @Value("${remote.sync.batch-size:200}")
+    private int batchSize;
+
+    @Value("${remote.sync.concurrency:4}")
+    private int concurrency;
+
+    public Mono<SyncResponse> pushToRemote(SyncPushRequest request) {
         if (!remoteEnabled) {
-            return SyncResponse.error("Remote sync is disabled");
+            return Mono.just(SyncResponse.error("Remote sync is disabled"));
         }
 
-        if (!userService.hasRemoteAccount()) {
-            return SyncResponse.error("Remote account not connected. Please setup cloud sync first.");
-        }
+        return recordSync("push", findRemoteToken()
+                .flatMap(remoteToken -> {
+                    if (remoteToken.isEmpty()) {
+                        return Mono.just(SyncResponse.error("Remote account not connected. Please setup cloud sync first."));
+                    }
 
-        try {
-            int pushedNotes = pushNotesToRemote(request.isForceSync());
-            int pushedPasswords = pushPasswordsToRemote(request.isForceSync());
-            
-            SyncResponse response = SyncResponse.success("Successfully pushed to remote server");
-            response.setNotesPushed(pushedNotes);
-            response.setPasswordsPushed(pushedPasswords);
-            return response;
-        } catch (Exception e) {
-            log.error("Failed to push to remote server", e);
-            return SyncResponse.error("Failed to push: " + e.getMessage());
-        }
+                    Mono<Integer> pushedNotes = request.isSyncNotes()
+                            ? pushNotesToRemote(remoteToken.get())
+                            : Mono.just(0);
+                    Mono<Integer> pushedPasswords = request.isSyncPasswords()
+                            ? pushPasswordsToRemote(remoteToken.get())
+                            : Mono.just(0);
+
+                    return Mono.zip(pushedNotes, pushedPasswords).map(pushed -> {
+                        SyncResponse response = SyncResponse.success("Successfully pushed to remote server");
+                        response.setNotesPushed(pushed.getT1());
+                        response.setPasswordsPushed(pushed.getT2());
+                        return response;
+                    });
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to push to remote server", e);
+                    return Mono.just(SyncResponse.error("Failed to push: " + e.getMessage()));
+                }));
     }
 
-    @Transactional
-    public SyncResponse pullFromRemote() {
+    public Mono<SyncResponse> pullFromRemote() {
         return pullFromRemote(ConflictResolutionStrategy.LATEST_TIMESTAMP);
     }
 
-    @Transactional
-    public SyncResponse pullFromRemote(ConflictResolutionStrategy conflictStrategy) {
+    /**
+     * Без общей транзакции: HTTP-запросы идут вне базы, каждая порция данных
+     * сливается в короткой транзакции SyncMergeService
+     */
+    public Mono<SyncResponse> pullFromRemote(ConflictResolutionStrategy conflictStrategy) {
         if (!remoteEnabled) {
-            return SyncResponse.error("Remote sync is disabled");
+            return Mono.just(SyncResponse.error("Remote sync is disabled"));
         }
 
-        if (!userService.hasRemoteAccount()) {
-            return SyncResponse.error("Remote account not connected. Please setup cloud sync first.");
-        }
+        SyncResponse response = SyncResponse.success("Successfully pulled from remote server");
+        AtomicLong bytesReceived = new AtomicLong();
 
-        try {
-            int pulledNotes = pullNotesFromRemote(conflictStrategy);
-            int pulledPasswords = pullPasswordsFromRemote(conflictStrategy);
-            
-            SyncResponse response = SyncResponse.success("Successfully pulled from remote server");
-            response.setNotesPulled(pulledNotes);
-            response.setPasswordsPulled(pulledPasswords);
-            return response;
-        } catch (Exception e) {
-            log.error("Failed to pull from remote server", e);
-            return SyncResponse.error("Failed to pull: " + e.getMessage());
-        }
+        return recordSync("pull", findRemoteToken()
+                .flatMap(remoteToken -> {
+                    if (remoteToken.isEmpty()) {
+                        return Mono.just(SyncResponse.error("Remote account not connected. Please setup cloud sync first."));
+                    }
+
+                    return blocking(() -> Optional.ofNullable(userService.getSyncCursor()))
+                            .flatMap(cursor -> cursor.isPresent()
+                                    // Инкрементальная синхронизация по журналу изменений удаленного сервера
+                                    ? pullChangesFromRemote(remoteToken.get(), cursor.get(), conflictStrategy, response, bytesReceived)
+                                    : pullAllFromRemote(remoteToken.get(), conflictStrategy, response, bytesReceived))
+                            .then(Mono.fromSupplier(() -> {
+                                response.setBytesReceived(bytesReceived.get());
+                                return response;
+                            }));
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to pull from remote server", e);
+                    return Mono.just(SyncResponse.error("Failed to pull: " + e.getMessage()));
+                }));
+    }
+
+    /**
+     * Метрики синхронизации: длительность (sync.duration), число отправленных/полученных записей
+     * (sync.entries), конфликты и объем полученных данных
+     */
+    private Mono<SyncResponse> recordSync(String direction, Mono<SyncResponse> sync) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return sync.doOnNext(response -> {
+                sample.stop(Timer.builder("sync.duration")
+                        .tag("direction", direction)
+                        .tag("outcome", response.isSuccess() ? "success" : "error")
+                        .register(meterRegistry));
+                if (!response.isSuccess()) {
+                    return;
+                }
+
+                boolean push = "push".equals(direction);
+                countEntries(direction, "note", push ? response.getNotesPushed() : response.getNotesPulled());
+                countEntries(direction, "password", push ? response.getPasswordsPushed() : response.getPasswordsPulled());
+                if (!push) {
+                    Counter.builder("sync.conflicts").register(meterRegistry).increment(response.getConflicts());
+                    DistributionSummary.builder("sync.received")
+                            .baseUnit("bytes")
+                            .register(meterRegistry)
+                            .record(response.getBytesReceived());
+                }
+            });
+        });
+    }
+
+    private void countEntries(String direction, String type, int count) {
+        Counter.builder("sync.entries")
+                .tag("direction", direction)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(count);
     }
 
-    @Async
     public CompletableFuture<SyncResponse> pushToRemoteAsync(SyncPushRequest request) {
-        return CompletableFuture.completedFuture(pushToRemote(request));
+        return pushToRemote(request).toFuture();
     }
 
-    @Async
     public CompletableFuture<SyncResponse> pullFromRemoteAsync() {
-        return CompletableFuture.completedFuture(pullFromRemote());
+        return pullFromRemote().toFuture();
     }
 
-    private int pushNotesToRemote(boolean forceSync) {
-        List<SecureNote> unsyncedNotes = noteService.getUnsyncedNotes();
-        int count = 0;
-        String remoteToken = userService.getRemoteToken();
-
-        for (SecureNote note : unsyncedNotes) {
-            try {
-                WebClient webClient = webClientBuilder.baseUrl(remoteServerUrl).build();
-                
-                if (note.getRemoteId() == null) {
-                    // Создаем новую заметку на удаленном сервере
-                    NoteRequest request = new NoteRequest(
-                        note.getEncryptedTitle(),
-                        note.getEncryptedType(),
-                        note.getEncryptedData()
-                    );
-
-                    RemoteNoteResponse remoteNote = webClient.post()
-                            .uri("/api/notes")
-                            .header("Authorization", "Bearer " + remoteToken)
-                            .bodyValue(request)
-                            .retrieve()
-                            .bodyToMono(RemoteNoteResponse.class)
-                            .timeout(Duration.ofMillis(timeout))
-                            .block();
-
-                    if (remoteNote != null) {
-                        noteService.markAsSynced(note.getId(), remoteNote.getId());
-                        count++;
-                    }
-                    
-                } else {
-                    // Обновляем существующую заметку на удаленном сервере
-                    NoteRequest request = new NoteRequest(
-                        note.getEncryptedTitle(),
-                        note.getEncryptedType(),
-                        note.getEncryptedData()
-                    );
-
-                    webClient.put()
-                            .uri("/api/notes/" + note.getRemoteId())
-                            .header("Authorization", "Bearer " + remoteToken)
-                            .bodyValue(request)
-                            .retrieve()
-                            .bodyToMono(Void.class)
-                            .timeout(Duration.ofMillis(timeout))
-                            .block();
-
-                    noteService.markAsSynced(note.getId(), note.getRemoteId());
-                    count++;
-                }
-
-            } catch (Exception e) {
-                log.error("Failed to sync note {}", note.getId(), e);
-            }
-        }
+    private Mono<Integer> pushNotesToRemote(String remoteToken) {
+        // Отправляем заметки пакетами: один запрос на batchSize записей вместо запроса на каждую
+        return blocking(noteService::getUnsyncedNotes)
+                .flatMapMany(notes -> Flux.fromIterable(notes).buffer(batchSize))
+                .flatMap(chunk -> sendBatch("/api/notes/batch", chunk.stream()
+                        .map(note -> RemoteBatchOperation.upsert(note.getId(), note.getRemoteId(), new NoteRequest(
+                            note.getEncryptedTitle(),
+                            note.getEncryptedType(),
+                            note.getEncryptedData()
+                        )))
+                        .toList(), remoteToken, "notes"), concurrency)
+                .concatMap(batchResponse -> blocking(() ->
+                        applyBatchResults(batchResponse, "note", noteService::markAsSynced, noteService::clearRemoteIds)))
+                .reduce(0, Integer::sum);
+    }
 
-        return count;
+    private Mono<Integer> pushPasswordsToRemote(String remoteToken) {
+        return blocking(passwordService::getUnsyncedPasswords)
+                .flatMapMany(passwords -> Flux.fromIterable(passwords).buffer(batchSize))
+                .flatMap(chunk -> sendBatch("/api/passwords/batch", chunk.stream()
+                        .map(password -> RemoteBatchOperation.upsert(password.getId(), password.getRemoteId(), new PasswordRequest(
+                            password.getEncryptedTitle(),
+                            password.getEncryptedSite(),
+                            password.getEncryptedLogin(),
+                            password.getEncryptedPassword(),
+                            password.getEncryptedType()
+                        )))
+                        .toList(), remoteToken, "passwords"), concurrency)
+                .concatMap(batchResponse -> blocking(() ->
+                        applyBatchResults(batchResponse, "password", passwordService::markAsSynced, passwordService::clearRemoteIds)))
+                .reduce(0, Integer::sum);
     }
 
-    private int pushPasswordsToRemote(boolean forceSync) {
-        List<PasswordEntry> unsyncedPasswords = passwordService.getUnsyncedPasswords();
-        int count = 0;
-        String remoteToken = userService.getRemoteToken();
-
-        for (PasswordEntry password : unsyncedPasswords) {
-            try {
-                WebClient webClient = webClientBuilder.baseUrl(remoteServerUrl).build();
-                
-                if (password.getRemoteId() == null) {
-                    // Создаем новую запись пароля на удаленном сервере
-                    PasswordRequest request = new PasswordRequest(
-                        password.getEncryptedTitle(),
-                        password.getEncryptedSite(),
-                        password.getEncryptedLogin(),
-                        password.getEncryptedPassword(),
-                        password.getEncryptedType()
-                    );
-
-                    RemotePasswordResponse remotePassword = webClient.post()
-                            .uri("/api/passwords")
-                            .header("Authorization", "Bearer " + remoteToken)
-                            .bodyValue(request)
-                            .retrieve()
-                            .bodyToMono(RemotePasswordResponse.class)
-                            .timeout(Duration.ofMillis(timeout))
-                            .block();
-
-                    if (remotePassword != null) {
-                        passwordService.markAsSynced(password.getId(), remotePassword.getId());
-                        count++;
-                    }
-                    
-                } else {
-                    // Обновляем существующую запись на удаленном сервере
-                    PasswordRequest request = new PasswordRequest(
-                        password.getEncryptedTitle(),
-                        password.getEncryptedSite(),
-                        password.getEncryptedLogin(),
-                        password.getEncryptedPassword(),
-                        password.getEncryptedType()
-                    );
-
-                    webClient.put()
-                            .uri("/api/passwords/" + password.getRemoteId())
-                            .header("Authorization", "Bearer " + remoteToken)
-                            .bodyValue(request)
-                            .retrieve()
-                            .bodyToMono(Void.class)
-                            .timeout(Duration.ofMillis(timeout))
-                            .block();
-
-                    passwordService.markAsSynced(password.getId(), password.getRemoteId());
-                    count++;
-                }
+    /**
+     * Ошибка одного пакета не прерывает отправку остальных: его записи останутся несинхронизированными
+     */
+    private <T> Mono<RemoteBatchResponse> sendBatch(String uri, List<RemoteBatchOperation<T>> operations,
+                                                    String remoteToken, String entityName) {
+        return webClient.post()
+                .uri(uri)
+                .header("Authorization", "Bearer " + remoteToken)
+                .contentType(syncCodec.requestType())
+                .accept(syncCodec.acceptTypes().toArray(MediaType[]::new))
+                .bodyValue(new RemoteBatchRequest<>(operations))
+                .retrieve()
+                .bodyToMono(RemoteBatchResponse.class)
+                .timeout(Duration.ofMillis(timeout))
+                .onErrorResume(e -> {
+                    log.error("Failed to sync batch of {} {}", operations.size(), entityName, e);
+                    return Mono.empty();
+                });
+    }
 
-            } catch (Exception e) {
-                log.error("Failed to sync password {}", password.getId(), e);
+    /**
+     * Разбирает результаты пакета по clientRef (локальный ID): успешные записи отмечаются
+     * синхронизированными, у записей, пропавших с сервера, сбрасывается remoteId
+     */
+    private int applyBatchResults(RemoteBatchResponse batchResponse, String entityName,
+                                  Consumer<Map<Long, String>> markAsSynced, Consumer<List<Long>> clearRemoteIds) {
+        Map<Long, String> synced = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (RemoteBatchItemResult result : batchResponse.getResults()) {
+            Long localId = Long.valueOf(result.getClientRef());
+            switch (result.getStatus()) {
+                case "OK" -> synced.put(localId, result.getId());
+                case "NOT_FOUND" -> missing.add(localId);
+                default -> log.warn("Remote server rejected {} {}: {}", entityName, localId, result.getStatus());
             }
         }
 
-        return count;
+        markAsSynced.accept(synced);
+        if (!missing.isEmpty()) {
+            log.warn("{} {}s not found on remote server, will be recreated on next push", missing.size(), entityName);
+            clearRemoteIds.accept(missing);
+        }
+        return synced.size();
     }
 
-    private int pullNotesFromRemote(ConflictResolutionStrategy conflictStrategy) {
-        try {
-            String remoteToken = userService.getRemoteToken();
-            
-            if (remoteToken == null || remoteToken.trim().isEmpty()) {
-                log.error("Remote token is null or empty");
-                throw new RuntimeException("Remote token not available. Please reconnect to cloud account.");
-            }
-            
-            WebClient webClient = webClientBuilder.baseUrl(remoteServerUrl).build();
+    private Mono<Void> pullAllFromRemote(String remoteToken, ConflictResolutionStrategy conflictStrategy,
+                                         SyncResponse response, AtomicLong bytesReceived) {
+        // Первая синхронизация: сначала фиксируем позицию журнала, затем полная выгрузка.
+        // Изменения, попавшие между ними, придут повторно и применятся идемпотентно
+        Mono<Optional<Long>> headCursor = fetchChanges(remoteToken, null, bytesReceived)
+                .map(head -> Optional.of(head.getCursor()))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    // Старая версия удаленного сервера без журнала изменений - остаемся на полной выгрузке
+                    log.warn("Remote server does not support incremental sync, using full pull");
+                    return Mono.just(Optional.empty());
+                })
+                .defaultIfEmpty(Optional.empty());
+
+        // Заметки и пароли загружаются параллельно, сливаются в базу последовательно.
+        // С сохраненным ETag сервер отвечает 304 на неизмененный список - его слияние пропускаем
+        return headCursor.flatMap(cursor -> blocking(() -> Tuples.of(
+                                Optional.ofNullable(userService.getRemoteNotesEtag()),
+                                Optional.ofNullable(userService.getRemotePasswordsEtag())))
+                        .flatMap(etags -> Mono.zip(
+                                fetchIfModified(remoteToken, "/api/notes", etags.getT1().orElse(null),
+                                        new TypeReference<List<RemoteNoteResponse>>() {}, bytesReceived),
+                                fetchIfModified(remoteToken, "/api/passwords", etags.getT2().orElse(null),
+                                        new TypeReference<List<RemotePasswordResponse>>() {}, bytesReceived)))
+                .flatMap(remote -> blocking(() -> {
+                    remote.getT1().ifPresent(notes -> mergeService.mergeNotes(
+                            notes.data() != null ? notes.data() : List.of(), List.of(), conflictStrategy, response));
+                    remote.getT2().ifPresent(passwords -> mergeService.mergePasswords(
+                            passwords.data() != null ? passwords.data() : List.of(), List.of(), conflictStrategy, response));
+                    userService.updateRemoteEtags(
+                            remote.getT1().map(Listing::etag).orElse(null),
+                            remote.getT2().map(Listing::etag).orElse(null));
+                    cursor.ifPresent(userService::updateSyncCursor);
+                    return cursor;
+                })))
+                .then();
+    }
 
-            List<RemoteNoteResponse> remoteNotes = webClient.get()
-                    .uri("/api/notes")
-                    .header("Authorization", "Bearer " + remoteToken)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<RemoteNoteResponse>>() {})
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
+    private Mono<Void> pullChangesFromRemote(String remoteToken, long cursor, ConflictResolutionStrategy conflictStrategy,
+                                             SyncResponse response, AtomicLong bytesReceived) {
+        // Следующая страница журнала запрашивается, пока предыдущая сливается в базу
+        return fetchChanges(remoteToken, cursor, bytesReceived)
+                .expand(changes -> changes.isHasMore()
+                        ? fetchChanges(remoteToken, changes.getCursor(), bytesReceived)
+                        : Mono.empty())
+                .concatMap(changes -> blocking(() -> {
+                    mergeService.mergeNotes(changes.getNotes(), changes.getDeletedNoteIds(), conflictStrategy, response);
+                    mergeService.mergePasswords(changes.getPasswords(), changes.getDeletedPasswordIds(), conflictStrategy, response);
+                    return changes.getCursor();
+                }))
+                .last(cursor)
+                .flatMap(lastCursor -> blocking(() -> {
+                    userService.updateSyncCursor(lastCursor);
+                    return lastCursor;
+                }))
+                .then();
+    }
 
-            if (remoteNotes == null) {
-                return 0;
-            }
+    private Mono<RemoteSyncChangesResponse> fetchChanges(String remoteToken, Long cursor, AtomicLong bytesReceived) {
+        // Курсор передается переменной шаблона, чтобы uri в метриках http.client.requests не зависел от его значения
+        return cursor != null
+                ? fetch(remoteToken, "/api/sync/changes?cursor={cursor}", new TypeReference<RemoteSyncChangesResponse>() {}, bytesReceived, cursor)
+                : fetch(remoteToken, "/api/sync/changes", new TypeReference<RemoteSyncChangesResponse>() {}, bytesReceived);
+    }
 
-            int pulledCount = 0;
-            List<SecureNote> localNotes = noteService.getAllNotesForUser();
+    /**
+     * GET к удаленному серверу: тело читается целиком, чтобы учесть объем полученных данных
+     * в статистике, и разбирается вне event loop в формате из Content-Type ответа (Smile или JSON)
+     */
+    private <T> Mono<T> fetch(String remoteToken, String uri, TypeReference<T> type, AtomicLong bytesReceived,
+                              Object... uriVariables) {
+        return get(remoteToken, uri, null, bytesReceived, uriVariables)
+                .mapNotNull(entity -> entity.getBody() != null ? parse(entity, uri, type) : null);
+    }
 
-            for (RemoteNoteResponse remoteNote : remoteNotes) {
-                Optional<SecureNote> existingLocal = localNotes.stream()
-                        .filter(n -> remoteNote.getId().equals(n.getRemoteId()))
-                        .findFirst();
+    /**
+     * Условный GET списка: пустой Optional, если сервер ответил 304 на If-None-Match
+     */
+    private <T> Mono<Optional<Listing<T>>> fetchIfModified(String remoteToken, String uri, String etag,
+                                                           TypeReference<T> type, AtomicLong bytesReceived) {
+        return get(remoteToken, uri, etag, bytesReceived)
+                .map(entity -> entity.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)
+                        ? Optional.<Listing<T>>empty()
+                        : Optional.of(new Listing<>(entity.getBody() != null ? parse(entity, uri, type) : null,
+                                entity.getHeaders().getETag())));
+    }
 
-                if (existingLocal.isPresent()) {
-                    // Обработка конфликтов для существующих записей
-                    SecureNote localNote = existingLocal.get();
-                    if (shouldUpdateLocal(localNote, remoteNote, conflictStrategy)) {
-                        updateLocalNoteFromRemote(localNote, remoteNote);
-                        pulledCount++;
+    private Mono<ResponseEntity<byte[]>> get(String remoteToken, String uri, String ifNoneMatch,
+                                             AtomicLong bytesReceived, Object... uriVariables) {
+        return webClient.get()
+                .uri(uri, uriVariables)
+                .header("Authorization", "Bearer " + remoteToken)
+                .accept(syncCodec.acceptTypes().toArray(MediaType[]::new))
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.setIfNoneMatch(ifNoneMatch);
                     }
-                } else {
-                    // Создаем новую локальную запись из удаленной
-                    noteService.createNoteFromRemote(
-                        remoteNote.getEncryptedTitle(),
-                        remoteNote.getEncryptedType(),
-                        remoteNote.getEncryptedData(),
-                        remoteNote.getId(),
-                        remoteNote.getCreatedAt(),
-                        remoteNote.getUpdatedAt()
-                    );
-                    pulledCount++;
-                }
-            }
+                })
+                .retrieve()
+                .toEntity(byte[].class)
+                .timeout(Duration.ofMillis(timeout))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(entity -> {
+                    if (entity.getBody() != null) {
+                        bytesReceived.addAndGet(entity.getBody().length);
+                    }
+                });
+    }
 
-            return pulledCount;
-        } catch (Exception e) {
-            log.error("Failed to pull notes from remote server", e);
-            throw e;
+    private <T> T parse(ResponseEntity<byte[]> entity, String uri, TypeReference<T> type) {
+        try {
+            return syncCodec.read(entity.getBody(), entity.getHeaders().getContentType(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse response from " + uri, e);
         }
     }
 
-    private int pullPasswordsFromRemote(ConflictResolutionStrategy conflictStrategy) {
-        try {
+    /**
+     * Токен удаленного аккаунта или пустой Optional, если аккаунт не подключен
+     */
+    private Mono<Optional<String>> findRemoteToken() {
+        return blocking(() -> {
+            if (!userService.hasRemoteAccount()) {
+                return Optional.empty();
+            }
+
             String remoteToken = userService.getRemoteToken();
-            
             if (remoteToken == null || remoteToken.trim().isEmpty()) {
                 log.error("Remote token is null or empty");
                 throw new RuntimeException("Remote token not available. Please reconnect to cloud account.");
             }
-            
-            WebClient webClient = webClientBuilder.baseUrl(remoteServerUrl).build();
-
-            List<RemotePasswordResponse> remotePasswords = webClient.get()
-                    .uri("/api/passwords")
-                    .header("Authorization", "Bearer " + remoteToken)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<RemotePasswordResponse>>() {})
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            if (remotePasswords == null) {
-                return 0;
-            }
-
-            int pulledCount = 0;
-            List<PasswordEntry> localPasswords = passwordService.getAllPasswordsForUser();
-
-            for (RemotePasswordResponse remotePassword : remotePasswords) {
-                Optional<PasswordEntry> existingLocal = localPasswords.stream()
-                        .filter(p -> remotePassword.getId().equals(p.getRemoteId()))
-                        .findFirst();
-
-                if (existingLocal.isPresent()) {
-                    // Обработка конфликтов для существующих записей
-                    PasswordEntry localPassword = existingLocal.get();
-                    if (shouldUpdateLocal(localPassword, remotePassword, conflictStrategy)) {
-                        updateLocalPasswordFromRemote(localPassword, remotePassword);
-                        pulledCount++;
-                    }
-                } else {
-                    // Создаем новую локальную запись из удаленной
-                    passwordService.createPasswordFromRemote(
-                        remotePassword.getEncryptedTitle(),
-                        remotePassword.getEncryptedSite(),
-                        remotePassword.getEncryptedLogin(),
-                        remotePassword.getEncryptedPassword(),
-                        remotePassword.getEncryptedType(),
-                        remotePassword.getId(),
-                        remotePassword.getCreatedAt(),
-                        remotePassword.getUpdatedAt()
-                    );
-                    pulledCount++;
-                }
-            }
-
-            return pulledCount;
-        } catch (Exception e) {
-            log.error("Failed to pull passwords from remote server", e);
-            throw e;
-        }
+            return Optional.of(remoteToken);
+        });
     }
 
-    private boolean shouldUpdateLocal(SecureNote localNote, RemoteNoteResponse remoteNote, ConflictResolutionStrategy strategy) {
-        return shouldUpdate(localNote.getUpdatedAt(), remoteNote.getUpdatedAt(), strategy);
-    }
-
-    private boolean shouldUpdateLocal(PasswordEntry localPassword, RemotePasswordResponse remotePassword, ConflictResolutionStrategy strategy) {
-        return shouldUpdate(localPassword.getUpdatedAt(), remotePassword.getUpdatedAt(), strategy);
-    }
-
-    private boolean shouldUpdate(Instant localUpdatedAt, Instant remoteUpdatedAt, ConflictResolutionStrategy strategy) {
-        return switch (strategy) {
-            case LOCAL_WINS -> false; // Всегда сохраняем локальную версию
-            case REMOTE_WINS -> true; // Всегда берем удаленную версию
-            case LATEST_TIMESTAMP -> remoteUpdatedAt.isAfter(localUpdatedAt); // Берем более новую
-            case CREATE_DUPLICATE -> true; // TODO: реализовать создание дубликатов
-            case SKIP_CONFLICTS -> false; // Пропускаем конфликты
-        };
-    }
-
-    private void updateLocalNoteFromRemote(SecureNote localNote, RemoteNoteResponse remoteNote) {
-        localNote.setEncryptedTitle(remoteNote.getEncryptedTitle());
-        localNote.setEncryptedType(remoteNote.getEncryptedType());
-        localNote.setEncryptedData(remoteNote.getEncryptedData());
-        localNote.setUpdatedAt(remoteNote.getUpdatedAt());
-        localNote.setLastSyncAt(Instant.now());
-        noteService.saveNote(localNote);
-    }
-
-    private void updateLocalPasswordFromRemote(PasswordEntry localPassword, RemotePasswordResponse remotePassword) {
-        localPassword.setEncryptedTitle(remotePassword.getEncryptedTitle());
-        localPassword.setEncryptedSite(remotePassword.getEncryptedSite());
-        localPassword.setEncryptedLogin(remotePassword.getEncryptedLogin());
-        localPassword.setEncryptedPassword(remotePassword.getEncryptedPassword());
-        localPassword.setEncryptedType(remotePassword.getEncryptedType());
-        localPassword.setUpdatedAt(remotePassword.getUpdatedAt());
-        localPassword.setLastSyncAt(Instant.now());
-        passwordService.savePassword(localPassword);
+    /**
+     * Обращения к JPA блокирующие - выполняем их вне потоков reactor-netty
+     */
+    private <T> Mono<T> blocking(Callable<T> action) {
+        return Mono.fromCallable(action).subscribeOn(Schedulers.boundedElastic());
     }
 
     public boolean checkRemoteConnection() {
@@ -395,15 +415,13 @@ public class SyncService {
         }
 
         try {
-            WebClient webClient = webClientBuilder.baseUrl(remoteServerUrl).build();
-            
             webClient.get()
                     .uri("/actuator/health")
                     .retrieve()
                     .bodyToMono(String.class)
                     .timeout(Duration.ofMillis(timeout))
                     .block();
-            
+
             return true;
         } catch (WebClientResponseException e) {
             log.warn("Remote server not available: {} {}", e.getStatusCode(), e.getMessage());
@@ -413,4 +431,9 @@ public class SyncService {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Список с удаленного сервера и его ETag (null, если сервер не поддерживает условные запросы)
+     */
+    private record Listing<T>(T data, String etag) {}
+}
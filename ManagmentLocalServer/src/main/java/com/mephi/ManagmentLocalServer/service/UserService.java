@@ -6,6 +6,7 @@ import com.mephi.ManagmentLocalServer.dto.auth.LoginRequest;
 import com.mephi.ManagmentLocalServer.dto.auth.SetupRequest;
 import com.mephi.ManagmentLocalServer.entity.User;
 import com.mephi.ManagmentLocalServer.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -88,15 +89,15 @@ public class UserService {
      */
     public User getUserByJwtToken(String jwtToken) {
         try {
-            // Извлекаем username из JWT токена
-            String username = jwtService.extractUsername(jwtToken);
-            if (username == null) {
+            // Проверяем подпись и извлекаем username за один разбор
+            Claims claims = jwtService.verify(jwtToken);
+            if (claims.getSubject() == null) {
                 return null;
             }
             
             // Валидируем токен
             User user = userRepository.findSetupUser().orElse(null);
-            if (user == null || !jwtService.isTokenValid(jwtToken, user)) {
+            if (user == null || !jwtService.isTokenValid(claims, user)) {
                 return null;
             }
             
@@ -126,6 +127,10 @@ public class UserService {
     @Transactional
     public void updateRemoteData(String remoteId, String remoteToken) {
         User user = getCurrentUser();
+        if (remoteId == null || !remoteId.equals(user.getRemoteId())) {
+            // Другой удаленный аккаунт - курсор синхронизации больше не действителен
+            user.resetSyncState();
+        }
         user.setRemoteId(remoteId);
         user.setRemoteToken(remoteToken);
         userRepository.save(user);
@@ -142,6 +147,44 @@ public class UserService {
         return user.getRemoteToken();
     }
 
+    public Long getSyncCursor() {
+        User user = getCurrentUser();
+        return user.getSyncCursor();
+    }
+
+    @Transactional
+    public void updateSyncCursor(Long syncCursor) {
+        User user = getCurrentUser();
+        user.setSyncCursor(syncCursor);
+        userRepository.save(user);
+        log.debug("Sync cursor updated for user: {} -> {}", user.getUsername(), syncCursor);
+    }
+
+    public String getRemoteNotesEtag() {
+        User user = getCurrentUser();
+        return user.getRemoteNotesEtag();
+    }
+
+    public String getRemotePasswordsEtag() {
+        User user = getCurrentUser();
+        return user.getRemotePasswordsEtag();
+    }
+
+    /**
+     * Сохраняет ETag списков после полной выгрузки; null оставляет прежнее значение (ответ 304)
+     */
+    @Transactional
+    public void updateRemoteEtags(String notesEtag, String passwordsEtag) {
+        User user = getCurrentUser();
+        if (notesEtag != null) {
+            user.setRemoteNotesEtag(notesEtag);
+        }
+        if (passwordsEtag != null) {
+            user.setRemotePasswordsEtag(passwordsEtag);
+        }
+        userRepository.save(user);
+    }
+
     public boolean hasRemoteAccount() {
         try {
             User user = getCurrentUser();
@@ -240,6 +283,9 @@ public class UserService {
             }
             
             // 3. Обновляем связь с удаленным аккаунтом
+            if (!remoteId.equals(currentUser.getRemoteId())) {
+                currentUser.resetSyncState();
+            }
             currentUser.setRemoteId(remoteId);
             currentUser.setRemoteToken(remoteToken);
             
@@ -276,6 +322,7 @@ public class UserService {
         User user = getCurrentUser();
         user.setRemoteId(null);
         user.setRemoteToken(null);
+        user.resetSyncState();
         userRepository.save(user);
         log.info("Remote data cleared for user: {}", user.getUsername());
     }
@@ -0,0 +1,318 @@
+package com.mephi.ManagmentLocalServer.service;
+
+import com.mephi.ManagmentLocalServer.dto.remote.RemoteNoteResponse;
+import com.mephi.ManagmentLocalServer.dto.remote.RemotePasswordResponse;
+import com.mephi.ManagmentLocalServer.dto.sync.ConflictResolutionStrategy;
+import com.mephi.ManagmentLocalServer.dto.sync.SyncResponse;
+import com.mephi.ManagmentLocalServer.entity.PasswordEntry;
+import com.mephi.ManagmentLocalServer.entity.SecureNote;
+import com.mephi.ManagmentLocalServer.entity.User;
+import com.mephi.ManagmentLocalServer.repository.PasswordEntryRepository;
+import com.mephi.ManagmentLocalServer.repository.SecureNoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SyncMergeServiceTest {
+
+    private static final Instant SYNCED_AT = Instant.parse("2024-01-15T10:00:00Z");
+    private static final Instant LOCAL_EDIT = Instant.parse("2024-01-15T11:00:00Z");
+    private static final Instant REMOTE_OLDER = Instant.parse("2024-01-15T10:30:00Z");
+    private static final Instant REMOTE_NEWER = Instant.parse("2024-01-15T12:00:00Z");
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private SecureNoteRepository noteRepository;
+
+    @Mock
+    private PasswordEntryRepository passwordRepository;
+
+    private SyncMergeService mergeService;
+    private User user;
+    private SyncResponse response;
+
+    @BeforeEach
+    void setUp() {
+        mergeService = new SyncMergeService(userService, noteRepository, passwordRepository);
+        user = new User();
+        user.setId("user-1");
+        response = new SyncResponse();
+        when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    @Test
+    void mergeNotes_UnknownRemoteNote_CreatesLocalCopy() {
+        // Given
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of());
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_NEWER)), List.of(),
+                ConflictResolutionStrategy.LATEST_TIMESTAMP, response);
+
+        // Then
+        List<SecureNote> saved = savedNotes();
+        assertEquals(1, saved.size());
+        assertEquals("r1", saved.get(0).getRemoteId());
+        assertEquals("remote", saved.get(0).getEncryptedData());
+        assertSame(user, saved.get(0).getUser());
+        assertEquals(1, response.getNotesPulled());
+        assertEquals(0, response.getConflicts());
+    }
+
+    @Test
+    void mergeNotes_LocalWins_KeepsLocallyEditedNote() {
+        // Given
+        SecureNote local = localNote("r1", "local", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_NEWER)), List.of(),
+                ConflictResolutionStrategy.LOCAL_WINS, response);
+
+        // Then
+        assertTrue(savedNotes().isEmpty());
+        assertEquals("local", local.getEncryptedData());
+        assertEquals(1, response.getConflicts());
+        assertEquals(1, response.getSkipped());
+        assertEquals(0, response.getNotesPulled());
+    }
+
+    @Test
+    void mergeNotes_RemoteWins_OverwritesLocallyEditedNote() {
+        // Given
+        SecureNote local = localNote("r1", "local", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_OLDER)), List.of(),
+                ConflictResolutionStrategy.REMOTE_WINS, response);
+
+        // Then
+        assertEquals(List.of(local), savedNotes());
+        assertEquals("remote", local.getEncryptedData());
+        assertEquals(REMOTE_OLDER, local.getUpdatedAt());
+        assertNotNull(local.getLastSyncAt());
+        assertEquals(1, response.getConflicts());
+        assertEquals(0, response.getSkipped());
+        assertEquals(1, response.getNotesPulled());
+    }
+
+    @Test
+    void mergeNotes_LatestTimestamp_AppliesOnlyNewerRemoteVersion() {
+        // Given
+        SecureNote newerLocal = localNote("r1", "local-1", LOCAL_EDIT, SYNCED_AT);
+        SecureNote olderLocal = localNote("r2", "local-2", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(newerLocal, olderLocal));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote-1", REMOTE_OLDER), remoteNote("r2", "remote-2", REMOTE_NEWER)),
+                List.of(), ConflictResolutionStrategy.LATEST_TIMESTAMP, response);
+
+        // Then
+        assertEquals(List.of(olderLocal), savedNotes());
+        assertEquals("local-1", newerLocal.getEncryptedData());
+        assertEquals("remote-2", olderLocal.getEncryptedData());
+        assertEquals(2, response.getConflicts());
+        assertEquals(1, response.getSkipped());
+        assertEquals(1, response.getNotesPulled());
+    }
+
+    @Test
+    void mergeNotes_SkipConflicts_LeavesExistingNoteUntouched() {
+        // Given
+        SecureNote local = localNote("r1", "local", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_NEWER)), List.of(),
+                ConflictResolutionStrategy.SKIP_CONFLICTS, response);
+
+        // Then
+        assertTrue(savedNotes().isEmpty());
+        assertEquals("local", local.getEncryptedData());
+        assertEquals(1, response.getSkipped());
+    }
+
+    @Test
+    void mergeNotes_CreateDuplicate_KeepsLocalEditAsNewUnsyncedNote() {
+        // Given
+        SecureNote local = localNote("r1", "local", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_NEWER)), List.of(),
+                ConflictResolutionStrategy.CREATE_DUPLICATE, response);
+
+        // Then
+        List<SecureNote> saved = savedNotes();
+        assertEquals(2, saved.size());
+        SecureNote duplicate = saved.get(0);
+        assertNull(duplicate.getId());
+        assertNull(duplicate.getRemoteId());
+        assertNull(duplicate.getLastSyncAt());
+        assertEquals("local", duplicate.getEncryptedData());
+        assertEquals(LOCAL_EDIT, duplicate.getUpdatedAt());
+        assertSame(local, saved.get(1));
+        assertEquals("remote", local.getEncryptedData());
+        assertEquals("r1", local.getRemoteId());
+        assertEquals(1, response.getConflicts());
+        assertEquals(1, response.getNotesPulled());
+    }
+
+    @Test
+    void mergeNotes_CreateDuplicate_UnmodifiedLocalNoteIsUpdatedInPlace() {
+        // Given
+        SecureNote local = localNote("r1", "local", SYNCED_AT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+
+        // When
+        mergeService.mergeNotes(List.of(remoteNote("r1", "remote", REMOTE_NEWER)), List.of(),
+                ConflictResolutionStrategy.CREATE_DUPLICATE, response);
+
+        // Then
+        assertEquals(List.of(local), savedNotes());
+        assertEquals("remote", local.getEncryptedData());
+        assertEquals(0, response.getConflicts());
+    }
+
+    @Test
+    void mergeNotes_RemoteDelete_DeletesUnmodifiedAndDetachesLocallyEditedNote() {
+        // Given
+        SecureNote unmodified = localNote("r1", "local-1", SYNCED_AT, SYNCED_AT);
+        SecureNote edited = localNote("r2", "local-2", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(unmodified, edited));
+
+        // When
+        mergeService.mergeNotes(List.of(), List.of("r1", "r2", "unknown"),
+                ConflictResolutionStrategy.LATEST_TIMESTAMP, response);
+
+        // Then
+        assertEquals(List.of(edited), savedNotes());
+        assertNull(edited.getRemoteId());
+        assertNull(edited.getLastSyncAt());
+        assertEquals(List.of(unmodified), deletedNotes());
+        assertEquals(1, response.getConflicts());
+    }
+
+    @Test
+    void mergeNotes_RemoteDeleteWithRemoteWins_DeletesLocallyEditedNote() {
+        // Given
+        SecureNote edited = localNote("r1", "local", LOCAL_EDIT, SYNCED_AT);
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(edited));
+
+        // When
+        mergeService.mergeNotes(List.of(), List.of("r1"), ConflictResolutionStrategy.REMOTE_WINS, response);
+
+        // Then
+        assertTrue(savedNotes().isEmpty());
+        assertEquals(List.of(edited), deletedNotes());
+        assertEquals(0, response.getConflicts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergeNotes_ManyRemoteIds_LooksUpLocalNotesInChunks() {
+        // Given
+        List<RemoteNoteResponse> remoteNotes = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            remoteNotes.add(remoteNote("r" + i, "remote", REMOTE_NEWER));
+        }
+        when(noteRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of());
+
+        // When
+        mergeService.mergeNotes(remoteNotes, List.of(), ConflictResolutionStrategy.LATEST_TIMESTAMP, response);
+
+        // Then
+        ArgumentCaptor<Collection<String>> lookups = ArgumentCaptor.forClass(Collection.class);
+        verify(noteRepository, times(3)).findByUserAndRemoteIdIn(eq(user), lookups.capture());
+        assertEquals(List.of(500, 500, 200), lookups.getAllValues().stream().map(Collection::size).toList());
+        assertEquals(1200, response.getNotesPulled());
+    }
+
+    @Test
+    void mergePasswords_CreateDuplicate_KeepsLocalEditAsNewUnsyncedEntry() {
+        // Given
+        PasswordEntry local = new PasswordEntry();
+        local.setId(5L);
+        local.setUser(user);
+        local.setRemoteId("r1");
+        local.setEncryptedTitle("title");
+        local.setEncryptedSite("site");
+        local.setEncryptedLogin("login");
+        local.setEncryptedPassword("local-secret");
+        local.setEncryptedType("type");
+        local.setCreatedAt(SYNCED_AT);
+        local.setUpdatedAt(LOCAL_EDIT);
+        local.setLastSyncAt(SYNCED_AT);
+        when(passwordRepository.findByUserAndRemoteIdIn(eq(user), anyCollection())).thenReturn(List.of(local));
+        RemotePasswordResponse remote = new RemotePasswordResponse("r1", "title", "site", "login",
+                "remote-secret", "type", SYNCED_AT, REMOTE_NEWER);
+
+        // When
+        mergeService.mergePasswords(List.of(remote), List.of(), ConflictResolutionStrategy.CREATE_DUPLICATE, response);
+
+        // Then
+        ArgumentCaptor<List<PasswordEntry>> saved = listCaptor();
+        verify(passwordRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        PasswordEntry duplicate = saved.getValue().get(0);
+        assertNull(duplicate.getRemoteId());
+        assertEquals("local-secret", duplicate.getEncryptedPassword());
+        assertEquals("remote-secret", local.getEncryptedPassword());
+        assertEquals(1, response.getConflicts());
+        assertEquals(1, response.getPasswordsPulled());
+    }
+
+    private List<SecureNote> savedNotes() {
+        ArgumentCaptor<List<SecureNote>> saved = listCaptor();
+        verify(noteRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    private List<SecureNote> deletedNotes() {
+        ArgumentCaptor<List<SecureNote>> deleted = listCaptor();
+        verify(noteRepository).deleteAll(deleted.capture());
+        return deleted.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private SecureNote localNote(String remoteId, String data, Instant updatedAt, Instant lastSyncAt) {
+        SecureNote note = new SecureNote();
+        note.setId((long) remoteId.hashCode());
+        note.setUser(user);
+        note.setRemoteId(remoteId);
+        note.setEncryptedTitle("title");
+        note.setEncryptedType("type");
+        note.setEncryptedData(data);
+        note.setCreatedAt(SYNCED_AT);
+        note.setUpdatedAt(updatedAt);
+        note.setLastSyncAt(lastSyncAt);
+        return note;
+    }
+
+    private static RemoteNoteResponse remoteNote(String id, String data, Instant updatedAt) {
+        return new RemoteNoteResponse(id, "title", "type", data, SYNCED_AT, updatedAt);
+    }
+}
@@ -2,8 +2,10 @@ package by.sakhdanil.managmentserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ManagmentServerApplication {
 
     public static void main(String[] args) {
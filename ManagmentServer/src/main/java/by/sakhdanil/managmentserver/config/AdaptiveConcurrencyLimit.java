@@ -0,0 +1,106 @@
+package by.sakhdanil.managmentserver.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных запросов по градиенту задержки (в духе Gradient2 из Netflix concurrency-limits).
+ * <p>
+ * Краткосрочная средняя задержка окна сравнивается с долгим скользящим средним:
+ * пока задержка не растет, лимит увеличивается на sqrt(limit); когда запросы начинают стоять в очередях
+ * (Tomcat, пул Hikari), лимит уменьшается пропорционально росту задержки.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double longRtt;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties, long nowNanos) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.windowNanos = properties.getSampleWindow().toNanos();
+        this.minWindowSamples = properties.getMinWindowSamples();
+        this.limit = properties.getInitialLimit();
+        this.windowStart = nowNanos;
+    }
+
+    /**
+     * Занимает слот, если в полете меньше, чем доступная классу запроса доля лимита
+     *
+     * @return число запросов в полете с учетом этого, либо -1 если слот не выдан
+     */
+    int tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Учитывает задержку завершенного запроса; лимит пересчитывается раз в окно
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart, long nowNanos) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        if (windowSamples < minWindowSamples || nowNanos - windowStart < windowNanos) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = nowNanos;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_SMOOTHING) + shortRtt * LONG_RTT_SMOOTHING;
+        // После долгой перегрузки среднее завышено; подтягиваем его вниз, чтобы лимит восстановился
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Сервер недогружен: задержка ничего не говорит о запасе, лимит не трогаем
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double current = limit;
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + target * smoothing));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
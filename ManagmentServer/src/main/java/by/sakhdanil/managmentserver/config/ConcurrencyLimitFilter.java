@@ -0,0 +1,154 @@
+package by.sakhdanil.managmentserver.config;
+
+import by.sakhdanil.managmentserver.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сброс лишней нагрузки до того, как запрос займет поток с соединением к БД.
+ * <p>
+ * Число одновременных запросов ограничено адаптивным лимитом ({@link AdaptiveConcurrencyLimit}).
+ * Запросы к хранилищу с действительным токеном могут занять весь лимит, /auth/** и служебные запросы -
+ * только его часть, поэтому при перегрузке первыми получают 503 именно они. Сверх лимита запросы не ждут в очереди.
+ */
+@Component
+@Order(ConcurrencyLimitFilter.ORDER)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // После RateLimitFilter (отсекает одиночные источники дешевле), но до Spring Security
+    static final int ORDER = RateLimitFilter.ORDER + 5;
+
+    enum Priority {
+        VAULT,
+        AUTH,
+        OTHER
+    }
+
+    private final ConcurrencyLimitProperties properties;
+    private final RequestLogger requestLogger;
+    private final ObjectMapper objectMapper;
+    private final JwtService jwtService;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                  RequestLogger requestLogger,
+                                  ObjectMapper objectMapper,
+                                  JwtService jwtService,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.requestLogger = requestLogger;
+        this.objectMapper = objectMapper;
+        this.jwtService = jwtService;
+        this.limit = new AdaptiveConcurrencyLimit(properties, System.nanoTime());
+
+        Gauge.builder("concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+            .description("Текущий адаптивный лимит одновременных запросов")
+            .register(meterRegistry);
+        Gauge.builder("concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+            .description("Запросы, обрабатываемые в данный момент")
+            .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("concurrency.shed")
+                .description("Запросы, отклоненные с 503 из-за перегрузки")
+                .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = classify(request);
+        int inFlight = limit.tryAcquire(shareOf(priority));
+        if (inFlight < 0) {
+            shed(request, response, priority);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            limit.release();
+            // Асинхронный запрос (потоковый экспорт) освобождает поток сразу, его время не показательно
+            if (completed && !request.isAsyncStarted()) {
+                long now = System.nanoTime();
+                limit.onSample(now - start, inFlight, now);
+            }
+        }
+    }
+
+    // Приоритет хранилища только для токена с верной подписью и сроком: иначе поток запросов
+    // с выдуманным Bearer занял бы долю авторизованных клиентов. Проверка кэшируется в JwtService,
+    // поэтому JwtAuthFilter повторно токен не разбирает
+    Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (path.startsWith("/api/") && authorization != null && authorization.startsWith("Bearer ")
+                && isVerified(authorization.substring(7))) {
+            return Priority.VAULT;
+        }
+        if (path.startsWith("/auth/") || path.startsWith("/api/auth/")) {
+            return Priority.AUTH;
+        }
+        return Priority.OTHER;
+    }
+
+    private boolean isVerified(String token) {
+        try {
+            jwtService.verify(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private double shareOf(Priority priority) {
+        return switch (priority) {
+            case VAULT -> 1.0;
+            case AUTH -> properties.getAuthShare();
+            case OTHER -> properties.getOtherShare();
+        };
+    }
+
+    private void shed(HttpServletRequest request, HttpServletResponse response, Priority priority) throws IOException {
+        shed.get(priority).increment();
+        requestLogger.log(request, "concurrency.shed",
+            "priority", priority, "uri", request.getRequestURI(), "limit", limit.getLimit());
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+            "success", false,
+            "error", "Server is overloaded, retry later"
+        ));
+    }
+}
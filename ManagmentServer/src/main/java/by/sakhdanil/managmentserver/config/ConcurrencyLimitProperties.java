@@ -0,0 +1,36 @@
+package by.sakhdanil.managmentserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки адаптивного лимита одновременных запросов (секция {@code concurrency-limit})
+ */
+@Data
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+
+    /** Задержка может вырасти во столько раз относительно долгого среднего, прежде чем лимит начнет снижаться */
+    private double rttTolerance = 1.5;
+
+    /** Доля нового значения при пересчете лимита (0..1) */
+    private double smoothing = 0.2;
+
+    /** Окно, по которому считается краткосрочная задержка */
+    private Duration sampleWindow = Duration.ofMillis(250);
+    private int minWindowSamples = 10;
+
+    /** Доля лимита, доступная неаутентифицированным запросам /auth/** */
+    private double authShare = 0.5;
+
+    /** Доля лимита для остальных запросов (health, actuator, swagger) */
+    private double otherShare = 0.2;
+}
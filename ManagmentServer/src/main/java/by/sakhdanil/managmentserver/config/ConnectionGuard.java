@@ -0,0 +1,180 @@
+package by.sakhdanil.managmentserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Учет соединений Tomcat для защиты от slowloris.
+ * <p>
+ * Ограничивает число соединений с одного адреса и закрывает соединения, которые дольше headerTimeout
+ * не присылают заголовки запроса или передают тело медленнее minBodyBytesPerSecond.
+ * Tomcat сам сбрасывает таймаут чтения на каждом полученном байте, поэтому клиент, присылающий
+ * по заголовку раз в несколько секунд, без этой проверки держит поток и соединение бесконечно.
+ * <p>
+ * События соединений приходят из {@link GuardedNioProtocol}, границы запросов - из {@link ConnectionGuardConfig}.
+ */
+@Component
+public class ConnectionGuard {
+
+    private final ConnectionGuardProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final Map<String, Integer> connectionsPerIp = new ConcurrentHashMap<>();
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Counter rejectedPerIp;
+    private final Counter closedHeaderTimeout;
+    private final Counter closedSlowBody;
+    private ScheduledFuture<?> sweep;
+
+    public ConnectionGuard(ConnectionGuardProperties properties, MeterRegistry meterRegistry, TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.rejectedPerIp = guardCounter(meterRegistry, "per_ip_limit");
+        this.closedHeaderTimeout = guardCounter(meterRegistry, "header_timeout");
+        this.closedSlowBody = guardCounter(meterRegistry, "slow_body");
+        Gauge.builder("connection.guard.connections", connections, Map::size)
+            .description("Открытые соединения под контролем защиты")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        sweep = taskScheduler.scheduleWithFixedDelay(() -> sweep(System.nanoTime()),
+            Instant.now().plus(properties.getSweepInterval()), properties.getSweepInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        sweep.cancel(false);
+    }
+
+    /**
+     * Новое соединение; false - превышен лимит соединений для адреса, соединение нужно закрыть
+     */
+    boolean opened(String ip, int port) {
+        boolean[] accepted = {false};
+        connectionsPerIp.compute(ip, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= properties.getMaxConnectionsPerIp()) {
+                return count;
+            }
+            accepted[0] = true;
+            return current + 1;
+        });
+        if (!accepted[0]) {
+            rejectedPerIp.increment();
+            return false;
+        }
+        connections.put(key(ip, port), new Connection(System.nanoTime() + properties.getHeaderTimeout().toNanos()));
+        return true;
+    }
+
+    /**
+     * Способ закрыть соединение средствами Tomcat; становится известен после регистрации сокета
+     */
+    void attach(String ip, int port, Runnable closer) {
+        Connection connection = connections.get(key(ip, port));
+        if (connection != null) {
+            connection.closer = closer;
+        }
+    }
+
+    void closed(String ip, int port) {
+        if (connections.remove(key(ip, port)) != null) {
+            connectionsPerIp.computeIfPresent(ip, (key, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Заголовки получены; дальше, пока ожидается тело, контролируется скорость его передачи
+     */
+    void requestStarted(String ip, int port, long contentLength, LongSupplier bytesRead) {
+        Connection connection = connections.get(key(ip, port));
+        if (connection != null) {
+            connection.headerDeadline = 0;
+            connection.bodyStart = System.nanoTime();
+            connection.contentLength = contentLength;
+            connection.bytesRead = bytesRead;
+        }
+    }
+
+    /**
+     * Ответ отправлен; следующий запрос по keep-alive снова должен уложиться в headerTimeout
+     */
+    void requestFinished(String ip, int port) {
+        Connection connection = connections.get(key(ip, port));
+        if (connection != null) {
+            connection.bytesRead = null;
+            connection.headerDeadline = System.nanoTime() + properties.getHeaderTimeout().toNanos();
+        }
+    }
+
+    void sweep(long now) {
+        long graceNanos = properties.getBodyGracePeriod().toNanos();
+        for (Connection connection : connections.values()) {
+            long headerDeadline = connection.headerDeadline;
+            if (headerDeadline != 0 && now - headerDeadline > 0) {
+                close(connection, closedHeaderTimeout);
+                continue;
+            }
+            LongSupplier bytesRead = connection.bytesRead;
+            if (bytesRead == null || connection.contentLength <= 0) {
+                continue;
+            }
+            long read = bytesRead.getAsLong();
+            long elapsed = now - connection.bodyStart;
+            if (read < connection.contentLength && elapsed > graceNanos
+                && read * TimeUnit.SECONDS.toNanos(1) / elapsed < properties.getMinBodyBytesPerSecond()) {
+                close(connection, closedSlowBody);
+            }
+        }
+    }
+
+    int connectionCount(String ip) {
+        return connectionsPerIp.getOrDefault(ip, 0);
+    }
+
+    private void close(Connection connection, Counter reason) {
+        Runnable closer = connection.closer;
+        if (closer != null && !connection.closing) {
+            connection.closing = true;
+            reason.increment();
+            closer.run();
+        }
+    }
+
+    private static Counter guardCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("connection.guard.closed")
+            .description("Соединения, закрытые или отклоненные защитой от медленных клиентов")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private static String key(String ip, int port) {
+        return ip + ':' + port;
+    }
+
+    private static final class Connection {
+        private volatile long headerDeadline;
+        private volatile long bodyStart;
+        private volatile long contentLength;
+        private volatile LongSupplier bytesRead;
+        private volatile Runnable closer;
+        private volatile boolean closing;
+
+        private Connection(long headerDeadline) {
+            this.headerDeadline = headerDeadline;
+        }
+    }
+}
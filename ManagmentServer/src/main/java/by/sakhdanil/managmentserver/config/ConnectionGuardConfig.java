@@ -0,0 +1,89 @@
+package by.sakhdanil.managmentserver.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Подключение {@link ConnectionGuard} к встроенному Tomcat: свой протокол для событий соединений
+ * и valve для границ запросов.
+ */
+@Configuration
+@EnableConfigurationProperties(ConnectionGuardProperties.class)
+public class ConnectionGuardConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> connectionGuardCustomizer(
+            ConnectionGuard connectionGuard, ConnectionGuardProperties properties) {
+        return factory -> {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            factory.setProtocol(GuardedNioProtocol.class.getName());
+            factory.addProtocolHandlerCustomizers(protocol -> {
+                if (protocol instanceof GuardedNioProtocol guarded) {
+                    guarded.setConnectionGuard(connectionGuard);
+                }
+            });
+            factory.addEngineValves(new ConnectionGuardValve(connectionGuard));
+        };
+    }
+
+    /**
+     * Отмечает начало и конец обработки запроса на соединении
+     */
+    static class ConnectionGuardValve extends ValveBase {
+
+        private final ConnectionGuard connectionGuard;
+
+        ConnectionGuardValve(ConnectionGuard connectionGuard) {
+            super(true);
+            this.connectionGuard = connectionGuard;
+        }
+
+        @Override
+        public void invoke(Request request, Response response) throws IOException, ServletException {
+            String ip = request.getRemoteAddr();
+            int port = request.getRemotePort();
+            org.apache.coyote.Request coyoteRequest = request.getCoyoteRequest();
+            connectionGuard.requestStarted(ip, port, request.getContentLengthLong(), coyoteRequest::getBytesRead);
+            try {
+                getNext().invoke(request, response);
+            } finally {
+                if (request.isAsyncStarted()) {
+                    // Потоковый ответ еще пишется: соединение занято до завершения async-обработки
+                    request.getAsyncContext().addListener(new AsyncListener() {
+                        @Override
+                        public void onComplete(AsyncEvent event) {
+                            connectionGuard.requestFinished(ip, port);
+                        }
+
+                        @Override
+                        public void onTimeout(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onError(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onStartAsync(AsyncEvent event) {
+                        }
+                    });
+                } else {
+                    connectionGuard.requestFinished(ip, port);
+                }
+            }
+        }
+    }
+}
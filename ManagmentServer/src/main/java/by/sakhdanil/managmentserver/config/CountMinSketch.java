@@ -0,0 +1,129 @@
+package by.sakhdanil.managmentserver.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min скетч фиксированного размера: оценка сверху числа появлений ключа
+ * без хранения самих ключей. Память не зависит от числа разных ключей.
+ * <p>
+ * Столбцы строк выбираются хешами из {@link Hasher}; ключ хешируется один раз
+ * и используется во всех скетчах окна.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    CountMinSketch(int depth, int width) {
+        int columns = width <= 16 ? 16 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = columns - 1;
+        this.counters = new AtomicIntegerArray(depth * columns);
+    }
+
+    void add(int[] rowHashes) {
+        for (int row = 0; row < depth; row++) {
+            counters.incrementAndGet(index(row, rowHashes[row]));
+        }
+    }
+
+    int estimate(int[] rowHashes) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, rowHashes[row])));
+        }
+        return min;
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private int index(int row, int hash) {
+        return row * (mask + 1) + (hash & mask);
+    }
+
+    /**
+     * Хеши ключа для строк скетча: SipHash-2-4 от байтов ключа со своим случайным ключом на каждую строку.
+     * <p>
+     * Ключи (адрес, user-agent) задает клиент. С предсказуемым хешем (String.hashCode) он мог бы подобрать
+     * user-agent с тем же хешем, что у чужого адреса, и его трафик засчитывался бы этому адресу во всех строках.
+     * Секретные ключи процесса делают такие совпадения непредсказуемыми, а независимые строки - несвязанными.
+     */
+    static final class Hasher {
+
+        private final long[] k0;
+        private final long[] k1;
+
+        Hasher(int depth) {
+            SecureRandom random = new SecureRandom();
+            this.k0 = new long[depth];
+            this.k1 = new long[depth];
+            for (int row = 0; row < depth; row++) {
+                k0[row] = random.nextLong();
+                k1[row] = random.nextLong();
+            }
+        }
+
+        int[] hash(String key) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            int[] rowHashes = new int[k0.length];
+            for (int row = 0; row < rowHashes.length; row++) {
+                long hash = sipHash24(k0[row], k1[row], bytes);
+                rowHashes[row] = (int) (hash ^ (hash >>> 32));
+            }
+            return rowHashes;
+        }
+    }
+
+    static long sipHash24(long k0, long k1, byte[] data) {
+        long[] v = {
+            0x736f6d6570736575L ^ k0,
+            0x646f72616e646f6dL ^ k1,
+            0x6c7967656e657261L ^ k0,
+            0x7465646279746573L ^ k1
+        };
+
+        int end = data.length & ~7;
+        for (int offset = 0; offset < end; offset += 8) {
+            long m = 0;
+            for (int i = 7; i >= 0; i--) {
+                m = (m << 8) | (data[offset + i] & 0xFFL);
+            }
+            compress(v, m);
+        }
+
+        // Последний блок: оставшиеся байты и длина сообщения в старшем байте
+        long last = (long) data.length << 56;
+        for (int i = end; i < data.length; i++) {
+            last |= (data[i] & 0xFFL) << (8 * (i - end));
+        }
+        compress(v, last);
+
+        v[2] ^= 0xFF;
+        sipRounds(v, 4);
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void compress(long[] v, long m) {
+        v[3] ^= m;
+        sipRounds(v, 2);
+        v[0] ^= m;
+    }
+
+    private static void sipRounds(long[] v, int rounds) {
+        long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3];
+        for (int round = 0; round < rounds; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+    }
+}
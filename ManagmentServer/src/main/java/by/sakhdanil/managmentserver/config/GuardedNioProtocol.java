@@ -0,0 +1,83 @@
+package by.sakhdanil.managmentserver.config;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.tomcat.util.net.NioChannel;
+import org.apache.tomcat.util.net.NioEndpoint;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP/1.1 NIO-коннектор Tomcat, сообщающий {@link ConnectionGuard} об открытии и закрытии соединений.
+ * Подключается в {@link ConnectionGuardConfig}.
+ */
+public class GuardedNioProtocol extends Http11NioProtocol {
+
+    public GuardedNioProtocol() {
+        super(new GuardedNioEndpoint());
+    }
+
+    public void setConnectionGuard(ConnectionGuard connectionGuard) {
+        ((GuardedNioEndpoint) getEndpoint()).connectionGuard = connectionGuard;
+    }
+
+    static class GuardedNioEndpoint extends NioEndpoint {
+
+        private final Map<SocketChannel, InetSocketAddress> remotes = new ConcurrentHashMap<>();
+        private volatile ConnectionGuard connectionGuard;
+
+        GuardedNioEndpoint() {
+            // Tomcat удаляет соединение из этой карты при закрытии - единственная точка, где закрытие видно снаружи
+            connections = new ConcurrentHashMap<>() {
+                @Override
+                public SocketWrapperBase<NioChannel> remove(Object socket) {
+                    SocketWrapperBase<NioChannel> removed = super.remove(socket);
+                    InetSocketAddress remote = remotes.remove(socket);
+                    if (remote != null && connectionGuard != null) {
+                        connectionGuard.closed(remote.getAddress().getHostAddress(), remote.getPort());
+                    }
+                    return removed;
+                }
+            };
+        }
+
+        @Override
+        protected boolean setSocketOptions(SocketChannel socket) {
+            ConnectionGuard guard = connectionGuard;
+            InetSocketAddress remote = remoteAddress(socket);
+            if (guard == null || remote == null) {
+                return super.setSocketOptions(socket);
+            }
+
+            String ip = remote.getAddress().getHostAddress();
+            if (!guard.opened(ip, remote.getPort())) {
+                // Сокет еще не зарегистрирован, closeSocket из Acceptor его бы не закрыл
+                destroySocket(socket);
+                return true;
+            }
+            remotes.put(socket, remote);
+            if (!super.setSocketOptions(socket)) {
+                remotes.remove(socket);
+                guard.closed(ip, remote.getPort());
+                return false;
+            }
+            SocketWrapperBase<NioChannel> wrapper = connections.get(socket);
+            if (wrapper != null) {
+                guard.attach(ip, remote.getPort(), wrapper::close);
+            }
+            return true;
+        }
+
+        private static InetSocketAddress remoteAddress(SocketChannel socket) {
+            try {
+                return (InetSocketAddress) socket.getRemoteAddress();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
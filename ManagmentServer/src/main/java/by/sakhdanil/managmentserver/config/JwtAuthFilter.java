@@ -1,8 +1,10 @@
 package by.sakhdanil.managmentserver.config;
 
+import by.sakhdanil.managmentserver.dto.user.AuthenticatedUser;
 import by.sakhdanil.managmentserver.entity.User;
-import by.sakhdanil.managmentserver.repository.UserRepository;
 import by.sakhdanil.managmentserver.service.JwtService;
+import by.sakhdanil.managmentserver.service.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,7 +24,8 @@ import java.util.Optional;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final RequestLogger requestLogger;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -30,29 +33,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        System.out.println("🔥 REMOTE JWT Filter: " + request.getMethod() + " " + request.getRequestURI());
-        
         final String authHeader = request.getHeader("Authorization");
-        System.out.println("🔥 REMOTE Auth Header: " + (authHeader != null ? "Bearer ****" : "null"));
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("🔥 REMOTE No JWT token found, continuing filter chain");
+            requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                    "result", "no_token");
             filterChain.doFilter(request, response);
             return;
         }
 
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
-        System.out.println("🔥 REMOTE JWT Username extracted: " + username);
+        // Подпись и срок действия проверяются один раз, дальше работаем с уже разобранными claims
+        final Claims claims = jwtService.verify(jwt);
+        final String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            Optional<User> userOptional = userRepository.findByUsername(username);
+            Optional<AuthenticatedUser> principal = principalCache.get(username);
             
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                System.out.println("🔥 REMOTE User found: " + user.getUsername());
+            if (principal.isPresent()) {
+                User user = principal.get().toUser();
                 
-                if (jwtService.isTokenValid(jwt, user)) {
+                if (jwtService.isTokenValid(claims, user)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             user,
                             null,
@@ -60,18 +61,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("🔥 REMOTE Authentication successful for: " + username);
+                    requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                            "user", username, "result", "authenticated");
                 } else {
-                    System.out.println("🔥 REMOTE JWT token is invalid for user: " + username);
+                    requestLogger.warn("jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                            "user", username, "result", "invalid_token");
                 }
             } else {
-                System.out.println("🔥 REMOTE User not found: " + username);
+                requestLogger.warn("jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                        "user", username, "result", "user_not_found");
             }
         } else if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            System.out.println("🔥 REMOTE User already authenticated: " + SecurityContextHolder.getContext().getAuthentication().getName());
+            requestLogger.log(request, "jwt.auth", "method", request.getMethod(), "uri", request.getRequestURI(),
+                    "user", SecurityContextHolder.getContext().getAuthentication().getName(), "result", "already_authenticated");
         }
 
-        System.out.println("🔥 REMOTE JWT Filter completed, continuing chain");
         filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
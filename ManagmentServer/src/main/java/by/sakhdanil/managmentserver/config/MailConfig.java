@@ -56,11 +56,14 @@ public class MailConfig {
     private JavaMailSender createMockMailSender() {
         return new JavaMailSenderImpl() {
             @Override
-            public void send(org.springframework.mail.SimpleMailMessage simpleMessage) {
-                System.out.println("📧 MOCK EMAIL SENT:");
-                System.out.println("   To: " + simpleMessage.getTo()[0]);
-                System.out.println("   Subject: " + simpleMessage.getSubject());
-                System.out.println("   Text: " + simpleMessage.getText());
+            public void send(org.springframework.mail.SimpleMailMessage... simpleMessages) {
+                // Очередь писем отправляет их пакетами через этот метод
+                for (org.springframework.mail.SimpleMailMessage simpleMessage : simpleMessages) {
+                    System.out.println("📧 MOCK EMAIL SENT:");
+                    System.out.println("   To: " + simpleMessage.getTo()[0]);
+                    System.out.println("   Subject: " + simpleMessage.getSubject());
+                    System.out.println("   Text: " + simpleMessage.getText());
+                }
                 // Не отправляем реальный email
             }
         };
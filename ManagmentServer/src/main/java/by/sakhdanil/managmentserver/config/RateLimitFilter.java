@@ -0,0 +1,296 @@
+package by.sakhdanil.managmentserver.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов по адресу клиента и по username до Spring Security.
+ * <p>
+ * Отклоненный запрос не доходит ни до UserService, ни до БД, ни до отправки писем.
+ * На запрос действуют все подходящие политики; если в любой из корзин нет токена,
+ * отвечаем 429 с заголовком Retry-After.
+ */
+@Component
+@Order(RateLimitFilter.ORDER)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Раньше цепочки Spring Security (DEFAULT_FILTER_ORDER = -100)
+    static final int ORDER = SecurityProperties.DEFAULT_FILTER_ORDER - 10;
+
+    private static final String OVERFLOW_CLIENT = "*";
+
+    private final RateLimitProperties properties;
+    private final RequestLogger requestLogger;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+    private final TaskScheduler taskScheduler;
+    private ScheduledFuture<?> sweep;
+
+    public RateLimitFilter(RateLimitProperties properties,
+                           RequestLogger requestLogger,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.requestLogger = requestLogger;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            rejected.put(policy.getName(), Counter.builder("rate.limit.rejected")
+                .description("Запросы, отклоненные ограничением частоты")
+                .tag("policy", policy.getName())
+                .register(meterRegistry));
+        }
+        Gauge.builder("rate.limit.buckets", buckets, Map::size)
+            .description("Корзины токенов в памяти")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        Duration interval = Duration.ofMillis(Math.max(1000, properties.getIdleTimeout().toMillis() / 2));
+        sweep = taskScheduler.scheduleWithFixedDelay(this::evictIdle, Instant.now().plus(interval), interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweep.cancel(false);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        List<RateLimitProperties.Policy> policies = matchingPolicies(path);
+        if (policies.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest effectiveRequest = request;
+        String username = null;
+        if (policies.stream().anyMatch(p -> p.getKey() == RateLimitProperties.KeyType.USERNAME)) {
+            CachedBodyRequest cached = new CachedBodyRequest(request, properties.getMaxBodyBytes());
+            effectiveRequest = cached;
+            username = extractUsername(cached.head());
+        }
+
+        String clientIp = clientIp(request);
+        long now = System.nanoTime();
+        for (RateLimitProperties.Policy policy : policies) {
+            String client = policy.getKey() == RateLimitProperties.KeyType.USERNAME ? username : clientIp;
+            if (client == null) {
+                continue;
+            }
+            long waitNanos = bucketFor(policy, client, now).tryAcquire(now);
+            if (waitNanos > 0) {
+                reject(request, response, policy, clientIp, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(effectiveRequest, response);
+    }
+
+    private List<RateLimitProperties.Policy> matchingPolicies(String path) {
+        List<RateLimitProperties.Policy> matching = new ArrayList<>();
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            for (String pattern : policy.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    matching.add(policy);
+                    break;
+                }
+            }
+        }
+        return matching;
+    }
+
+    private TokenBucket bucketFor(RateLimitProperties.Policy policy, String client, long now) {
+        String key = policy.getName() + '|' + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // При переполнении новые клиенты делят общую корзину политики: память ограничена,
+        // а поток запросов с меняющихся адресов все равно упирается в лимит
+        if (buckets.size() >= properties.getMaxBuckets()) {
+            key = policy.getName() + '|' + OVERFLOW_CLIENT;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(policy.getCapacity(), policy.getPeriod(), now));
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        RateLimitProperties.Policy policy, String clientIp, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        rejected.get(policy.getName()).increment();
+        requestLogger.log(request, "rate_limit.rejected",
+            "policy", policy.getName(), "client", clientIp, "uri", request.getRequestURI(), "retryAfter", retryAfter);
+
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+            "success", false,
+            "error", "Too many requests",
+            "retryAfter", retryAfter
+        ));
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // username ищется только на верхнем уровне JSON-объекта; регистр не различаем,
+    // чтобы вариации написания не давали новых корзин
+    private String extractUsername(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                token = parser.nextToken();
+                if ("username".equals(field) && token == JsonToken.VALUE_STRING) {
+                    String username = parser.getText().trim();
+                    return username.isEmpty() ? null : username.toLowerCase(Locale.ROOT);
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Некорректный или обрезанный JSON: остаются только лимиты по адресу
+        }
+        return null;
+    }
+
+    /**
+     * Запрос, у которого начало тела прочитано заранее; контроллер получает тело целиком
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private ServletInputStream inputStream;
+
+        CachedBodyRequest(HttpServletRequest request, int maxBytes) throws IOException {
+            super(request);
+            this.head = request.getInputStream().readNBytes(maxBytes);
+        }
+
+        byte[] head() {
+            return head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                InputStream body = new SequenceInputStream(new ByteArrayInputStream(head), super.getInputStream());
+                inputStream = new ServletInputStream() {
+                    private boolean finished;
+
+                    @Override
+                    public int read() throws IOException {
+                        int value = body.read();
+                        finished = value < 0;
+                        return value;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int count = body.read(b, off, len);
+                        finished = count < 0;
+                        return count;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return finished;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
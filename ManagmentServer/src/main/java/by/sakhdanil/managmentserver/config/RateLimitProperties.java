@@ -0,0 +1,49 @@
+package by.sakhdanil.managmentserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки ограничения частоты запросов (секция {@code rate-limit} в application.yaml)
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Максимум корзин в памяти; новые клиенты сверх лимита делят одну общую корзину политики */
+    private int maxBuckets = 100_000;
+
+    /** Корзина, полностью восполненная и не использованная столько времени, удаляется */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Брать адрес клиента из X-Forwarded-For (только за доверенным прокси) */
+    private boolean trustForwardedFor = false;
+
+    /** Размер начала тела запроса, в котором ищется username */
+    private int maxBodyBytes = 8192;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+        private String name;
+        /** Ant-шаблоны путей, например /auth/** */
+        private List<String> paths = new ArrayList<>();
+        private KeyType key = KeyType.IP;
+        /** Размер всплеска: столько запросов можно сделать подряд */
+        private int capacity;
+        /** За это время корзина восполняется полностью */
+        private Duration period = Duration.ofMinutes(1);
+    }
+
+    public enum KeyType {
+        IP,
+        USERNAME
+    }
+}
@@ -1,13 +1,24 @@
 package by.sakhdanil.managmentserver.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
@@ -17,9 +28,45 @@ import org.springframework.http.HttpMethod;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String ACTUATOR_ROLE = "ACTUATOR";
+
     private final JwtAuthFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    /**
+     * Служебные эндпоинты actuator (метрики, отчет о самых активных клиентах) - отдельная цепочка с Basic-аутентификацией
+     * учетной записи оператора (сборщик метрик). Токены пользователей сюда не подходят;
+     * без заданного пароля эндпоинты закрыты для всех.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http,
+                                                   @Value("${actuator-security.username:actuator}") String username,
+                                                   @Value("${actuator-security.password:}") String password) throws Exception {
+        // Пароль оператора живет только в памяти процесса, хватает BCrypt (Argon2 нужен для паролей пользователей)
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager operators = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            operators.createUser(User.withUsername(username)
+                    .password(passwordEncoder.encode(password))
+                    .roles(ACTUATOR_ROLE)
+                    .build());
+        }
+        DaoAuthenticationProvider operatorProvider = new DaoAuthenticationProvider();
+        operatorProvider.setUserDetailsService(operators);
+        operatorProvider.setPasswordEncoder(passwordEncoder);
+
+        http
+                .securityMatcher(EndpointRequest.to("prometheus", "metrics", "heavyhitters"))
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(ACTUATOR_ROLE))
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authenticationManager(new ProviderManager(operatorProvider))
+                .httpBasic(Customizer.withDefaults())
+                .formLogin(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         System.out.println("🔥 REMOTE Настраиваем SecurityConfig...");
@@ -37,6 +84,8 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/actuator/health"
                         ).permitAll()
+                        // Повторная диспетчеризация потоковых ответов (запрос уже авторизован)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow all OPTIONS requests (CORS preflight)
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .anyRequest().authenticated();
@@ -0,0 +1,42 @@
+package by.sakhdanil.managmentserver.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Бинарный формат Smile для хранилища и синхронизации.
+ * <p>
+ * Ответ в Smile отдается только клиенту, приславшему {@code Accept: application/x-jackson-smile};
+ * тела запросов принимаются по Content-Type. Конвертер стоит после JSON, поэтому
+ * {@code Accept: *}{@code /*} и запросы без Accept по-прежнему получают JSON.
+ * ObjectMapper строится из того же Jackson2ObjectMapperBuilder, что и JSON (модули, формат дат).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SmileCodecConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Стандартный Smile-конвертер Spring MVC настроен не так, как JSON Spring Boot - заменяем его
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapperBuilder.getObject())));
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+}
@@ -0,0 +1,46 @@
+package by.sakhdanil.managmentserver.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок в виде GCRA: все состояние - одно число,
+ * теоретическое время прихода следующего запроса (TAT), которое меняется через CAS.
+ * Корзина вмещает capacity запросов и восполняется полностью за period.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, Duration period, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0, если токен выдан, иначе сколько наносекунд ждать следующего токена
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - nowNanos > 0 ? tat : nowNanos;
+            long waitNanos = start - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Корзина полна и не использовалась дольше idleNanos - ее можно удалить без потери состояния
+     */
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
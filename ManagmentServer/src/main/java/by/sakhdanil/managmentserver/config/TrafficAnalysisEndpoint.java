@@ -0,0 +1,25 @@
+package by.sakhdanil.managmentserver.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/heavyhitters - самые активные адреса, user-agent и маршруты за окно и текущие блокировки.
+ * Содержит чужие адреса, поэтому доступен только учетной записи оператора ({@link SecurityConfig})
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+@RequiredArgsConstructor
+public class TrafficAnalysisEndpoint {
+
+    private final TrafficAnalyzer trafficAnalyzer;
+
+    @ReadOperation
+    public Map<String, Object> heavyHitters() {
+        return trafficAnalyzer.snapshot();
+    }
+}
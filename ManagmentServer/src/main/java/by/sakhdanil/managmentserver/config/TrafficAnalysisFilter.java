@@ -0,0 +1,70 @@
+package by.sakhdanil.managmentserver.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Первый фильтр цепочки: учитывает запрос в {@link TrafficAnalyzer} и отклоняет запросы заблокированных ключей
+ */
+@Component
+@Order(TrafficAnalysisFilter.ORDER)
+@RequiredArgsConstructor
+public class TrafficAnalysisFilter extends OncePerRequestFilter {
+
+    // Раньше RateLimitFilter: заблокированному источнику не нужны даже корзины токенов
+    static final int ORDER = RateLimitFilter.ORDER - 5;
+
+    private final TrafficAnalyzer trafficAnalyzer;
+    private final TrafficAnalysisProperties properties;
+    private final RequestLogger requestLogger;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String blockedKey = trafficAnalyzer.record(clientIp(request), request.getHeader(HttpHeaders.USER_AGENT), path);
+        if (blockedKey == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = trafficAnalyzer.blockedForSeconds(blockedKey);
+        requestLogger.log(request, "traffic.blocked", "key", blockedKey, "uri", request.getRequestURI());
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+            "success", false,
+            "error", "Too many requests",
+            "retryAfter", retryAfter
+        ));
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,42 @@
+package by.sakhdanil.managmentserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Настройки поиска самых активных клиентов (секция {@code traffic-analysis})
+ */
+@Data
+@ConfigurationProperties(prefix = "traffic-analysis")
+public class TrafficAnalysisProperties {
+
+    private boolean enabled = true;
+
+    /** Скользящее окно подсчета и число его частей (по скетчу на часть) */
+    private Duration window = Duration.ofMinutes(1);
+    private int windowSlots = 6;
+
+    /** Размер count-min скетча: строки x столбцы (столбцы округляются до степени двойки) */
+    private int sketchDepth = 4;
+    private int sketchWidth = 4096;
+
+    /** Сколько самых активных ключей хранить для отчета и блокировки */
+    private int topK = 32;
+
+    /** Ключ блокируется, если за окно у него больше max(minRequests, maxShare * весь трафик окна) запросов */
+    private long minRequests = 1200;
+    private double maxShare = 0.2;
+
+    private Duration blockDuration = Duration.ofMinutes(5);
+    private int maxBlockedKeys = 1024;
+
+    /** По каким измерениям можно блокировать; user-agent и маршрут у легитимных клиентов общие */
+    private Set<TrafficAnalyzer.Dimension> blockDimensions = EnumSet.of(TrafficAnalyzer.Dimension.IP);
+
+    /** Брать адрес клиента из X-Forwarded-For (только за доверенным прокси) */
+    private boolean trustForwardedFor = false;
+}
@@ -0,0 +1,280 @@
+package by.sakhdanil.managmentserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Поиск самых активных клиентов за скользящее окно и их временная блокировка.
+ * <p>
+ * Запросы считаются в count-min скетчах по частям окна (адрес, user-agent и маршрут - отдельные ключи
+ * в общих скетчах), поэтому память постоянна даже при потоке с миллионов поддельных адресов.
+ * Точные ключи хранятся только для небольшого top-k. Ключ из top-k блокируется, когда его оценка
+ * за окно превышает порог, растущий вместе с общим трафиком.
+ */
+@Component
+@EnableConfigurationProperties(TrafficAnalysisProperties.class)
+public class TrafficAnalyzer {
+
+    public enum Dimension {
+        IP,
+        USER_AGENT,
+        ROUTE
+    }
+
+    private static final int MAX_USER_AGENT_LENGTH = 128;
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(\\d+|[0-9a-fA-F-]{36})(?=/|$)");
+
+    private final TrafficAnalysisProperties properties;
+    private final CountMinSketch.Hasher hasher;
+    private final CountMinSketch[] slots;
+    private final AtomicLongArray slotTotals;
+    private final TopK topK;
+    private final Map<String, Long> blocked = new ConcurrentHashMap<>();
+    private final Map<Dimension, Counter> blockedRequests = new EnumMap<>(Dimension.class);
+    private volatile int currentSlot;
+    private final TaskScheduler taskScheduler;
+    private ScheduledFuture<?> rotation;
+
+    public TrafficAnalyzer(TrafficAnalysisProperties properties, MeterRegistry meterRegistry, TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.hasher = new CountMinSketch.Hasher(properties.getSketchDepth());
+        this.slots = new CountMinSketch[properties.getWindowSlots()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new CountMinSketch(properties.getSketchDepth(), properties.getSketchWidth());
+        }
+        this.slotTotals = new AtomicLongArray(slots.length);
+        this.topK = new TopK(properties.getTopK());
+
+        for (Dimension dimension : Dimension.values()) {
+            blockedRequests.put(dimension, Counter.builder("traffic.blocked")
+                .description("Запросы, отклоненные из-за блокировки самого активного ключа")
+                .tag("dimension", dimension.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+        Gauge.builder("traffic.blocked.keys", blocked, Map::size)
+            .description("Ключи, заблокированные в данный момент")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        Duration slot = properties.getWindow().dividedBy(slots.length);
+        rotation = taskScheduler.scheduleAtFixedRate(this::rotate, Instant.now().plus(slot), slot);
+    }
+
+    @PreDestroy
+    void stop() {
+        rotation.cancel(false);
+    }
+
+    /**
+     * Учитывает запрос
+     *
+     * @return заблокированный ключ запроса или null, если запрос можно обрабатывать
+     */
+    String record(String ip, String userAgent, String path) {
+        String[] keys = {
+            key(Dimension.IP, ip),
+            key(Dimension.USER_AGENT, userAgent == null ? "-" : truncate(userAgent)),
+            key(Dimension.ROUTE, ID_SEGMENT.matcher(path).replaceAll("/{id}"))
+        };
+
+        int slot = currentSlot;
+        slotTotals.incrementAndGet(slot);
+        long threshold = threshold();
+        String blockedKey = null;
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            int[] rowHashes = hasher.hash(key);
+            slots[slot].add(rowHashes);
+            long estimate = estimate(rowHashes);
+            topK.offer(key, estimate);
+            Dimension dimension = Dimension.values()[i];
+            // Пока поток продолжается, блокировка продлевается
+            if (estimate > threshold && properties.getBlockDimensions().contains(dimension)) {
+                block(key);
+            }
+            if (blockedKey == null && isBlocked(key)) {
+                blockedKey = key;
+                blockedRequests.get(dimension).increment();
+            }
+        }
+        return blockedKey;
+    }
+
+    /**
+     * Сколько еще секунд действует блокировка ключа
+     */
+    long blockedForSeconds(String key) {
+        Long until = blocked.get(key);
+        return until == null ? 0 : Math.max(1, TimeUnit.MILLISECONDS.toSeconds(until - System.currentTimeMillis()));
+    }
+
+    long threshold() {
+        long total = 0;
+        for (int i = 0; i < slotTotals.length(); i++) {
+            total += slotTotals.get(i);
+        }
+        return Math.max(properties.getMinRequests(), (long) (properties.getMaxShare() * total));
+    }
+
+    /**
+     * Текущее состояние для actuator: самые активные ключи и блокировки
+     */
+    Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> hitters = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : topK.entries()) {
+            String key = entry.getKey();
+            int separator = key.indexOf(':');
+            hitters.add(Map.of(
+                "dimension", key.substring(0, separator),
+                "key", key.substring(separator + 1),
+                "estimate", estimate(key),
+                "blocked", isBlocked(key)
+            ));
+        }
+        hitters.sort(Comparator.comparingLong((Map<String, Object> hitter) -> (Long) hitter.get("estimate")).reversed());
+
+        Map<String, String> blockedUntil = new HashMap<>();
+        blocked.forEach((key, until) -> {
+            if (until > now) {
+                blockedUntil.put(key, Instant.ofEpochMilli(until).toString());
+            }
+        });
+        return Map.of(
+            "window", properties.getWindow().toString(),
+            "threshold", threshold(),
+            "heavyHitters", hitters,
+            "blocked", blockedUntil
+        );
+    }
+
+    // Самая старая часть окна очищается и становится текущей
+    void rotate() {
+        int next = (currentSlot + 1) % slots.length;
+        slots[next].clear();
+        slotTotals.set(next, 0);
+        currentSlot = next;
+
+        topK.refresh(this::estimate);
+        long now = System.currentTimeMillis();
+        blocked.values().removeIf(until -> until <= now);
+    }
+
+    private long estimate(String key) {
+        return estimate(hasher.hash(key));
+    }
+
+    private long estimate(int[] rowHashes) {
+        long sum = 0;
+        for (CountMinSketch sketch : slots) {
+            sum += sketch.estimate(rowHashes);
+        }
+        return sum;
+    }
+
+    private boolean isBlocked(String key) {
+        Long until = blocked.get(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private void block(String key) {
+        if (blocked.size() < properties.getMaxBlockedKeys() || blocked.containsKey(key)) {
+            blocked.put(key, System.currentTimeMillis() + properties.getBlockDuration().toMillis());
+        }
+    }
+
+    private static String key(Dimension dimension, String value) {
+        return dimension.name().toLowerCase(Locale.ROOT) + ':' + value;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_USER_AGENT_LENGTH ? value.substring(0, MAX_USER_AGENT_LENGTH) : value;
+    }
+
+    /**
+     * Небольшая куча самых активных ключей. Ключ с оценкой ниже минимума полной кучи
+     * отбрасывается без блокировки, так что основной поток запросов лок не берет.
+     */
+    private static final class TopK {
+
+        private final int capacity;
+        private final Map<String, Long> counts = new HashMap<>();
+        private final PriorityQueue<Map.Entry<String, Long>> heap =
+            new PriorityQueue<>(Map.Entry.comparingByValue());
+        private volatile long floor;
+
+        private TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(String key, long estimate) {
+            if (estimate <= floor) {
+                return;
+            }
+            synchronized (this) {
+                Long current = counts.get(key);
+                if (current != null) {
+                    if (estimate > current) {
+                        heap.removeIf(entry -> entry.getKey().equals(key));
+                        put(key, estimate);
+                    }
+                } else if (counts.size() < capacity) {
+                    put(key, estimate);
+                } else if (estimate > heap.peek().getValue()) {
+                    counts.remove(heap.poll().getKey());
+                    put(key, estimate);
+                }
+                floor = counts.size() < capacity ? 0 : heap.peek().getValue();
+            }
+        }
+
+        synchronized List<Map.Entry<String, Long>> entries() {
+            return new ArrayList<>(heap);
+        }
+
+        // После сдвига окна оценки падают: пересчитываем, ушедшие из окна ключи удаляем
+        synchronized void refresh(ToLongFunction<String> estimator) {
+            List<String> keys = new ArrayList<>(counts.keySet());
+            counts.clear();
+            heap.clear();
+            for (String key : keys) {
+                long estimate = estimator.applyAsLong(key);
+                if (estimate > 0) {
+                    put(key, estimate);
+                }
+            }
+            floor = counts.size() < capacity ? 0 : heap.peek().getValue();
+        }
+
+        private void put(String key, long estimate) {
+            counts.put(key, estimate);
+            heap.add(Map.entry(key, estimate));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package by.sakhdanil.managmentserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поиск мест, где виртуальный поток блокируется внутри synchronized и занимает поток-носитель
+ * (событие JFR jdk.VirtualThreadPinned). Работает только при spring.threads.virtual.enabled=true.
+ * <p>
+ * Каждое место учитывается в метрике jvm.threads.virtual.pinned{site}, первое появление пишется в журнал
+ * со стеком. site - первый кадр стека вне JDK, обычно метод драйвера или библиотеки, державший монитор.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 50;
+    private static final int LOGGED_FRAMES = 4;
+
+    private final RequestLogger requestLogger;
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Map<String, Counter> sites = new ConcurrentHashMap<>();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(RequestLogger requestLogger,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.requestLogger = requestLogger;
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        requestLogger.info("virtual_thread.pinning_monitor", "state", "started", "threshold", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        recording.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = site(frames);
+        Counter counter = sites.get(site);
+        if (counter == null) {
+            // Число мест ограничено, чтобы метрика не разрасталась
+            String tag = sites.size() < MAX_SITES ? site : "other";
+            counter = sites.computeIfAbsent(tag, key -> Counter.builder("jvm.threads.virtual.pinned")
+                .description("Блокировки виртуальных потоков с занятым потоком-носителем")
+                .tag("site", key)
+                .register(meterRegistry));
+            if (tag.equals(site)) {
+                requestLogger.warn("virtual_thread.pinned",
+                    "site", site, "durationMs", event.getDuration().toMillis(), "stack", stack(frames));
+            }
+        }
+        counter.increment();
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + '.' + frame.getMethod().getName();
+            }
+        }
+        return "unknown";
+    }
+
+    private static String stack(List<RecordedFrame> frames) {
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            if (i > 0) {
+                stack.append(" <- ");
+            }
+            stack.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber());
+        }
+        return stack.toString();
+    }
+}
@@ -1,11 +1,16 @@
 package by.sakhdanil.managmentserver.controller;
 
+import by.sakhdanil.managmentserver.dto.backup.BackupImportMode;
+import by.sakhdanil.managmentserver.dto.backup.BackupImportResponse;
 import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
 import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.service.BackupService;
 import by.sakhdanil.managmentserver.service.PasswordEntryService;
 import by.sakhdanil.managmentserver.service.SecureNoteService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,14 +18,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/backup")
@@ -30,6 +44,7 @@ public class BackupController {
     
     private final SecureNoteService noteService;
     private final PasswordEntryService passwordService;
+    private final BackupService backupService;
     
     @GetMapping("/export")
     @Operation(
@@ -95,54 +110,99 @@ public class BackupController {
         return ResponseEntity.ok(backup);
     }
     
-    @PostMapping("/import")
+    @GetMapping(value = "/export", params = "stream=true")
     @Operation(
-        summary = "Импорт данных пользователя (в разработке)",
+        summary = "Потоковый экспорт всех данных пользователя",
         description = """
-            Импортирует данные пользователя из резервной копии.
+            Тот же формат, что и у обычного экспорта, но JSON пишется в ответ по мере чтения из базы.
             
-            **Статус**: В разработке
+            **Когда использовать**: 
+            - Большие хранилища: потребление памяти сервера не зависит от числа записей
+            - `gzip=true` - ответ сжимается и отдается файлом `backup.json.gz`
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Данные экспортируются потоком"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<StreamingResponseBody> exportDataStream(
+            @Parameter(description = "Сжать ответ gzip") @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal User user) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                backupService.exportTo(user, gzipOut);
+                gzipOut.finish();
+            } else {
+                backupService.exportTo(user, out);
+            }
+        };
+        
+        String filename = gzip ? "backup.json.gz" : "backup.json";
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+    
+    @PostMapping("/import")
+    @Operation(
+        summary = "Импорт данных пользователя",
+        description = """
+            Импортирует данные пользователя из резервной копии в формате экспорта.
             
-            **Планируемая функциональность**:
-            - Валидация формата данных
-            - Обработка конфликтов с существующими записями
-            - Опции слияния или замещения данных
-            - Проверка целостности зашифрованных данных
+            **Режимы** (`mode`):
+            - `MERGE` - записи с id, принадлежащим пользователю, обновляются, остальные добавляются
+            - `REPLACE` - текущие заметки и пароли удаляются и заменяются содержимым копии
             
             **Важно**: 
             - Данные должны быть в том же зашифрованном формате
-            - Импорт будет доступен только для владельца данных
+            - Копия читается потоково и сохраняется пакетами в одной транзакции: при ошибке ничего не меняется
+            - Записи с незаполненными зашифрованными полями пропускаются
+            - Размер копии и число записей ограничены (`backup.import.max-bytes`, `backup.import.max-entries`)
+            - Сжатая копия принимается с `Content-Type: application/gzip` или `Content-Encoding: gzip`
             """,
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
-            description = "Заглушка - функциональность в разработке",
+            description = "Данные импортированы",
             content = @Content(
                 mediaType = "application/json",
+                schema = @Schema(implementation = BackupImportResponse.class),
                 examples = @ExampleObject(
-                    name = "Ответ заглушки",
+                    name = "Результат импорта",
                     value = """
                         {
-                          "message": "Import functionality will be implemented based on specific requirements",
-                          "status": "placeholder"
+                          "mode": "MERGE",
+                          "notesImported": 120,
+                          "passwordsImported": 350,
+                          "skipped": 0,
+                          "deleted": 0
                         }
                         """
                 )
             )
         ),
-        @ApiResponse(responseCode = "400", description = "Неверный формат данных"),
+        @ApiResponse(responseCode = "400", description = "Неверный формат данных или превышен лимит размера"),
         @ApiResponse(responseCode = "401", description = "Не авторизован")
     })
-    public ResponseEntity<Map<String, String>> importData(
-            @RequestBody Map<String, Object> backupData,
-            @AuthenticationPrincipal User user) {
-        // Здесь будет логика импорта данных
-        // Пока что возвращаем заглушку
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Import functionality will be implemented based on specific requirements");
-        response.put("status", "placeholder");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> importData(
+            @Parameter(description = "Режим импорта") @RequestParam(defaultValue = "MERGE") BackupImportMode mode,
+            HttpServletRequest request,
+            @AuthenticationPrincipal User user) throws IOException {
+        boolean gzip = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+            || "application/gzip".equalsIgnoreCase(request.getContentType());
+        
+        try (InputStream body = gzip ? new GZIPInputStream(request.getInputStream(), 8192) : request.getInputStream()) {
+            return ResponseEntity.ok(backupService.importFrom(user, body, mode));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+        }
     }
 } 
\ No newline at end of file
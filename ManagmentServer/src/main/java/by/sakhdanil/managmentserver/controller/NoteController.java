@@ -1,10 +1,15 @@
 package by.sakhdanil.managmentserver.controller;
 
+import by.sakhdanil.managmentserver.dto.batch.BatchResponse;
+import by.sakhdanil.managmentserver.dto.listing.ListingPage;
+import by.sakhdanil.managmentserver.dto.note.NoteBatchRequest;
 import by.sakhdanil.managmentserver.dto.note.NoteRequest;
 import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.service.SecureNoteService;
+import by.sakhdanil.managmentserver.service.VaultListingCache;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,11 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -27,6 +35,7 @@ import java.util.List;
 public class NoteController {
     
     private final SecureNoteService noteService;
+    private final VaultListingCache listingCache;
     
     @GetMapping
     @Operation(
@@ -38,6 +47,7 @@ public class NoteController {
             - Все данные возвращаются в зашифрованном виде
             - Расшифровка происходит на клиенте с использованием мастер-пароля
             - Сервер не имеет доступа к содержимому заметок
+            - Ответ содержит ETag: с заголовком If-None-Match неизмененное хранилище вернет 304 без тела
             """,
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
@@ -71,14 +81,112 @@ public class NoteController {
                 )
             )
         ),
+        @ApiResponse(responseCode = "304", description = "Хранилище не изменилось с версии из If-None-Match"),
         @ApiResponse(
             responseCode = "401",
             description = "Не авторизован - отсутствует или недействительный JWT токен"
         )
     })
-    public ResponseEntity<List<NoteResponse>> getAllNotes(@AuthenticationPrincipal User user) {
-        List<NoteResponse> notes = noteService.getAllNotes(user);
-        return ResponseEntity.ok(notes);
+    public ResponseEntity<byte[]> getAllNotes(@AuthenticationPrincipal User user, WebRequest request,
+                                                HttpServletResponse response) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        // Тело (JSON или Smile) зависит от Accept - и для 200, и для 304
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // Версия читается до выборки: если хранилище изменится между ними, следующий запрос получит новые данные
+        if (request.checkNotModified(listingCache.etag(user.getId(), "notes", accept))) {
+            return null;
+        }
+        // Сериализованный список берется из кэша; база и сериализация - только при промахе
+        return listingCache.respond(user.getId(), "notes", accept, () -> noteService.getAllNotes(user));
+    }
+    
+    @GetMapping(params = "limit")
+    @Operation(
+        summary = "Получить страницу заметок",
+        description = """
+            Постраничный список заметок, новые изменения первыми (по времени обновления и ID).
+            Включается параметром `limit`; без него возвращается полный список.
+            
+            **Важно**: 
+            - `nextCursor` из ответа передается в `cursor` следующего запроса; null - записей больше нет
+            - `fields=summary` возвращает только ID, название, тип и время обновления - для отображения списка.
+              Полные данные записи загружаются отдельно через GET по ID
+            - Не более 500 записей на странице
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Страница получена",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ListingPage.class),
+                examples = @ExampleObject(
+                    name = "Краткий список",
+                    value = """
+                        {
+                          "items": [
+                            {
+                              "id": 42,
+                              "encryptedTitle": "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y=",
+                              "encryptedType": "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K2A=",
+                              "updatedAt": "2024-01-15T11:00:00.000Z"
+                            }
+                          ],
+                          "nextCursor": "MjAyNC0wMS0xNVQxMTowMDowMFpfNDI"
+                        }
+                        """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Неверный курсор"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<ListingPage<?>> getNotePage(
+            @Parameter(description = "Размер страницы (до 500)", example = "50")
+            @RequestParam int limit,
+            @Parameter(description = "Курсор из предыдущего ответа")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "summary - только краткие данные записей", example = "summary")
+            @RequestParam(defaultValue = "full") String fields,
+            @AuthenticationPrincipal User user) {
+        try {
+            if ("summary".equalsIgnoreCase(fields)) {
+                return ResponseEntity.ok(noteService.getNoteSummaries(user, cursor, limit));
+            }
+            return ResponseEntity.ok(noteService.getNotePage(user, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(
+        summary = "Получить заметку по ID",
+        description = """
+            Возвращает полные зашифрованные данные одной записи - например, выбранной в кратком списке.
+            
+            **Важно**: Запись должна принадлежать текущему пользователю.
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Заметка найдена",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = NoteResponse.class)
+            )
+        ),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "404", description = "Запись не найдена или не принадлежит пользователю")
+    })
+    public ResponseEntity<NoteResponse> getNote(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(noteService.getNote(id, user));
     }
     
     @PostMapping
@@ -183,4 +291,49 @@ public class NoteController {
         noteService.deleteNote(id, user);
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+    
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Пакетно создать, обновить и удалить заметки",
+        description = """
+            Выполняет список операций CREATE / UPDATE / DELETE в одной транзакции.
+            
+            **Важно**: 
+            - Для CREATE и UPDATE передайте зашифрованные данные в `data`
+            - Для UPDATE и DELETE обязателен `id` записи на сервере
+            - `clientRef` возвращается в результате без изменений - по нему клиент сопоставляет свои записи с ID на сервере
+            - Ошибка отдельной операции не отменяет остальные: ее статус будет `NOT_FOUND` или `INVALID`
+            - Не более 1000 операций в одном запросе
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Пакет обработан, результаты в порядке операций запроса",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BatchResponse.class),
+                examples = @ExampleObject(
+                    name = "Результаты пакета",
+                    value = """
+                        {
+                          "results": [
+                            { "clientRef": "17", "op": "CREATE", "id": 51, "status": "OK" },
+                            { "clientRef": "18", "op": "UPDATE", "id": 3, "status": "OK" },
+                            { "clientRef": "19", "op": "DELETE", "id": 4, "status": "NOT_FOUND" }
+                          ]
+                        }
+                        """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Неверные данные запроса"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<BatchResponse> applyNoteBatch(
+            @Valid @RequestBody NoteBatchRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(noteService.applyBatch(request.operations(), user));
+    }
+}
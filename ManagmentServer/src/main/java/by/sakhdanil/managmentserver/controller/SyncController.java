@@ -0,0 +1,134 @@
+package by.sakhdanil.managmentserver.controller;
+
+import by.sakhdanil.managmentserver.dto.sync.SyncChangesResponse;
+import by.sakhdanil.managmentserver.dto.sync.SyncEvent;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.service.SyncService;
+import by.sakhdanil.managmentserver.service.SyncStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Tag(name = "🔄 Sync", description = "Инкрементальная синхронизация хранилища")
+public class SyncController {
+
+    private final SyncService syncService;
+    private final SyncStreamService syncStreamService;
+
+    @GetMapping("/changes")
+    @Operation(
+        summary = "Получить изменения после курсора",
+        description = """
+            Возвращает записи паролей и заметок, созданные, измененные или удаленные после указанного курсора.
+
+            **Процесс на клиенте:**
+            1. Первый запрос без `cursor` - возвращает текущую позицию журнала без изменений
+            2. Выполнить полную выгрузку (`/api/passwords`, `/api/notes`) и сохранить курсор
+            3. Дальше запрашивать `/api/sync/changes?cursor=...` и сохранять новый `cursor`
+            4. Если `hasMore = true` - сразу запросить следующую страницу
+
+            **Важно**: созданные и обновленные записи возвращаются в актуальном состоянии,
+            для удаленных возвращаются только ID.
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Изменения успешно получены",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = SyncChangesResponse.class),
+                examples = @ExampleObject(
+                    name = "Изменения после курсора",
+                    value = """
+                        {
+                          "cursor": 42,
+                          "hasMore": false,
+                          "passwords": [
+                            {
+                              "id": 1,
+                              "encryptedTitle": "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y=",
+                              "encryptedSite": "U2FsdGVkX1+site",
+                              "encryptedLogin": "U2FsdGVkX1+login",
+                              "encryptedPassword": "U2FsdGVkX1+password",
+                              "encryptedType": "U2FsdGVkX1+type",
+                              "createdAt": "2024-01-15T10:30:00.000Z",
+                              "updatedAt": "2024-01-15T11:00:00.000Z"
+                            }
+                          ],
+                          "notes": [],
+                          "deletedPasswordIds": [3],
+                          "deletedNoteIds": []
+                        }
+                        """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<SyncChangesResponse> getChanges(
+            @Parameter(description = "Курсор из предыдущего ответа", example = "41")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Максимальное количество записей журнала в ответе (до 1000)", example = "500")
+            @RequestParam(defaultValue = "" + SyncService.DEFAULT_CHANGES_LIMIT) int limit,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(syncService.getChanges(user, cursor, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Поток уведомлений об изменениях (Server-Sent Events)",
+        description = """
+            Держит соединение открытым и присылает событие `change` при каждом изменении паролей и заметок
+            пользователя, сделанном с любого устройства. Само событие не содержит данных записи.
+
+            **Процесс на клиенте:**
+            1. Открыть поток; первым событием приходит текущая версия хранилища
+            2. Если `version` больше сохраненного курсора - запросить `/api/sync/changes?cursor=...`
+            3. При разрыве переподключиться: первое событие покажет, было ли что-то пропущено
+
+            **Важно**: каждые 15 секунд приходит комментарий-heartbeat. Событие без `entityType` означает,
+            что изменилось несколько записей сразу или изменение сделано на другом экземпляре сервера.
+            Соединение закрывается сервером через 30 минут.
+            """,
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Поток событий открыт",
+            content = @Content(
+                mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                schema = @Schema(implementation = SyncEvent.class),
+                examples = @ExampleObject(
+                    name = "Изменение пароля",
+                    value = """
+                        event:change
+                        id:42
+                        data:{"entityType":"PASSWORD","entityId":17,"changeType":"UPDATE","version":42}
+                        """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public SseEmitter stream(@AuthenticationPrincipal User user) {
+        return syncStreamService.subscribe(user.getId());
+    }
+}
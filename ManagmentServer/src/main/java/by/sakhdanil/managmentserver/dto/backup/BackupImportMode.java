@@ -0,0 +1,11 @@
+package by.sakhdanil.managmentserver.dto.backup;
+
+/**
+ * Режим импорта резервной копии
+ */
+public enum BackupImportMode {
+    /** Записи с известным id обновляются, остальные добавляются */
+    MERGE,
+    /** Текущие заметки и пароли пользователя удаляются и заменяются содержимым копии */
+    REPLACE
+}
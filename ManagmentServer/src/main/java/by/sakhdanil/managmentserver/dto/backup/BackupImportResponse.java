@@ -0,0 +1,21 @@
+package by.sakhdanil.managmentserver.dto.backup;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат импорта резервной копии")
+public record BackupImportResponse(
+    @Schema(description = "Режим импорта", example = "MERGE")
+    BackupImportMode mode,
+    
+    @Schema(description = "Импортировано заметок (создано или обновлено)", example = "120")
+    int notesImported,
+    
+    @Schema(description = "Импортировано паролей (создано или обновлено)", example = "350")
+    int passwordsImported,
+    
+    @Schema(description = "Пропущено записей с незаполненными зашифрованными полями", example = "0")
+    int skipped,
+    
+    @Schema(description = "Удалено существующих записей (только для REPLACE)", example = "0")
+    int deleted
+) {}
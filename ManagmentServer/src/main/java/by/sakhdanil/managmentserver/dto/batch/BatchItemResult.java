@@ -0,0 +1,30 @@
+package by.sakhdanil.managmentserver.dto.batch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат операции пакетного запроса")
+public record BatchItemResult(
+    @Schema(
+        description = "Идентификатор записи на клиенте из запроса",
+        example = "17"
+    )
+    String clientRef,
+
+    @Schema(
+        description = "Тип операции",
+        example = "CREATE"
+    )
+    BatchOperationType op,
+
+    @Schema(
+        description = "ID записи на сервере (для CREATE - выданный сервером)",
+        example = "1"
+    )
+    Long id,
+
+    @Schema(
+        description = "Статус выполнения операции",
+        example = "OK"
+    )
+    BatchItemStatus status
+) {}
@@ -0,0 +1,21 @@
+package by.sakhdanil.managmentserver.dto.batch;
+
+/**
+ * Результат отдельной операции пакетного запроса
+ */
+public enum BatchItemStatus {
+    /**
+     * Операция выполнена
+     */
+    OK,
+
+    /**
+     * Запись для UPDATE/DELETE не найдена у пользователя
+     */
+    NOT_FOUND,
+
+    /**
+     * Не хватает данных: id для UPDATE/DELETE или data для CREATE/UPDATE
+     */
+    INVALID
+}
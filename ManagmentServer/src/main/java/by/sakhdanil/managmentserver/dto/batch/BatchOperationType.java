@@ -0,0 +1,10 @@
+package by.sakhdanil.managmentserver.dto.batch;
+
+/**
+ * Тип операции в пакетном запросе
+ */
+public enum BatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,11 @@
+package by.sakhdanil.managmentserver.dto.batch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Ответ на пакетный запрос: результаты в порядке операций запроса")
+public record BatchResponse(
+    @Schema(description = "Результаты операций")
+    List<BatchItemResult> results
+) {}
@@ -0,0 +1,32 @@
+package by.sakhdanil.managmentserver.dto.listing;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Краткие данные записи для списка: без зашифрованного содержимого")
+public record EntrySummary(
+    @Schema(
+        description = "Уникальный идентификатор записи",
+        example = "1"
+    )
+    Long id,
+
+    @Schema(
+        description = "Зашифрованное название записи",
+        example = "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y="
+    )
+    String encryptedTitle,
+
+    @Schema(
+        description = "Зашифрованный тип записи",
+        example = "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y="
+    )
+    String encryptedType,
+
+    @Schema(
+        description = "Время последнего обновления записи",
+        example = "2024-01-15T10:30:00.000Z"
+    )
+    Instant updatedAt
+) {}
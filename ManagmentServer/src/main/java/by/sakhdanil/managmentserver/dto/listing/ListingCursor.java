@@ -0,0 +1,29 @@
+package by.sakhdanil.managmentserver.dto.listing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке, упорядоченном по (updatedAt DESC, id DESC).
+ * Клиенту передается непрозрачной строкой base64url.
+ */
+public record ListingCursor(Instant updatedAt, Long id) {
+
+    public String encode() {
+        String value = updatedAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ListingCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            return new ListingCursor(Instant.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid listing cursor", e);
+        }
+    }
+}
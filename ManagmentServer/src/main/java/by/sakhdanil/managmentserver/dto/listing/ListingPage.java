@@ -0,0 +1,36 @@
+package by.sakhdanil.managmentserver.dto.listing;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Schema(description = "Страница списка записей (новые изменения первыми)")
+public record ListingPage<T>(
+    @Schema(description = "Записи страницы")
+    List<T> items,
+
+    @Schema(
+        description = "Курсор следующей страницы; null, если записей больше нет",
+        example = "MjAyNC0wMS0xNVQxMDozMDowMFpfNDI"
+    )
+    String nextCursor
+) {
+
+    public static final int MAX_LIMIT = 500;
+
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Собирает страницу из limit + 1 строк: лишняя строка только сообщает, что есть продолжение
+     */
+    public static <T> ListingPage<T> of(List<T> rows, int limit, Function<T, ListingCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new ListingPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new ListingPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
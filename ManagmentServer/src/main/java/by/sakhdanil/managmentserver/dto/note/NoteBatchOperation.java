@@ -0,0 +1,32 @@
+package by.sakhdanil.managmentserver.dto.note;
+
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Операция над заметкой в пакетном запросе")
+public record NoteBatchOperation(
+    @Schema(
+        description = "Тип операции",
+        example = "CREATE"
+    )
+    @NotNull(message = "Operation type is required")
+    BatchOperationType op,
+
+    @Schema(
+        description = "Идентификатор заметки на клиенте, возвращается в результате как есть",
+        example = "17"
+    )
+    String clientRef,
+
+    @Schema(
+        description = "ID заметки на сервере (обязателен для UPDATE и DELETE)",
+        example = "1"
+    )
+    Long id,
+
+    @Schema(description = "Зашифрованные данные заметки (обязательны для CREATE и UPDATE)")
+    @Valid
+    NoteRequest data
+) {}
@@ -0,0 +1,16 @@
+package by.sakhdanil.managmentserver.dto.note;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Пакетный запрос на создание, обновление и удаление заметок")
+public record NoteBatchRequest(
+    @Schema(description = "Операции, выполняются в одной транзакции")
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "No more than 1000 operations per batch")
+    List<@Valid NoteBatchOperation> operations
+) {}
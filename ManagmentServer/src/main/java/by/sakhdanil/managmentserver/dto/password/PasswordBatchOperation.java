@@ -0,0 +1,32 @@
+package by.sakhdanil.managmentserver.dto.password;
+
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Операция над записью пароля в пакетном запросе")
+public record PasswordBatchOperation(
+    @Schema(
+        description = "Тип операции",
+        example = "CREATE"
+    )
+    @NotNull(message = "Operation type is required")
+    BatchOperationType op,
+
+    @Schema(
+        description = "Идентификатор записи на клиенте, возвращается в результате как есть",
+        example = "17"
+    )
+    String clientRef,
+
+    @Schema(
+        description = "ID записи на сервере (обязателен для UPDATE и DELETE)",
+        example = "1"
+    )
+    Long id,
+
+    @Schema(description = "Зашифрованные данные записи (обязательны для CREATE и UPDATE)")
+    @Valid
+    PasswordRequest data
+) {}
@@ -0,0 +1,16 @@
+package by.sakhdanil.managmentserver.dto.password;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Пакетный запрос на создание, обновление и удаление записей паролей")
+public record PasswordBatchRequest(
+    @Schema(description = "Операции, выполняются в одной транзакции")
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "No more than 1000 operations per batch")
+    List<@Valid PasswordBatchOperation> operations
+) {}
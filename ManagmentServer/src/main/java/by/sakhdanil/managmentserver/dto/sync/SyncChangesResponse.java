@@ -0,0 +1,34 @@
+package by.sakhdanil.managmentserver.dto.sync;
+
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Изменения хранилища после указанного курсора")
+public record SyncChangesResponse(
+    @Schema(
+        description = "Новый курсор, который нужно передать в следующем запросе",
+        example = "42"
+    )
+    long cursor,
+
+    @Schema(
+        description = "Есть ли еще изменения после возвращенного курсора",
+        example = "false"
+    )
+    boolean hasMore,
+
+    @Schema(description = "Созданные или обновленные записи паролей (актуальное состояние)")
+    List<PasswordResponse> passwords,
+
+    @Schema(description = "Созданные или обновленные заметки (актуальное состояние)")
+    List<NoteResponse> notes,
+
+    @Schema(description = "ID удаленных записей паролей", example = "[3, 7]")
+    List<Long> deletedPasswordIds,
+
+    @Schema(description = "ID удаленных заметок", example = "[5]")
+    List<Long> deletedNoteIds
+) {}
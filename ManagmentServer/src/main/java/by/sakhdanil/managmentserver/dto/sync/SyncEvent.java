@@ -0,0 +1,34 @@
+package by.sakhdanil.managmentserver.dto.sync;
+
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Уведомление об изменении хранилища в потоке /api/sync/stream")
+public record SyncEvent(
+    @Schema(
+        description = "Тип записи; null - изменилось несколько записей или изменение сделано на другом экземпляре сервера",
+        example = "PASSWORD"
+    )
+    SyncChange.EntityType entityType,
+
+    @Schema(description = "ID записи", example = "17")
+    Long entityId,
+
+    @Schema(description = "Операция над записью", example = "UPDATE")
+    SyncChange.ChangeType changeType,
+
+    @Schema(
+        description = "Позиция журнала изменений после изменения. Если она больше курсора клиента, "
+            + "клиент запрашивает /api/sync/changes со своим курсором",
+        example = "42"
+    )
+    long version
+) {
+
+    /**
+     * Уведомление только о новой версии хранилища, без подробностей
+     */
+    public static SyncEvent version(long version) {
+        return new SyncEvent(null, null, null, version);
+    }
+}
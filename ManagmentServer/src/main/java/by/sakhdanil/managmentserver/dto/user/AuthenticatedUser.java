@@ -0,0 +1,38 @@
+package by.sakhdanil.managmentserver.dto.user;
+
+import by.sakhdanil.managmentserver.entity.User;
+
+/**
+ * Неизменяемый снимок аутентифицированного пользователя для кэша принципалов.
+ * Не содержит хешей, OTP и ленивых коллекций сущности User.
+ */
+public record AuthenticatedUser(
+    String id,
+    String username,
+    String email,
+    boolean emailVerified,
+    String localUserId
+) {
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.isEmailVerified(),
+            user.getLocalUserId()
+        );
+    }
+
+    /**
+     * Отсоединенный User для @AuthenticationPrincipal: сервисам достаточно id для запросов и связей
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setEmailVerified(emailVerified);
+        user.setLocalUserId(localUserId);
+        return user;
+    }
+}
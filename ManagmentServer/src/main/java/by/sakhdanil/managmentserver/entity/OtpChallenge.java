@@ -0,0 +1,35 @@
+package by.sakhdanil.managmentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Выданный OTP код для хранилища в БД (otp.store = database).
+ * id = "<вид>:<username>", код хранится только в виде SHA-256.
+ */
+@Entity
+@Table(
+    name = "otp_challenges",
+    indexes = @Index(name = "idx_otp_challenges_expires", columnList = "expires_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpChallenge {
+    @Id
+    @Column(length = 120)
+    private String id;
+
+    @Column(name = "code_hash", nullable = false, length = 64)
+    private String codeHash;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,75 @@
+package by.sakhdanil.managmentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Письмо в очереди на отправку.
+ * dedupKey объединяет письма одного вида одному пользователю: пока письмо не отправлено,
+ * новый запрос только заменяет его текст (например, на свежий OTP).
+ */
+@Entity
+@Table(
+    name = "email_outbox",
+    indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_dedup", columnList = "dedup_key, status")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEmail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "dedup_key", nullable = false, length = 320)
+    private String dedupKey;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    public enum Status {
+        PENDING,
+        SENT,
+        FAILED
+    }
+}
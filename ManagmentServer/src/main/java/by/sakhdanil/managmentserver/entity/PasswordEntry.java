@@ -10,13 +10,18 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "password_entries")
+@Table(
+    name = "password_entries",
+    indexes = @Index(name = "idx_password_entries_user_updated", columnList = "user_id, updated_at, id")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PasswordEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Последовательность с pooled-оптимизатором (allocationSize = INCREMENT BY) позволяет Hibernate батчить INSERT
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_entries_seq")
+    @SequenceGenerator(name = "password_entries_seq", sequenceName = "password_entries_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,8 +57,13 @@ public class PasswordEntry {
     
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
-        updatedAt = Instant.now();
+        // Время из резервной копии при импорте сохраняется
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        if (updatedAt == null) {
+            updatedAt = Instant.now();
+        }
     }
     
     @PreUpdate
@@ -10,13 +10,17 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "secure_notes")
+@Table(
+    name = "secure_notes",
+    indexes = @Index(name = "idx_secure_notes_user_updated", columnList = "user_id, updated_at, id")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SecureNote {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "secure_notes_seq")
+    @SequenceGenerator(name = "secure_notes_seq", sequenceName = "secure_notes_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,8 +48,13 @@ public class SecureNote {
     
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
-        updatedAt = Instant.now();
+        // Время из резервной копии при импорте сохраняется
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        if (updatedAt == null) {
+            updatedAt = Instant.now();
+        }
     }
     
     @PreUpdate
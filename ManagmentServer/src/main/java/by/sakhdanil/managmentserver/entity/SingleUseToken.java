@@ -0,0 +1,58 @@
+package by.sakhdanil.managmentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Одноразовый токен (например, перенос данных на новое устройство).
+ * Хранится только SHA-256 токена; поиск идет по уникальному индексу token_hash.
+ */
+@Entity
+@Table(
+    name = "single_use_tokens",
+    indexes = {
+        @Index(name = "ux_single_use_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_single_use_tokens_expires", columnList = "expires_at"),
+        @Index(name = "idx_single_use_tokens_user", columnList = "user_id, purpose")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SingleUseToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "single_use_tokens_seq")
+    @SequenceGenerator(name = "single_use_tokens_seq", sequenceName = "single_use_tokens_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Purpose purpose;
+
+    @Column(name = "user_id", nullable = false, length = 36)
+    private String userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    public enum Purpose {
+        TRANSFER
+    }
+}
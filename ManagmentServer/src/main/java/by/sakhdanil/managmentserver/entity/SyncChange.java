@@ -0,0 +1,63 @@
+package by.sakhdanil.managmentserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Запись журнала изменений хранилища пользователя.
+ * seq монотонно растет в пределах одного пользователя и используется как курсор синхронизации.
+ */
+@Entity
+@Table(
+    name = "sync_changes",
+    indexes = @Index(name = "idx_sync_changes_user_seq", columnList = "user_id, seq", unique = true)
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_changes_seq")
+    @SequenceGenerator(name = "sync_changes_seq", sequenceName = "sync_changes_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, length = 36)
+    private String userId;
+
+    @Column(nullable = false)
+    private Long seq; // порядковый номер изменения в журнале пользователя
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public enum EntityType {
+        PASSWORD,
+        NOTE
+    }
+
+    public enum ChangeType {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
@@ -44,24 +44,13 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String passwordHash;      // Argon2 hash(hash(masterPassword) + salt)
     
-    @Column
-    private String otpCode;
-    
-    @Column
-    private Instant otpExpiresAt;
-    
-    @Column
-    private String otpType; // "EMAIL_VERIFICATION", "ACCOUNT_RECOVERY", "SYNC_SETUP"
-    
-    @Column
-    private String transferToken;
-    
-    @Column
-    private Instant transferTokenExpiresAt;
-    
     @Column
     private String localUserId;
     
+    // Счетчик изменений хранилища: меняется только атомарным UPDATE в UserRepository
+    @Column(nullable = false, updatable = false)
+    private long changeSeq = 0;
+    
     @Column(nullable = false)
     private Instant createdAt;
     
@@ -85,44 +74,6 @@ public class User implements UserDetails {
         updatedAt = Instant.now();
     }
     
-    public boolean isOtpValid(String code, String type) {
-        return otpCode != null && 
-               otpCode.equals(code) && 
-               otpType != null &&
-               otpType.equals(type) &&
-               otpExpiresAt != null && 
-               otpExpiresAt.isAfter(Instant.now());
-    }
-    
-    public void setOtp(String code, String type, int validityMinutes) {
-        this.otpCode = code;
-        this.otpType = type;
-        this.otpExpiresAt = Instant.now().plusSeconds(validityMinutes * 60L);
-    }
-    
-    public void clearOtp() {
-        this.otpCode = null;
-        this.otpType = null;
-        this.otpExpiresAt = null;
-    }
-    
-    public boolean isTransferTokenValid(String token) {
-        return transferToken != null && 
-               transferToken.equals(token) && 
-               transferTokenExpiresAt != null && 
-               transferTokenExpiresAt.isAfter(Instant.now());
-    }
-    
-    public void setTransferToken(String token, int validityMinutes) {
-        this.transferToken = token;
-        this.transferTokenExpiresAt = Instant.now().plusSeconds(validityMinutes * 60L);
-    }
-    
-    public void clearTransferToken() {
-        this.transferToken = null;
-        this.transferTokenExpiresAt = null;
-    }
-    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of();
@@ -0,0 +1,31 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.entity.OtpChallenge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface OtpChallengeRepository extends JpaRepository<OtpChallenge, String> {
+
+    // Условное удаление: из нескольких одновременных проверок одного кода успешна одна
+    @Modifying
+    @Query("DELETE FROM OtpChallenge c WHERE c.id = :id AND c.codeHash = :codeHash AND c.expiresAt > :now")
+    int consume(@Param("id") String id, @Param("codeHash") String codeHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE OtpChallenge c SET c.attempts = c.attempts + 1 WHERE c.id = :id")
+    int recordFailure(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM OtpChallenge c WHERE c.id = :id AND (c.attempts >= :maxAttempts OR c.expiresAt <= :now)")
+    int deleteIfExhausted(@Param("id") String id, @Param("maxAttempts") int maxAttempts, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM OtpChallenge c WHERE c.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
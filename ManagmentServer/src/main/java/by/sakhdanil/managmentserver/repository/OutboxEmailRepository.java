@@ -0,0 +1,35 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.entity.OutboxEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    Optional<OutboxEmail> findFirstByDedupKeyAndStatus(String dedupKey, OutboxEmail.Status status);
+
+    // Блокировка с SKIP LOCKED (lock.timeout = -2): несколько экземпляров сервера не возьмут одно письмо
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<OutboxEmail> lockDue(@Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(OutboxEmail.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.status <> 'PENDING' AND e.createdAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
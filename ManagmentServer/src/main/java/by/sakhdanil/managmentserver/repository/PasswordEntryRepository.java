@@ -1,16 +1,75 @@
 package by.sakhdanil.managmentserver.repository;
 
+import by.sakhdanil.managmentserver.dto.listing.EntrySummary;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
 import by.sakhdanil.managmentserver.entity.PasswordEntry;
 import by.sakhdanil.managmentserver.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PasswordEntryRepository extends JpaRepository<PasswordEntry, Long> {
     List<PasswordEntry> findByUser(User user);
     Optional<PasswordEntry> findByIdAndUser(Long id, User user);
     void deleteByIdAndUser(Long id, User user);
+    List<PasswordEntry> findByUserAndIdIn(User user, Collection<Long> ids);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from PasswordEntry p where p.user = :user order by p.id")
+    Stream<PasswordEntry> streamByUser(@Param("user") User user);
+    
+    // Снимок хранилища: строки сразу читаются в DTO, сущности и контекст персистентности не создаются
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new by.sakhdanil.managmentserver.dto.password.PasswordResponse(" +
+           "p.id, p.encryptedTitle, p.encryptedSite, p.encryptedLogin, p.encryptedPassword, p.encryptedType, " +
+           "p.createdAt, p.updatedAt) from PasswordEntry p where p.user.id = :userId order by p.id")
+    List<PasswordResponse> findResponsesByUserId(@Param("userId") String userId);
+    
+    // Постраничный список по (updatedAt DESC, id DESC); курсор - последняя запись предыдущей страницы
+    @Query("select new by.sakhdanil.managmentserver.dto.listing.EntrySummary(" +
+           "p.id, p.encryptedTitle, p.encryptedType, p.updatedAt) from PasswordEntry p " +
+           "where p.user.id = :userId and (p.updatedAt < :updatedAt or (p.updatedAt = :updatedAt and p.id < :id)) " +
+           "order by p.updatedAt desc, p.id desc")
+    List<EntrySummary> findSummariesAfter(@Param("userId") String userId, @Param("updatedAt") Instant updatedAt,
+                                          @Param("id") Long id, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.listing.EntrySummary(" +
+           "p.id, p.encryptedTitle, p.encryptedType, p.updatedAt) from PasswordEntry p " +
+           "where p.user.id = :userId order by p.updatedAt desc, p.id desc")
+    List<EntrySummary> findSummaries(@Param("userId") String userId, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.password.PasswordResponse(" +
+           "p.id, p.encryptedTitle, p.encryptedSite, p.encryptedLogin, p.encryptedPassword, p.encryptedType, p.createdAt, p.updatedAt) from PasswordEntry p " +
+           "where p.user.id = :userId and (p.updatedAt < :updatedAt or (p.updatedAt = :updatedAt and p.id < :id)) " +
+           "order by p.updatedAt desc, p.id desc")
+    List<PasswordResponse> findResponsesAfter(@Param("userId") String userId, @Param("updatedAt") Instant updatedAt,
+                                    @Param("id") Long id, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.password.PasswordResponse(" +
+           "p.id, p.encryptedTitle, p.encryptedSite, p.encryptedLogin, p.encryptedPassword, p.encryptedType, p.createdAt, p.updatedAt) from PasswordEntry p " +
+           "where p.user.id = :userId order by p.updatedAt desc, p.id desc")
+    List<PasswordResponse> findResponses(@Param("userId") String userId, Pageable pageable);
+    
+    @Query("select p.id from PasswordEntry p where p.user = :user")
+    List<Long> findIdsByUser(@Param("user") User user);
+    
+    @Modifying
+    @Query("delete from PasswordEntry p where p.user = :user")
+    int deleteAllByUser(@Param("user") User user);
 } 
\ No newline at end of file
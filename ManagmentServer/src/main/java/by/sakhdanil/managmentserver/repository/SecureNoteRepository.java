@@ -1,16 +1,75 @@
 package by.sakhdanil.managmentserver.repository;
 
+import by.sakhdanil.managmentserver.dto.listing.EntrySummary;
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.entity.SecureNote;
 import by.sakhdanil.managmentserver.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SecureNoteRepository extends JpaRepository<SecureNote, Long> {
     List<SecureNote> findByUser(User user);
     Optional<SecureNote> findByIdAndUser(Long id, User user);
     void deleteByIdAndUser(Long id, User user);
+    List<SecureNote> findByUserAndIdIn(User user, Collection<Long> ids);
+    
+    // Курсор для потокового экспорта: строки читаются порциями, а не всей выборкой сразу
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select n from SecureNote n where n.user = :user order by n.id")
+    Stream<SecureNote> streamByUser(@Param("user") User user);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new by.sakhdanil.managmentserver.dto.note.NoteResponse(" +
+           "n.id, n.encryptedTitle, n.encryptedType, n.encryptedData, n.createdAt, n.updatedAt) " +
+           "from SecureNote n where n.user.id = :userId order by n.id")
+    List<NoteResponse> findResponsesByUserId(@Param("userId") String userId);
+    
+    // Постраничный список по (updatedAt DESC, id DESC); курсор - последняя запись предыдущей страницы
+    @Query("select new by.sakhdanil.managmentserver.dto.listing.EntrySummary(" +
+           "n.id, n.encryptedTitle, n.encryptedType, n.updatedAt) from SecureNote n " +
+           "where n.user.id = :userId and (n.updatedAt < :updatedAt or (n.updatedAt = :updatedAt and n.id < :id)) " +
+           "order by n.updatedAt desc, n.id desc")
+    List<EntrySummary> findSummariesAfter(@Param("userId") String userId, @Param("updatedAt") Instant updatedAt,
+                                          @Param("id") Long id, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.listing.EntrySummary(" +
+           "n.id, n.encryptedTitle, n.encryptedType, n.updatedAt) from SecureNote n " +
+           "where n.user.id = :userId order by n.updatedAt desc, n.id desc")
+    List<EntrySummary> findSummaries(@Param("userId") String userId, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.note.NoteResponse(" +
+           "n.id, n.encryptedTitle, n.encryptedType, n.encryptedData, n.createdAt, n.updatedAt) from SecureNote n " +
+           "where n.user.id = :userId and (n.updatedAt < :updatedAt or (n.updatedAt = :updatedAt and n.id < :id)) " +
+           "order by n.updatedAt desc, n.id desc")
+    List<NoteResponse> findResponsesAfter(@Param("userId") String userId, @Param("updatedAt") Instant updatedAt,
+                                    @Param("id") Long id, Pageable pageable);
+    
+    @Query("select new by.sakhdanil.managmentserver.dto.note.NoteResponse(" +
+           "n.id, n.encryptedTitle, n.encryptedType, n.encryptedData, n.createdAt, n.updatedAt) from SecureNote n " +
+           "where n.user.id = :userId order by n.updatedAt desc, n.id desc")
+    List<NoteResponse> findResponses(@Param("userId") String userId, Pageable pageable);
+    
+    @Query("select n.id from SecureNote n where n.user = :user")
+    List<Long> findIdsByUser(@Param("user") User user);
+    
+    @Modifying
+    @Query("delete from SecureNote n where n.user = :user")
+    int deleteAllByUser(@Param("user") User user);
 } 
\ No newline at end of file
@@ -0,0 +1,36 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.entity.SingleUseToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SingleUseTokenRepository extends JpaRepository<SingleUseToken, Long> {
+
+    // Все колонки запроса есть в ux_single_use_tokens_hash (INCLUDE), таблица не читается
+    @Query("SELECT t.userId FROM SingleUseToken t " +
+           "WHERE t.tokenHash = :tokenHash AND t.purpose = :purpose AND t.expiresAt > :now")
+    Optional<String> findUserId(@Param("tokenHash") String tokenHash,
+                                @Param("purpose") SingleUseToken.Purpose purpose,
+                                @Param("now") Instant now);
+
+    // Условное удаление: при одновременном использовании токена успешен только один запрос
+    @Modifying
+    @Query("DELETE FROM SingleUseToken t WHERE t.tokenHash = :tokenHash AND t.expiresAt > :now")
+    int consume(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM SingleUseToken t WHERE t.userId = :userId AND t.purpose = :purpose")
+    int revokeAll(@Param("userId") String userId, @Param("purpose") SingleUseToken.Purpose purpose);
+
+    @Query("SELECT t.id FROM SingleUseToken t WHERE t.expiresAt <= :now")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncChangeRepository extends JpaRepository<SyncChange, Long> {
+    List<SyncChange> findByUserIdAndSeqGreaterThanOrderBySeqAsc(String userId, Long seq, Pageable pageable);
+}
@@ -1,9 +1,15 @@
 package by.sakhdanil.managmentserver.repository;
 
 import by.sakhdanil.managmentserver.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,7 +23,26 @@ public interface UserRepository extends JpaRepository<User, String> {
     
     Optional<User> findByUsernameAndEmail(String username, String email);
     
-    Optional<User> findByTransferToken(String transferToken);
-    
     Optional<User> findByLocalUserId(String localUserId);
+    
+    // Счетчик изменений для журнала синхронизации (UPDATE берет блокировку строки пользователя)
+    @Modifying
+    @Query("UPDATE User u SET u.changeSeq = u.changeSeq + :delta WHERE u.id = :userId")
+    int incrementChangeSeq(@Param("userId") String userId, @Param("delta") long delta);
+    
+    @Query("SELECT u.changeSeq FROM User u WHERE u.id = :userId")
+    Long findChangeSeq(@Param("userId") String userId);
+    
+    // Брошенная настройка синхронизации: email указан, но не подтвержден, а хранилище пустое.
+    // Пользователи из /register (без email) сюда не попадают.
+    @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.emailVerified = false AND u.email IS NOT NULL AND u.createdAt < :before " +
+           "AND NOT EXISTS (SELECT n.id FROM SecureNote n WHERE n.user = u) " +
+           "AND NOT EXISTS (SELECT p.id FROM PasswordEntry p WHERE p.user = u)")
+    List<AbandonedUser> findAbandonedUnverified(@Param("before") Instant before, Pageable pageable);
+    
+    // Имя нужно, чтобы после удаления сбросить кэш аутентификации (он хранит пользователей по имени)
+    interface AbandonedUser {
+        String getId();
+        String getUsername();
+    }
 } 
\ No newline at end of file
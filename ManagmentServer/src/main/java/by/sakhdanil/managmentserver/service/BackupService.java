@@ -0,0 +1,322 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.backup.BackupImportMode;
+import by.sakhdanil.managmentserver.dto.backup.BackupImportResponse;
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.PasswordEntryRepository;
+import by.sakhdanil.managmentserver.repository.SecureNoteRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class BackupService {
+
+    // Столько записей импорта держим в памяти до flush/clear
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    private final SecureNoteRepository noteRepository;
+    private final PasswordEntryRepository passwordRepository;
+    private final SecureNoteService noteService;
+    private final PasswordEntryService passwordService;
+    private final SyncChangeLogService changeLogService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Value("${backup.import.max-bytes:104857600}")
+    private long importMaxBytes;
+
+    @Value("${backup.import.max-entries:100000}")
+    private int importMaxEntries;
+
+    /**
+     * Пишет резервную копию в поток по мере чтения из базы. Формат совпадает с обычным экспортом,
+     * но в памяти одновременно находится только текущая запись: после записи она отсоединяется
+     * от контекста персистентности. Поток {@code out} не закрывается.
+     */
+    @Transactional(readOnly = true)
+    public void exportTo(User user, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            generator.writeArrayFieldStart("notes");
+            try (Stream<SecureNote> notes = noteRepository.streamByUser(user)) {
+                Iterator<SecureNote> iterator = notes.iterator();
+                while (iterator.hasNext()) {
+                    SecureNote note = iterator.next();
+                    generator.writeObject(noteService.toResponse(note));
+                    entityManager.detach(note);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("passwords");
+            try (Stream<PasswordEntry> passwords = passwordRepository.streamByUser(user)) {
+                Iterator<PasswordEntry> iterator = passwords.iterator();
+                while (iterator.hasNext()) {
+                    PasswordEntry password = iterator.next();
+                    generator.writeObject(passwordService.toResponse(password));
+                    entityManager.detach(password);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectField("exportedAt", Instant.now());
+            generator.writeStringField("userId", user.getId());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Импортирует резервную копию в формате экспорта, читая ее потоковым парсером.
+     * Записи проверяются по мере чтения и сохраняются пакетами в одной транзакции:
+     * при ошибке формата или превышении лимитов хранилище остается без изменений.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public BackupImportResponse importFrom(User user, InputStream in, BackupImportMode mode) throws IOException {
+        ImportCounters counters = new ImportCounters();
+        if (mode == BackupImportMode.REPLACE) {
+            counters.deleted = deleteAll(user);
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(new LimitedInputStream(in, importMaxBytes))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Backup must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("notes".equals(field) && value == JsonToken.START_ARRAY) {
+                    importNotes(parser, user, mode, counters);
+                } else if ("passwords".equals(field) && value == JsonToken.START_ARRAY) {
+                    importPasswords(parser, user, mode, counters);
+                } else {
+                    parser.skipChildren(); // exportedAt, userId и прочие метаданные
+                }
+            }
+        }
+
+        return new BackupImportResponse(mode, counters.notes, counters.passwords, counters.skipped, counters.deleted);
+    }
+
+    private void importNotes(JsonParser parser, User user, BackupImportMode mode, ImportCounters counters) throws IOException {
+        List<NoteResponse> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            NoteResponse entry = parser.readValueAs(NoteResponse.class);
+            counters.countEntry(importMaxEntries);
+            if (!StringUtils.hasText(entry.encryptedTitle()) || !StringUtils.hasText(entry.encryptedType())
+                    || !StringUtils.hasText(entry.encryptedData())) {
+                counters.skipped++;
+                continue;
+            }
+            batch.add(entry);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                counters.notes += saveNotes(batch, user, mode);
+                batch.clear();
+            }
+        }
+        counters.notes += saveNotes(batch, user, mode);
+    }
+
+    private void importPasswords(JsonParser parser, User user, BackupImportMode mode, ImportCounters counters) throws IOException {
+        List<PasswordResponse> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            PasswordResponse entry = parser.readValueAs(PasswordResponse.class);
+            counters.countEntry(importMaxEntries);
+            if (!StringUtils.hasText(entry.encryptedTitle()) || !StringUtils.hasText(entry.encryptedSite())
+                    || !StringUtils.hasText(entry.encryptedLogin()) || !StringUtils.hasText(entry.encryptedPassword())
+                    || !StringUtils.hasText(entry.encryptedType())) {
+                counters.skipped++;
+                continue;
+            }
+            batch.add(entry);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                counters.passwords += savePasswords(batch, user, mode);
+                batch.clear();
+            }
+        }
+        counters.passwords += savePasswords(batch, user, mode);
+    }
+
+    private int saveNotes(List<NoteResponse> batch, User user, BackupImportMode mode) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // В режиме MERGE запись копии с id, принадлежащим пользователю, обновляет существующую
+        Map<Long, SecureNote> existing = new HashMap<>();
+        if (mode == BackupImportMode.MERGE) {
+            Set<Long> ids = batch.stream().map(NoteResponse::id).filter(id -> id != null).collect(Collectors.toSet());
+            if (!ids.isEmpty()) {
+                noteRepository.findByUserAndIdIn(user, ids).forEach(note -> existing.put(note.getId(), note));
+            }
+        }
+
+        List<SecureNote> notes = new ArrayList<>(batch.size());
+        List<SecureNote> created = new ArrayList<>();
+        for (NoteResponse entry : batch) {
+            SecureNote note = entry.id() != null ? existing.get(entry.id()) : null;
+            if (note == null) {
+                note = new SecureNote();
+                note.setUser(user);
+                note.setCreatedAt(entry.createdAt());
+                note.setUpdatedAt(entry.updatedAt());
+                created.add(note);
+            }
+            note.setEncryptedTitle(entry.encryptedTitle());
+            note.setEncryptedType(entry.encryptedType());
+            note.setEncryptedData(entry.encryptedData());
+            notes.add(note);
+        }
+        noteRepository.saveAll(created);
+        flushAndClear();
+
+        changeLogService.recordAll(user, notes.stream()
+            .map(note -> new SyncChangeLogService.Entry(SyncChange.EntityType.NOTE, note.getId(),
+                existing.containsKey(note.getId()) ? SyncChange.ChangeType.UPDATE : SyncChange.ChangeType.CREATE))
+            .toList());
+        return notes.size();
+    }
+
+    private int savePasswords(List<PasswordResponse> batch, User user, BackupImportMode mode) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, PasswordEntry> existing = new HashMap<>();
+        if (mode == BackupImportMode.MERGE) {
+            Set<Long> ids = batch.stream().map(PasswordResponse::id).filter(id -> id != null).collect(Collectors.toSet());
+            if (!ids.isEmpty()) {
+                passwordRepository.findByUserAndIdIn(user, ids).forEach(password -> existing.put(password.getId(), password));
+            }
+        }
+
+        List<PasswordEntry> passwords = new ArrayList<>(batch.size());
+        List<PasswordEntry> created = new ArrayList<>();
+        for (PasswordResponse entry : batch) {
+            PasswordEntry password = entry.id() != null ? existing.get(entry.id()) : null;
+            if (password == null) {
+                password = new PasswordEntry();
+                password.setUser(user);
+                password.setCreatedAt(entry.createdAt());
+                password.setUpdatedAt(entry.updatedAt());
+                created.add(password);
+            }
+            password.setEncryptedTitle(entry.encryptedTitle());
+            password.setEncryptedSite(entry.encryptedSite());
+            password.setEncryptedLogin(entry.encryptedLogin());
+            password.setEncryptedPassword(entry.encryptedPassword());
+            password.setEncryptedType(entry.encryptedType());
+            passwords.add(password);
+        }
+        passwordRepository.saveAll(created);
+        flushAndClear();
+
+        changeLogService.recordAll(user, passwords.stream()
+            .map(password -> new SyncChangeLogService.Entry(SyncChange.EntityType.PASSWORD, password.getId(),
+                existing.containsKey(password.getId()) ? SyncChange.ChangeType.UPDATE : SyncChange.ChangeType.CREATE))
+            .toList());
+        return passwords.size();
+    }
+
+    private int deleteAll(User user) {
+        List<Long> noteIds = noteRepository.findIdsByUser(user);
+        List<Long> passwordIds = passwordRepository.findIdsByUser(user);
+
+        List<SyncChangeLogService.Entry> changes = new ArrayList<>(noteIds.size() + passwordIds.size());
+        noteIds.forEach(id -> changes.add(
+            new SyncChangeLogService.Entry(SyncChange.EntityType.NOTE, id, SyncChange.ChangeType.DELETE)));
+        passwordIds.forEach(id -> changes.add(
+            new SyncChangeLogService.Entry(SyncChange.EntityType.PASSWORD, id, SyncChange.ChangeType.DELETE)));
+
+        noteRepository.deleteAllByUser(user);
+        passwordRepository.deleteAllByUser(user);
+        changeLogService.recordAll(user, changes);
+        return changes.size();
+    }
+
+    // Пакет уже записан - освобождаем контекст персистентности, чтобы память не росла с размером копии
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static final class ImportCounters {
+        int notes;
+        int passwords;
+        int skipped;
+        int deleted;
+        private int entries;
+
+        void countEntry(int maxEntries) {
+            if (++entries > maxEntries) {
+                throw new IllegalArgumentException("Backup exceeds the limit of " + maxEntries + " entries");
+            }
+        }
+    }
+
+    /**
+     * Ограничивает объем читаемых данных (после распаковки gzip, если она есть)
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long bytesRead;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            bytesRead += n;
+            if (bytesRead > maxBytes) {
+                throw new IllegalArgumentException("Backup exceeds the size limit of " + maxBytes + " bytes");
+            }
+        }
+    }
+}
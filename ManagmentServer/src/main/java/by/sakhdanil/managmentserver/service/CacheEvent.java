@@ -0,0 +1,23 @@
+package by.sakhdanil.managmentserver.service;
+
+/**
+ * Изменение данных, после которого локальные кэши других экземпляров сервера должны
+ * сбросить записи по ключу. Для VAULT ключ - id пользователя, для PRINCIPAL - username.
+ */
+public record CacheEvent(Kind kind, String key) {
+
+    public enum Kind {
+        // Пароли и заметки: версия хранилища и сериализованные списки
+        VAULT,
+        // Учетные данные и статус пользователя: кэш аутентификации
+        PRINCIPAL
+    }
+
+    public static CacheEvent vault(String userId) {
+        return new CacheEvent(Kind.VAULT, userId);
+    }
+
+    public static CacheEvent principal(String username) {
+        return new CacheEvent(Kind.PRINCIPAL, username);
+    }
+}
@@ -0,0 +1,17 @@
+package by.sakhdanil.managmentserver.service;
+
+/**
+ * Локальный кэш, получающий изменения с других экземпляров сервера через ClusterCacheBus
+ */
+public interface CacheEventListener {
+
+    /**
+     * Сбрасывает записи, затронутые изменением на другом экземпляре
+     */
+    void onCacheEvent(CacheEvent event);
+
+    /**
+     * Сбрасывает все записи: события за время разрыва соединения с базой могли быть потеряны
+     */
+    void onResync();
+}
@@ -0,0 +1,356 @@
+package by.sakhdanil.managmentserver.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Рассылка изменений между экземплярами сервера для сброса локальных кэшей
+ * (версии хранилищ, сериализованные списки, кэш аутентификации).
+ * <p>
+ * События публикуются после фиксации транзакции через PostgreSQL NOTIFY и принимаются
+ * по LISTEN на отдельном соединении вне пула. Задача общего планировщика раз в batchWindow
+ * отправляет накопленные исходящие события пачкой без повторов и забирает пришедшие уведомления.
+ * Собственные события узел пропускает: свои кэши он сбрасывает сам при изменении.
+ * <p>
+ * После разрыва соединение восстанавливается с экспоненциальной задержкой. Уведомления
+ * за время разрыва не доставляются, поэтому после переподключения узел сбрасывает свои кэши
+ * целиком, а если потерял собственные исходящие события - просит об этом остальных.
+ * Выключена по умолчанию ({@code cluster.cache-bus.enabled}): одному экземпляру она не нужна.
+ */
+@Service
+@Slf4j
+public class ClusterCacheBus {
+
+    static final String CHANNEL = "cache_events";
+    // NOTIFY принимает не больше 8000 байт; остаток - запас на разметку сообщения
+    static final int MAX_PAYLOAD_BYTES = 7000;
+    private static final String APPLICATION_NAME = "cluster-cache-bus";
+    private static final long HEARTBEAT_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final List<CacheEventListener> listeners;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int batchWindowMillis;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final BlockingQueue<CacheEvent> outgoing;
+    // Исходящие события потеряны: остальным узлам нужно сбросить кэши целиком
+    private final AtomicBoolean lost = new AtomicBoolean();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter reconnects;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private ScheduledFuture<?> cycle;
+    // Состояние соединения меняет только cycle() под монитором шины
+    private Connection connection;
+    private boolean connectedBefore;
+    private Duration backoff;
+    private long reconnectAt;
+    private long lastActivity;
+
+    public ClusterCacheBus(List<CacheEventListener> listeners,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           TaskScheduler taskScheduler,
+                           @Value("${cluster.cache-bus.enabled:false}") boolean enabled,
+                           @Value("${spring.datasource.url:}") String url,
+                           @Value("${spring.datasource.username:}") String username,
+                           @Value("${spring.datasource.password:}") String password,
+                           @Value("${cluster.cache-bus.batch-window:50ms}") Duration batchWindow,
+                           @Value("${cluster.cache-bus.max-pending:10000}") int maxPending,
+                           @Value("${cluster.cache-bus.initial-backoff:1s}") Duration initialBackoff,
+                           @Value("${cluster.cache-bus.max-backoff:30s}") Duration maxBackoff) {
+        this.listeners = listeners;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.enabled = enabled;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.batchWindowMillis = (int) Math.max(1, batchWindow.toMillis());
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.outgoing = new LinkedBlockingQueue<>(maxPending);
+
+        this.sent = eventCounter(meterRegistry, "sent");
+        this.received = eventCounter(meterRegistry, "received");
+        this.reconnects = Counter.builder("cluster.cache.bus.reconnects")
+            .description("Переподключения к базе со сбросом локальных кэшей")
+            .register(meterRegistry);
+        Gauge.builder("cluster.cache.bus.pending", outgoing, BlockingQueue::size)
+            .description("События, ожидающие отправки другим экземплярам")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        backoff = initialBackoff;
+        reconnectAt = System.nanoTime();
+        cycle = taskScheduler.scheduleWithFixedDelay(this::cycle, Duration.ofMillis(batchWindowMillis));
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (cycle != null) {
+            cycle.cancel(false);
+            // Ждет завершения идущего цикла: после него соединение никто не откроет
+            synchronized (this) {
+                closeConnection();
+            }
+        }
+    }
+
+    /**
+     * Отправляет событие остальным экземплярам после фиксации текущей транзакции:
+     * до нее они прочитали бы из базы прежние данные и снова закэшировали их
+     */
+    public void publishAfterCommit(CacheEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    /**
+     * Соединение установлено и LISTEN выполнен: события других узлов доходят до локальных кэшей
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void enqueue(CacheEvent event) {
+        if (!outgoing.offer(event)) {
+            // База долго недоступна: отдельные события заменяются полным сбросом на остальных узлах
+            outgoing.clear();
+            lost.set(true);
+        }
+    }
+
+    private synchronized void cycle() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (connection == null) {
+                if (System.nanoTime() - reconnectAt < 0) {
+                    return;
+                }
+                connection = connect();
+                listening = true;
+                backoff = initialBackoff;
+                lastActivity = System.nanoTime();
+                if (connectedBefore) {
+                    reconnects.increment();
+                    log.info("🔄 Cluster cache bus reconnected, resetting local caches");
+                    resync();
+                }
+                connectedBefore = true;
+            }
+            if (flush()) {
+                lastActivity = System.nanoTime();
+            }
+            // Без ожидания: читает только уведомления, уже пришедшие в сокет
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications();
+            if (notifications != null) {
+                receive(notifications);
+            }
+            // Ожидание уведомлений не пишет в сокет; полуоткрытое соединение выявит только запрос
+            if (System.nanoTime() - lastActivity > HEARTBEAT_NANOS) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastActivity = System.nanoTime();
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("⚠️ Cluster cache bus connection failed: {}", e.getMessage());
+            closeConnection();
+            reconnectAt = System.nanoTime() + backoff.toNanos();
+            backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("ApplicationName", APPLICATION_NAME);
+        properties.setProperty("tcpKeepAlive", "true");
+        Connection opened = DriverManager.getConnection(url, properties);
+        try (Statement statement = opened.createStatement()) {
+            opened.setAutoCommit(true);
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        return opened;
+    }
+
+    /**
+     * @return были ли отправлены уведомления
+     */
+    private boolean flush() throws SQLException {
+        boolean resync = lost.getAndSet(false);
+        List<CacheEvent> batch = new ArrayList<>();
+        outgoing.drainTo(batch);
+        if (!resync && batch.isEmpty()) {
+            return false;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : encode(objectMapper, nodeId, resync, new LinkedHashSet<>(batch))) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            lost.set(true);
+            throw e;
+        }
+        sent.increment(batch.size());
+        return true;
+    }
+
+    private void receive(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            Message message;
+            try {
+                message = objectMapper.readValue(notification.getParameter(), Message.class);
+            } catch (JsonProcessingException e) {
+                log.warn("⚠️ Ignoring malformed cache event: {}", e.getOriginalMessage());
+                continue;
+            }
+            if (nodeId.equals(message.node())) {
+                continue;
+            }
+            if (message.resync()) {
+                resync();
+            }
+            for (CacheEvent event : message.events()) {
+                for (CacheEventListener listener : listeners) {
+                    try {
+                        listener.onCacheEvent(event);
+                    } catch (RuntimeException e) {
+                        log.error("❌ Cache listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+            }
+            received.increment(message.events().size());
+        }
+    }
+
+    private void resync() {
+        for (CacheEventListener listener : listeners) {
+            try {
+                listener.onResync();
+            } catch (RuntimeException e) {
+                log.error("❌ Cache listener {} failed to resync: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void closeConnection() {
+        listening = false;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Cluster cache bus connection close failed: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Делит события на сообщения, каждое из которых укладывается в лимит NOTIFY
+     */
+    static List<String> encode(ObjectMapper objectMapper, String node, boolean resync, Collection<CacheEvent> events) {
+        List<String> payloads = new ArrayList<>();
+        List<CacheEvent> chunk = new ArrayList<>();
+        int chunkBytes = 0;
+        for (CacheEvent event : events) {
+            // Оценка сверху: экранирование в JSON не больше чем удваивает ключ
+            int eventBytes = 2 * event.key().getBytes(StandardCharsets.UTF_8).length + 32;
+            if (!chunk.isEmpty() && chunkBytes + eventBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(write(objectMapper, new Message(node, resync, chunk)));
+                resync = false;
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(event);
+            chunkBytes += eventBytes;
+        }
+        if (!chunk.isEmpty() || resync) {
+            payloads.add(write(objectMapper, new Message(node, resync, chunk)));
+        }
+        return payloads;
+    }
+
+    private static String write(ObjectMapper objectMapper, Message message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cache events", e);
+        }
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("cluster.cache.bus.events")
+            .description("События сброса кэшей между экземплярами сервера")
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+
+    record Message(String node, boolean resync, List<CacheEvent> events) {}
+}
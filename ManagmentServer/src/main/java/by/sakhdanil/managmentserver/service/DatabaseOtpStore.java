@@ -0,0 +1,92 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.OtpChallenge;
+import by.sakhdanil.managmentserver.repository.OtpChallengeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * OTP коды в отдельной таблице otp_challenges для нескольких экземпляров сервера.
+ * Строки users при выдаче и проверке кода не меняются.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+@EnableConfigurationProperties(OtpProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseOtpStore implements OtpStore {
+
+    private final OtpChallengeRepository challengeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OtpProperties properties;
+    private final TaskScheduler taskScheduler;
+    private ScheduledFuture<?> purge;
+
+    @PostConstruct
+    void start() {
+        purge = taskScheduler.scheduleWithFixedDelay(this::purgeExpired,
+            Instant.now().plus(properties.getPurgeInterval()), properties.getPurgeInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        purge.cancel(false);
+    }
+
+    @Override
+    @Transactional
+    public void put(String username, String type, String code) {
+        challengeRepository.save(new OtpChallenge(
+            key(username, type), hex(OtpStore.digest(code)), 0, Instant.now().plus(properties.getTtl())));
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String username, String type, String code) {
+        String key = key(username, type);
+        OtpChallenge challenge = challengeRepository.findById(key).orElse(null);
+        if (challenge == null) {
+            return false;
+        }
+        Instant now = Instant.now();
+        byte[] codeHash = OtpStore.digest(code);
+        if (MessageDigest.isEqual(HexFormat.of().parseHex(challenge.getCodeHash()), codeHash)) {
+            return challengeRepository.consume(key, challenge.getCodeHash(), now) == 1;
+        }
+        challengeRepository.recordFailure(key);
+        challengeRepository.deleteIfExhausted(key, properties.getMaxAttempts(), now);
+        return false;
+    }
+
+    private void purgeExpired() {
+        try {
+            Integer purged = transactionTemplate.execute(status -> challengeRepository.deleteExpired(Instant.now()));
+            if (purged != null && purged > 0) {
+                log.debug("🧹 Purged {} expired OTP codes", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ OTP purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static String key(String username, String type) {
+        return type + ":" + username;
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,264 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.OutboxEmail;
+import by.sakhdanil.managmentserver.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отправка писем из очереди email_outbox вне потока запроса.
+ * <p>
+ * Письма, поставленные в очередь, отправляются сразу после фиксации транзакции задачей в
+ * applicationTaskExecutor Spring (при spring.threads.virtual.enabled=true - виртуальные потоки).
+ * Периодический опрос в общем планировщике подбирает повторы и письма, чья отправка не состоялась.
+ * <p>
+ * Письма берутся пакетами (SELECT ... FOR UPDATE SKIP LOCKED) и отправляются одним вызовом
+ * JavaMailSender.send(...), то есть через одно SMTP-соединение на пакет. Неудачные попытки
+ * повторяются с экспоненциальной задержкой, после maxAttempts письмо помечается FAILED.
+ */
+@Service
+@Slf4j
+public class EmailOutboxWorker {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEmailRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final TaskScheduler taskScheduler;
+    private final String fromEmail;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+    private final Timer deliveryLatency;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter collapsed;
+    private ScheduledFuture<?> polling;
+    private volatile Instant lastPurge = Instant.EPOCH;
+
+    public EmailOutboxWorker(OutboxEmailRepository outboxRepository,
+                             JavaMailSender mailSender,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+                             TaskScheduler taskScheduler,
+                             @Value("${app.mail.from:noreply@passwordmanager.com}") String fromEmail,
+                             @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                             @Value("${app.mail.outbox.poll-interval:1s}") Duration pollInterval,
+                             @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+                             @Value("${app.mail.outbox.initial-backoff:5s}") Duration initialBackoff,
+                             @Value("${app.mail.outbox.max-backoff:5m}") Duration maxBackoff,
+                             @Value("${app.mail.outbox.retention:24h}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+            .description("Письма в очереди на отправку")
+            .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("email.delivery.latency")
+            .description("Время от постановки письма в очередь до успешной отправки")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.sent = deliveryCounter(meterRegistry, "sent");
+        this.retried = deliveryCounter(meterRegistry, "retry");
+        this.failed = deliveryCounter(meterRegistry, "failed");
+        this.collapsed = Counter.builder("email.outbox.collapsed")
+            .description("Повторные письма, объединенные с уже ожидающим в очереди")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        polling = taskScheduler.scheduleWithFixedDelay(this::poll, Instant.now().plus(pollInterval), pollInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        polling.cancel(false);
+    }
+
+    /**
+     * Запускает отправку сразу после фиксации транзакции, в которой письмо попало в очередь
+     */
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    public void recordCollapsed() {
+        collapsed.increment();
+    }
+
+    void poll() {
+        try {
+            int delivered;
+            do {
+                delivered = deliverDue();
+            } while (delivered == batchSize);
+
+            pending.set(outboxRepository.countByStatus(OutboxEmail.Status.PENDING));
+            purgeFinished();
+        } catch (RuntimeException e) {
+            // Ошибка БД не должна останавливать периодическую задачу
+            log.error("❌ Email outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Отправляет один пакет писем, срок которых наступил
+     *
+     * @return число взятых писем
+     */
+    int deliverDue() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OutboxEmail> due = outboxRepository.lockDue(Instant.now(), PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                deliver(due);
+            }
+            return due.size();
+        });
+        return delivered == null ? 0 : delivered;
+    }
+
+    private void deliver(List<OutboxEmail> due) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[due.size()];
+        for (int i = 0; i < messages.length; i++) {
+            OutboxEmail email = due.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages[i] = message;
+        }
+
+        Map<Object, Exception> failedMessages = Map.of();
+        MailException batchError = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failedMessages = e.getFailedMessages();
+            batchError = failedMessages.isEmpty() ? e : null;
+        } catch (MailException e) {
+            // Например, ошибка аутентификации: не ушло ни одно письмо
+            batchError = e;
+        }
+
+        Instant now = Instant.now();
+        for (int i = 0; i < messages.length; i++) {
+            OutboxEmail email = due.get(i);
+            Exception error = batchError != null ? batchError : failedMessages.get(messages[i]);
+            if (error == null) {
+                email.setStatus(OutboxEmail.Status.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sent.increment();
+                deliveryLatency.record(Duration.between(email.getCreatedAt(), now));
+            } else {
+                scheduleRetry(email, error, now);
+            }
+        }
+        log.info("📧 Email outbox batch delivered: {} messages, {} failed",
+            messages.length, batchError != null ? messages.length : failedMessages.size());
+    }
+
+    private void scheduleRetry(OutboxEmail email, Exception error, Instant now) {
+        email.setAttempts(email.getAttempts() + 1);
+        String message = String.valueOf(error.getMessage());
+        email.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboxEmail.Status.FAILED);
+            failed.increment();
+            log.error("❌ Email to {} failed after {} attempts: {}", email.getRecipient(), email.getAttempts(), message);
+            return;
+        }
+        // 5s, 10s, 20s, ... но не больше maxBackoff
+        long factor = 1L << Math.min(20, email.getAttempts() - 1);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        email.setNextAttemptAt(now.plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff));
+        retried.increment();
+    }
+
+    private void purgeFinished() {
+        Instant now = Instant.now();
+        if (Duration.between(lastPurge, now).compareTo(PURGE_INTERVAL) < 0) {
+            return;
+        }
+        lastPurge = now;
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteFinishedBefore(now.minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("🧹 Purged {} finished outbox emails", purged);
+        }
+    }
+
+    private void wakeUp() {
+        if (wakeUpScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                wakeUpScheduled.set(false);
+                poll();
+            });
+        }
+    }
+
+    private static Counter deliveryCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("email.delivery")
+            .description("Попытки отправки писем из очереди")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -1,24 +1,22 @@
 package by.sakhdanil.managmentserver.service;
 
+import by.sakhdanil.managmentserver.entity.OutboxEmail;
+import by.sakhdanil.managmentserver.repository.OutboxEmailRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.util.concurrent.CompletableFuture;
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     
-    private final JavaMailSender mailSender;
-    
-    @Value("${app.mail.from:noreply@passwordmanager.com}")
-    private String fromEmail;
+    private final OutboxEmailRepository outboxRepository;
+    private final EmailOutboxWorker emailOutboxWorker;
     
     @Value("${app.name:Password Manager}")
     private String appName;
@@ -34,91 +32,64 @@ public class EmailService {
     }
     
     /**
-     * Отправляет OTP код для подтверждения email
+     * Ставит в очередь OTP код для подтверждения email
+     */
+    public void sendEmailVerificationOtp(String email, String username, String otpCode) {
+        enqueue("EMAIL_VERIFICATION", email, username,
+            appName + " - Email Verification", buildEmailVerificationMessage(username, otpCode));
+    }
+    
+    /**
+     * Ставит в очередь OTP код для настройки синхронизации
      */
-    public CompletableFuture<Boolean> sendEmailVerificationOtp(String email, String username, String otpCode) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(email);
-                message.setSubject(appName + " - Email Verification");
-                message.setText(buildEmailVerificationMessage(username, otpCode));
-                
-                mailSender.send(message);
-                log.info("✅ Email verification OTP sent to: {}", email);
-                return true;
-            } catch (Exception e) {
-                log.error("❌ Failed to send email verification OTP to {}: {}", email, e.getMessage());
-                return false;
-            }
-        });
+    public void sendSyncSetupOtp(String email, String username, String otpCode) {
+        enqueue("SYNC_SETUP", email, username,
+            appName + " - Sync Setup Verification", buildSyncSetupMessage(username, otpCode));
     }
     
     /**
-     * Отправляет OTP код для настройки синхронизации
+     * Ставит в очередь OTP код для восстановления аккаунта
      */
-    public CompletableFuture<Boolean> sendSyncSetupOtp(String email, String username, String otpCode) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(email);
-                message.setSubject(appName + " - Sync Setup Verification");
-                message.setText(buildSyncSetupMessage(username, otpCode));
-                
-                mailSender.send(message);
-                log.info("✅ Sync setup OTP sent to: {}", email);
-                return true;
-            } catch (Exception e) {
-                log.error("❌ Failed to send sync setup OTP to {}: {}", email, e.getMessage());
-                return false;
-            }
-        });
+    public void sendAccountRecoveryOtp(String email, String username, String otpCode) {
+        enqueue("ACCOUNT_RECOVERY", email, username,
+            appName + " - Account Recovery", buildAccountRecoveryMessage(username, otpCode));
     }
     
     /**
-     * Отправляет OTP код для восстановления аккаунта
+     * Ставит в очередь OTP код для облачного входа
      */
-    public CompletableFuture<Boolean> sendAccountRecoveryOtp(String email, String username, String otpCode) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(email);
-                message.setSubject(appName + " - Account Recovery");
-                message.setText(buildAccountRecoveryMessage(username, otpCode));
-                
-                mailSender.send(message);
-                log.info("✅ Account recovery OTP sent to: {}", email);
-                return true;
-            } catch (Exception e) {
-                log.error("❌ Failed to send account recovery OTP to {}: {}", email, e.getMessage());
-                return false;
-            }
-        });
+    public void sendCloudLoginOtp(String email, String username, String otpCode) {
+        enqueue("CLOUD_LOGIN", email, username,
+            appName + " - Cloud Login Verification", buildCloudLoginMessage(username, otpCode));
     }
     
     /**
-     * Отправляет OTP код для облачного входа
+     * Сохраняет письмо в email_outbox; отправляет его EmailOutboxWorker.
+     * Если письмо того же вида этому пользователю еще не ушло, заменяется его текст,
+     * так что пользователь получает одно письмо с последним кодом.
+     * Новое письмо не откладывается: вызывающий уже сохранил новый код, и код из прошлого письма
+     * недействителен. Частоту писем ограничивают лимиты email-ip/email-user в RateLimitFilter.
      */
-    public CompletableFuture<Boolean> sendCloudLoginOtp(String email, String username, String otpCode) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(email);
-                message.setSubject(appName + " - Cloud Login Verification");
-                message.setText(buildCloudLoginMessage(username, otpCode));
-                
-                mailSender.send(message);
-                log.info("✅ Cloud login OTP sent to: {}", email);
-                return true;
-            } catch (Exception e) {
-                log.error("❌ Failed to send cloud login OTP to {}: {}", email, e.getMessage());
-                return false;
-            }
-        });
+    private void enqueue(String kind, String email, String username, String subject, String body) {
+        String dedupKey = kind + ":" + username;
+        
+        OutboxEmail message = outboxRepository.findFirstByDedupKeyAndStatus(dedupKey, OutboxEmail.Status.PENDING)
+            .orElse(null);
+        if (message != null) {
+            emailOutboxWorker.recordCollapsed();
+        } else {
+            message = new OutboxEmail();
+            message.setDedupKey(dedupKey);
+            message.setStatus(OutboxEmail.Status.PENDING);
+            message.setNextAttemptAt(Instant.now());
+        }
+        message.setRecipient(email);
+        message.setSubject(subject);
+        message.setBody(body);
+        outboxRepository.save(message);
+        
+        emailOutboxWorker.wakeUpAfterCommit();
+        log.info("📨 {} email queued for: {}", kind, email);
     }
     
     private String buildEmailVerificationMessage(String username, String otpCode) {
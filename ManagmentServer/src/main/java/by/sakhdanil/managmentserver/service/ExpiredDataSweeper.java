@@ -0,0 +1,117 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.repository.SingleUseTokenRepository;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import by.sakhdanil.managmentserver.repository.UserRepository.AbandonedUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Фоновое удаление истекших одноразовых токенов и брошенных неподтвержденных аккаунтов.
+ * <p>
+ * Удаление идет пакетами по batchSize строк, каждый пакет в своей транзакции,
+ * чтобы не держать долгих блокировок и не раздувать одну транзакцию.
+ * Удаленные пользователи убираются из кэша аутентификации здесь и, после фиксации, на остальных экземплярах.
+ */
+@Component
+@Slf4j
+public class ExpiredDataSweeper {
+
+    private final SingleUseTokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final ClusterCacheBus cacheBus;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration unverifiedUserRetention;
+    private ScheduledFuture<?> sweep;
+
+    public ExpiredDataSweeper(SingleUseTokenRepository tokenRepository,
+                              UserRepository userRepository,
+                              PrincipalCache principalCache,
+                              ClusterCacheBus cacheBus,
+                              TransactionTemplate transactionTemplate,
+                              TaskScheduler taskScheduler,
+                              @Value("${sweeper.interval:1m}") Duration interval,
+                              @Value("${sweeper.batch-size:500}") int batchSize,
+                              @Value("${sweeper.unverified-user-retention:7d}") Duration unverifiedUserRetention) {
+        this.tokenRepository = tokenRepository;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.cacheBus = cacheBus;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.unverifiedUserRetention = unverifiedUserRetention;
+    }
+
+    @PostConstruct
+    void start() {
+        sweep = taskScheduler.scheduleWithFixedDelay(this::sweep, Instant.now().plus(interval), interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweep.cancel(false);
+    }
+
+    void sweep() {
+        try {
+            Instant now = Instant.now();
+            int tokens = deleteInBatches(
+                page -> tokenRepository.findExpiredIds(now, page),
+                tokenRepository::deleteAllByIdInBatch);
+            // Заметки, пароли, журнал синхронизации и токены удаляются каскадом в БД
+            int users = deleteInBatches(
+                page -> userRepository.findAbandonedUnverified(now.minus(unverifiedUserRetention), page),
+                this::deleteUsers);
+            if (tokens > 0 || users > 0) {
+                log.info("🧹 Swept {} expired tokens and {} abandoned unverified users", tokens, users);
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Expired data sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void deleteUsers(List<AbandonedUser> users) {
+        userRepository.deleteAllByIdInBatch(users.stream().map(AbandonedUser::getId).toList());
+        for (AbandonedUser user : users) {
+            principalCache.invalidate(user.getUsername());
+            cacheBus.publishAfterCommit(CacheEvent.principal(user.getUsername()));
+        }
+    }
+
+    private <T> int deleteInBatches(Function<PageRequest, List<T>> find,
+                                    Consumer<List<T>> delete) {
+        int total = 0;
+        int deleted;
+        do {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<T> rows = find.apply(PageRequest.of(0, batchSize));
+                if (!rows.isEmpty()) {
+                    delete.accept(rows);
+                }
+                return rows.size();
+            });
+            deleted = batch == null ? 0 : batch;
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
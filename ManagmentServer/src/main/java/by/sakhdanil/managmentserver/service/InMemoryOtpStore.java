@@ -0,0 +1,132 @@
+package by.sakhdanil.managmentserver.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OTP коды в памяти процесса; выдача и проверка кода не пишут в БД.
+ * <p>
+ * Просроченные коды удаляет колесо таймеров (hashed wheel): код попадает в ячейку своего
+ * тика истечения, задача общего планировщика раз в тик обходит только одну ячейку. Проверка сама сравнивает
+ * срок, так что колесо влияет лишь на то, как быстро освобождается память.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@EnableConfigurationProperties(OtpProperties.class)
+public class InMemoryOtpStore implements OtpStore {
+
+    private final OtpProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Timeout>[] wheel;
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private long currentTick;
+    private ScheduledFuture<?> expiry;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(OtpProperties properties, TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.tickNanos = properties.getWheelTick().toNanos();
+        this.wheel = new Queue[properties.getWheelSize()];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        expiry = taskScheduler.scheduleAtFixedRate(this::advance,
+            Instant.now().plus(properties.getWheelTick()), properties.getWheelTick());
+    }
+
+    @PreDestroy
+    void stop() {
+        expiry.cancel(false);
+    }
+
+    @Override
+    public void put(String username, String type, String code) {
+        String key = key(username, type);
+        Entry entry = new Entry(OtpStore.digest(code), System.nanoTime() + properties.getTtl().toNanos());
+        entries.put(key, entry);
+
+        long deadlineTick = (entry.expiresAt - startNanos) / tickNanos + 1;
+        wheel[(int) (deadlineTick % wheel.length)].add(new Timeout(key, entry, deadlineTick));
+    }
+
+    @Override
+    public boolean verify(String username, String type, String code) {
+        String key = key(username, type);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return false;
+        }
+        if (MessageDigest.isEqual(entry.codeHash, OtpStore.digest(code))) {
+            // При одновременной проверке одного кода успешна только одна
+            return entries.remove(key, entry);
+        }
+        if (entry.failures.incrementAndGet() >= properties.getMaxAttempts()) {
+            entries.remove(key, entry);
+        }
+        return false;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Обрабатывает все тики до текущего момента: если поток задержался, ячейки не пропускаются
+     */
+    void advance() {
+        long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+        for (; currentTick <= targetTick; currentTick++) {
+            Iterator<Timeout> timeouts = wheel[(int) (currentTick % wheel.length)].iterator();
+            while (timeouts.hasNext()) {
+                Timeout timeout = timeouts.next();
+                // Срок дальше одного оборота колеса: ячейка дойдет до него на следующих оборотах
+                if (timeout.deadlineTick <= currentTick) {
+                    entries.remove(timeout.key, timeout.entry);
+                    timeouts.remove();
+                }
+            }
+        }
+    }
+
+    private static String key(String username, String type) {
+        return type + ":" + username;
+    }
+
+    private static final class Entry {
+        private final byte[] codeHash;
+        private final long expiresAt;
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private Entry(byte[] codeHash, long expiresAt) {
+            this.codeHash = codeHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record Timeout(String key, Entry entry, long deadlineTick) {}
+}
@@ -1,6 +1,7 @@
 package by.sakhdanil.managmentserver.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,7 +11,12 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
 
 @Service
@@ -22,13 +28,60 @@ public class JwtService {
     @Value("${jwt.expiration:3600000}") // 1 час в миллисекундах
     private Long jwtExpiration;
 
+    // Сколько недавно проверенных токенов помнить; 0 - проверять подпись на каждом запросе
+    @Value("${jwt.verified-cache-size:1024}")
+    private int verifiedCacheSize;
+
+    // Ключ и парсер строятся один раз при первом обращении, а не на каждый вызов
+    private volatile SecretKey signKey;
+    private volatile JwtParser parser;
+
+    // Ключ - SHA-256 от токена: сами токены в памяти не храним
+    private final Map<String, Claims> verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+            return size() > verifiedCacheSize;
+        }
+    };
+
+    /**
+     * Проверяет подпись и срок действия токена за один разбор и возвращает его claims.
+     * Недавно проверенные токены берутся из кэша, пока не истечет их собственный срок действия.
+     */
+    public Claims verify(String token) {
+        if (verifiedCacheSize <= 0) {
+            return getParser().parseSignedClaims(token).getPayload();
+        }
+
+        String digest = digest(token);
+        synchronized (verifiedTokens) {
+            Claims cached = verifiedTokens.get(digest);
+            if (cached != null && cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.remove(digest);
+        }
+
+        // Истекший или поддельный токен выбросит исключение парсера и в кэш не попадет
+        Claims claims = getParser().parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(digest, claims);
+            }
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -40,21 +93,41 @@ public class JwtService {
             .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSignKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token));
+    }
+
+    private JwtParser getParser() {
+        JwtParser result = parser;
+        if (result == null) {
+            result = Jwts.parser()
+                .verifyWith(getSignKey())
+                .build();
+            parser = result;
+        }
+        return result;
     }
 
     private SecretKey getSignKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey result = signKey;
+        if (result == null) {
+            byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
+            result = Keys.hmacShaKeyFor(keyBytes);
+            signKey = result;
+        }
+        return result;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
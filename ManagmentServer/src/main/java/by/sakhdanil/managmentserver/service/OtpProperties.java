@@ -0,0 +1,29 @@
+package by.sakhdanil.managmentserver.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки одноразовых кодов (секция {@code otp})
+ */
+@Data
+@ConfigurationProperties(prefix = "otp")
+public class OtpProperties {
+
+    /** memory | database */
+    private String store = "memory";
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /** Неверных попыток до аннулирования кода */
+    private int maxAttempts = 5;
+
+    /** Колесо таймеров хранилища в памяти: шаг и число ячеек (один оборот = tick * wheelSize) */
+    private Duration wheelTick = Duration.ofSeconds(1);
+    private int wheelSize = 512;
+
+    /** Как часто хранилище в БД удаляет просроченные коды */
+    private Duration purgeInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,37 @@
+package by.sakhdanil.managmentserver.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Хранилище одноразовых кодов подтверждения (OTP).
+ * <p>
+ * Код привязан к пользователю и виду операции ("SYNC_SETUP", "ACCOUNT_RECOVERY", "CLOUD_LOGIN", ...).
+ * Реализация выбирается свойством {@code otp.store}: {@code memory} для одного экземпляра сервера,
+ * {@code database} - если экземпляров несколько и код может проверяться не там, где выдан.
+ */
+public interface OtpStore {
+
+    /**
+     * Сохраняет новый код, заменяя предыдущий код того же вида, и сбрасывает счетчик попыток
+     */
+    void put(String username, String type, String code);
+
+    /**
+     * Проверяет код и при совпадении удаляет его (код одноразовый).
+     * Неверные попытки учитываются; после {@code otp.max-attempts} код аннулируется.
+     */
+    boolean verify(String username, String type, String code);
+
+    /**
+     * Хранилища держат только SHA-256 кода и сравнивают его через MessageDigest.isEqual
+     */
+    static byte[] digest(String code) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
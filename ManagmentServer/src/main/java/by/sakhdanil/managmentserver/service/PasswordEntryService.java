@@ -1,15 +1,31 @@
 package by.sakhdanil.managmentserver.service;
 
+import by.sakhdanil.managmentserver.dto.batch.BatchItemResult;
+import by.sakhdanil.managmentserver.dto.batch.BatchItemStatus;
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import by.sakhdanil.managmentserver.dto.batch.BatchResponse;
+import by.sakhdanil.managmentserver.dto.listing.EntrySummary;
+import by.sakhdanil.managmentserver.dto.listing.ListingCursor;
+import by.sakhdanil.managmentserver.dto.listing.ListingPage;
+import by.sakhdanil.managmentserver.dto.password.PasswordBatchOperation;
 import by.sakhdanil.managmentserver.dto.password.PasswordRequest;
 import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
 import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.SyncChange;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.repository.PasswordEntryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +33,7 @@ import java.util.List;
 public class PasswordEntryService {
     
     private final PasswordEntryRepository passwordRepository;
+    private final SyncChangeLogService changeLogService;
     
     public List<PasswordResponse> getAllPasswords(User user) {
         return passwordRepository.findByUser(user)
@@ -25,16 +42,53 @@ public class PasswordEntryService {
             .toList();
     }
     
+    public PasswordResponse getPassword(Long id, User user) {
+        return passwordRepository.findByIdAndUser(id, user)
+            .map(this::toResponse)
+            .orElseThrow(() -> new RuntimeException("Password not found"));
+    }
+    
+    /**
+     * Страница списка по (updatedAt DESC, id DESC) с полным содержимым записей
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<PasswordResponse> getPasswordPage(User user, String cursor, int limit) {
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<PasswordResponse> rows;
+        if (cursor == null) {
+            rows = passwordRepository.findResponses(user.getId(), page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = passwordRepository.findResponsesAfter(user.getId(), after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.updatedAt(), row.id()));
+    }
+    
+    /**
+     * Страница списка только с названием и типом: зашифрованное содержимое не читается из базы
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<EntrySummary> getPasswordSummaries(User user, String cursor, int limit) {
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<EntrySummary> rows;
+        if (cursor == null) {
+            rows = passwordRepository.findSummaries(user.getId(), page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = passwordRepository.findSummariesAfter(user.getId(), after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.updatedAt(), row.id()));
+    }
+    
     public PasswordResponse createPassword(PasswordRequest request, User user) {
         PasswordEntry password = new PasswordEntry();
         password.setUser(user);
-        password.setEncryptedTitle(request.encryptedTitle());
-        password.setEncryptedSite(request.encryptedSite());
-        password.setEncryptedLogin(request.encryptedLogin());
-        password.setEncryptedPassword(request.encryptedPassword());
-        password.setEncryptedType(request.encryptedType());
+        applyRequest(password, request);
         
         PasswordEntry savedPassword = passwordRepository.save(password);
+        changeLogService.record(user, SyncChange.EntityType.PASSWORD, savedPassword.getId(), SyncChange.ChangeType.CREATE);
         return toResponse(savedPassword);
     }
     
@@ -42,12 +96,9 @@ public class PasswordEntryService {
         PasswordEntry password = passwordRepository.findByIdAndUser(id, user)
             .orElseThrow(() -> new RuntimeException("Password not found"));
         
-        password.setEncryptedTitle(request.encryptedTitle());
-        password.setEncryptedSite(request.encryptedSite());
-        password.setEncryptedLogin(request.encryptedLogin());
-        password.setEncryptedPassword(request.encryptedPassword());
-        password.setEncryptedType(request.encryptedType());
+        applyRequest(password, request);
         PasswordEntry savedPassword = passwordRepository.save(password);
+        changeLogService.record(user, SyncChange.EntityType.PASSWORD, savedPassword.getId(), SyncChange.ChangeType.UPDATE);
         return toResponse(savedPassword);
     }
     
@@ -56,9 +107,112 @@ public class PasswordEntryService {
             throw new RuntimeException("Password not found");
         }
         passwordRepository.deleteByIdAndUser(id, user);
+        changeLogService.record(user, SyncChange.EntityType.PASSWORD, id, SyncChange.ChangeType.DELETE);
+    }
+    
+    public List<PasswordResponse> getPasswordsByIds(Collection<Long> ids, User user) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return passwordRepository.findByUserAndIdIn(user, ids)
+            .stream()
+            .map(this::toResponse)
+            .toList();
+    }
+    
+    /**
+     * Применяет пакет операций в одной транзакции: целевые записи читаются одним запросом,
+     * INSERT/UPDATE/DELETE уходят JDBC-пакетами. Ошибка отдельной операции не откатывает пакет,
+     * а возвращается в ее статусе.
+     */
+    public BatchResponse applyBatch(List<PasswordBatchOperation> operations, User user) {
+        Set<Long> targetIds = operations.stream()
+            .filter(operation -> operation.op() != BatchOperationType.CREATE && operation.id() != null)
+            .map(PasswordBatchOperation::id)
+            .collect(Collectors.toSet());
+        Map<Long, PasswordEntry> existing = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            passwordRepository.findByUserAndIdIn(user, targetIds).forEach(entry -> existing.put(entry.getId(), entry));
+        }
+        
+        List<PasswordEntry> toCreate = new ArrayList<>();
+        List<PasswordEntry> toDelete = new ArrayList<>();
+        // Для CREATE id известен только после saveAll, поэтому запоминаем сущность по позиции операции
+        PasswordEntry[] targets = new PasswordEntry[operations.size()];
+        BatchItemStatus[] statuses = new BatchItemStatus[operations.size()];
+        
+        for (int i = 0; i < operations.size(); i++) {
+            PasswordBatchOperation operation = operations.get(i);
+            switch (operation.op()) {
+                case CREATE -> {
+                    if (operation.data() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    PasswordEntry password = new PasswordEntry();
+                    password.setUser(user);
+                    applyRequest(password, operation.data());
+                    toCreate.add(password);
+                    targets[i] = password;
+                }
+                case UPDATE -> {
+                    if (operation.id() == null || operation.data() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    PasswordEntry password = existing.get(operation.id());
+                    if (password == null) {
+                        statuses[i] = BatchItemStatus.NOT_FOUND;
+                        continue;
+                    }
+                    applyRequest(password, operation.data());
+                    targets[i] = password;
+                }
+                case DELETE -> {
+                    if (operation.id() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    PasswordEntry password = existing.remove(operation.id());
+                    if (password == null) {
+                        statuses[i] = BatchItemStatus.NOT_FOUND;
+                        continue;
+                    }
+                    toDelete.add(password);
+                    targets[i] = password;
+                }
+            }
+            statuses[i] = BatchItemStatus.OK;
+        }
+        
+        // Обновленные записи уже в контексте персистентности и сбрасываются при flush
+        passwordRepository.saveAll(toCreate);
+        passwordRepository.deleteAll(toDelete);
+        
+        List<BatchItemResult> results = new ArrayList<>(operations.size());
+        List<SyncChangeLogService.Entry> changes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            PasswordBatchOperation operation = operations.get(i);
+            Long id = targets[i] != null ? targets[i].getId() : operation.id();
+            results.add(new BatchItemResult(operation.clientRef(), operation.op(), id, statuses[i]));
+            if (statuses[i] == BatchItemStatus.OK) {
+                changes.add(new SyncChangeLogService.Entry(
+                    SyncChange.EntityType.PASSWORD, id, SyncChange.ChangeType.valueOf(operation.op().name())));
+            }
+        }
+        changeLogService.recordAll(user, changes);
+        return new BatchResponse(results);
+    }
+    
+    private void applyRequest(PasswordEntry password, PasswordRequest request) {
+        password.setEncryptedTitle(request.encryptedTitle());
+        password.setEncryptedSite(request.encryptedSite());
+        password.setEncryptedLogin(request.encryptedLogin());
+        password.setEncryptedPassword(request.encryptedPassword());
+        password.setEncryptedType(request.encryptedType());
     }
     
-    private PasswordResponse toResponse(PasswordEntry password) {
+    PasswordResponse toResponse(PasswordEntry password) {
         return new PasswordResponse(
             password.getId(),
             password.getEncryptedTitle(),
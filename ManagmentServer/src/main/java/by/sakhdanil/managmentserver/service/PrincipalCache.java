@@ -0,0 +1,110 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.user.AuthenticatedUser;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кэш аутентифицированных пользователей по username (subject JWT).
+ * Ограничен по размеру (LRU) и по времени жизни записи; сбрасывается UserService
+ * при смене учетных данных или статуса верификации, в том числе на других экземплярах сервера.
+ */
+@Service
+public class PrincipalCache implements CacheEventListener {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final Map<String, CachedPrincipal> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private long invalidations; // защищено entries
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+                          @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder("security.principal.cache")
+            .tag("result", "hit")
+            .description("Аутентификации без обращения к базе")
+            .register(meterRegistry);
+        this.misses = Counter.builder("security.principal.cache")
+            .tag("result", "miss")
+            .description("Аутентификации с загрузкой пользователя из базы")
+            .register(meterRegistry);
+        Gauge.builder("security.principal.cache.size", this, PrincipalCache::size)
+            .register(meterRegistry);
+    }
+
+    public Optional<AuthenticatedUser> get(String username) {
+        long now = System.nanoTime();
+        long generation;
+        synchronized (entries) {
+            CachedPrincipal entry = entries.get(username);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return Optional.of(entry.user());
+            }
+            generation = invalidations;
+        }
+
+        // Загрузка вне блокировки; отсутствующих пользователей не кэшируем
+        misses.increment();
+        Optional<AuthenticatedUser> user = userRepository.findByUsername(username).map(AuthenticatedUser::from);
+        user.ifPresent(loaded -> {
+            synchronized (entries) {
+                // Если за время загрузки был сброс, прочитанные данные могли устареть
+                if (generation == invalidations) {
+                    entries.put(username, new CachedPrincipal(loaded, now));
+                }
+            }
+        });
+        return user;
+    }
+
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+            invalidations++;
+        }
+    }
+
+    @Override
+    public void onCacheEvent(CacheEvent event) {
+        if (event.kind() == CacheEvent.Kind.PRINCIPAL) {
+            invalidate(event.key());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record CachedPrincipal(AuthenticatedUser user, long loadedAt) {}
+}
@@ -1,15 +1,31 @@
 package by.sakhdanil.managmentserver.service;
 
+import by.sakhdanil.managmentserver.dto.batch.BatchItemResult;
+import by.sakhdanil.managmentserver.dto.batch.BatchItemStatus;
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import by.sakhdanil.managmentserver.dto.batch.BatchResponse;
+import by.sakhdanil.managmentserver.dto.listing.EntrySummary;
+import by.sakhdanil.managmentserver.dto.listing.ListingCursor;
+import by.sakhdanil.managmentserver.dto.listing.ListingPage;
+import by.sakhdanil.managmentserver.dto.note.NoteBatchOperation;
 import by.sakhdanil.managmentserver.dto.note.NoteRequest;
 import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.SyncChange;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.repository.SecureNoteRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +33,7 @@ import java.util.List;
 public class SecureNoteService {
     
     private final SecureNoteRepository noteRepository;
+    private final SyncChangeLogService changeLogService;
     
     public List<NoteResponse> getAllNotes(User user) {
         return noteRepository.findByUser(user)
@@ -25,14 +42,53 @@ public class SecureNoteService {
             .toList();
     }
     
+    public NoteResponse getNote(Long id, User user) {
+        return noteRepository.findByIdAndUser(id, user)
+            .map(this::toResponse)
+            .orElseThrow(() -> new RuntimeException("Note not found"));
+    }
+    
+    /**
+     * Страница списка по (updatedAt DESC, id DESC) с полным содержимым записей
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<NoteResponse> getNotePage(User user, String cursor, int limit) {
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<NoteResponse> rows;
+        if (cursor == null) {
+            rows = noteRepository.findResponses(user.getId(), page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = noteRepository.findResponsesAfter(user.getId(), after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.updatedAt(), row.id()));
+    }
+    
+    /**
+     * Страница списка только с названием и типом: зашифрованное содержимое не читается из базы
+     */
+    @Transactional(readOnly = true)
+    public ListingPage<EntrySummary> getNoteSummaries(User user, String cursor, int limit) {
+        int pageSize = ListingPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<EntrySummary> rows;
+        if (cursor == null) {
+            rows = noteRepository.findSummaries(user.getId(), page);
+        } else {
+            ListingCursor after = ListingCursor.decode(cursor);
+            rows = noteRepository.findSummariesAfter(user.getId(), after.updatedAt(), after.id(), page);
+        }
+        return ListingPage.of(rows, pageSize, row -> new ListingCursor(row.updatedAt(), row.id()));
+    }
+    
     public NoteResponse createNote(NoteRequest request, User user) {
         SecureNote note = new SecureNote();
         note.setUser(user);
-        note.setEncryptedTitle(request.encryptedTitle());
-        note.setEncryptedType(request.encryptedType());
-        note.setEncryptedData(request.encryptedData());
+        applyRequest(note, request);
         
         SecureNote savedNote = noteRepository.save(note);
+        changeLogService.record(user, SyncChange.EntityType.NOTE, savedNote.getId(), SyncChange.ChangeType.CREATE);
         return toResponse(savedNote);
     }
     
@@ -40,10 +96,9 @@ public class SecureNoteService {
         SecureNote note = noteRepository.findByIdAndUser(id, user)
             .orElseThrow(() -> new RuntimeException("Note not found"));
         
-        note.setEncryptedTitle(request.encryptedTitle());
-        note.setEncryptedType(request.encryptedType());
-        note.setEncryptedData(request.encryptedData());
+        applyRequest(note, request);
         SecureNote savedNote = noteRepository.save(note);
+        changeLogService.record(user, SyncChange.EntityType.NOTE, savedNote.getId(), SyncChange.ChangeType.UPDATE);
         return toResponse(savedNote);
     }
     
@@ -52,9 +107,110 @@ public class SecureNoteService {
             throw new RuntimeException("Note not found");
         }
         noteRepository.deleteByIdAndUser(id, user);
+        changeLogService.record(user, SyncChange.EntityType.NOTE, id, SyncChange.ChangeType.DELETE);
+    }
+    
+    public List<NoteResponse> getNotesByIds(Collection<Long> ids, User user) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return noteRepository.findByUserAndIdIn(user, ids)
+            .stream()
+            .map(this::toResponse)
+            .toList();
+    }
+    
+    /**
+     * Применяет пакет операций в одной транзакции: целевые записи читаются одним запросом,
+     * INSERT/UPDATE/DELETE уходят JDBC-пакетами. Ошибка отдельной операции не откатывает пакет,
+     * а возвращается в ее статусе.
+     */
+    public BatchResponse applyBatch(List<NoteBatchOperation> operations, User user) {
+        Set<Long> targetIds = operations.stream()
+            .filter(operation -> operation.op() != BatchOperationType.CREATE && operation.id() != null)
+            .map(NoteBatchOperation::id)
+            .collect(Collectors.toSet());
+        Map<Long, SecureNote> existing = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            noteRepository.findByUserAndIdIn(user, targetIds).forEach(entry -> existing.put(entry.getId(), entry));
+        }
+        
+        List<SecureNote> toCreate = new ArrayList<>();
+        List<SecureNote> toDelete = new ArrayList<>();
+        // Для CREATE id известен только после saveAll, поэтому запоминаем сущность по позиции операции
+        SecureNote[] targets = new SecureNote[operations.size()];
+        BatchItemStatus[] statuses = new BatchItemStatus[operations.size()];
+        
+        for (int i = 0; i < operations.size(); i++) {
+            NoteBatchOperation operation = operations.get(i);
+            switch (operation.op()) {
+                case CREATE -> {
+                    if (operation.data() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    SecureNote note = new SecureNote();
+                    note.setUser(user);
+                    applyRequest(note, operation.data());
+                    toCreate.add(note);
+                    targets[i] = note;
+                }
+                case UPDATE -> {
+                    if (operation.id() == null || operation.data() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    SecureNote note = existing.get(operation.id());
+                    if (note == null) {
+                        statuses[i] = BatchItemStatus.NOT_FOUND;
+                        continue;
+                    }
+                    applyRequest(note, operation.data());
+                    targets[i] = note;
+                }
+                case DELETE -> {
+                    if (operation.id() == null) {
+                        statuses[i] = BatchItemStatus.INVALID;
+                        continue;
+                    }
+                    SecureNote note = existing.remove(operation.id());
+                    if (note == null) {
+                        statuses[i] = BatchItemStatus.NOT_FOUND;
+                        continue;
+                    }
+                    toDelete.add(note);
+                    targets[i] = note;
+                }
+            }
+            statuses[i] = BatchItemStatus.OK;
+        }
+        
+        // Обновленные записи уже в контексте персистентности и сбрасываются при flush
+        noteRepository.saveAll(toCreate);
+        noteRepository.deleteAll(toDelete);
+        
+        List<BatchItemResult> results = new ArrayList<>(operations.size());
+        List<SyncChangeLogService.Entry> changes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            NoteBatchOperation operation = operations.get(i);
+            Long id = targets[i] != null ? targets[i].getId() : operation.id();
+            results.add(new BatchItemResult(operation.clientRef(), operation.op(), id, statuses[i]));
+            if (statuses[i] == BatchItemStatus.OK) {
+                changes.add(new SyncChangeLogService.Entry(
+                    SyncChange.EntityType.NOTE, id, SyncChange.ChangeType.valueOf(operation.op().name())));
+            }
+        }
+        changeLogService.recordAll(user, changes);
+        return new BatchResponse(results);
+    }
+    
+    private void applyRequest(SecureNote note, NoteRequest request) {
+        note.setEncryptedTitle(request.encryptedTitle());
+        note.setEncryptedType(request.encryptedType());
+        note.setEncryptedData(request.encryptedData());
     }
     
-    private NoteResponse toResponse(SecureNote note) {
+    NoteResponse toResponse(SecureNote note) {
         return new NoteResponse(
             note.getId(),
             note.getEncryptedTitle(),
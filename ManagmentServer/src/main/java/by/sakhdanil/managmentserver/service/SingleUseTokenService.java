@@ -0,0 +1,65 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.SingleUseToken;
+import by.sakhdanil.managmentserver.repository.SingleUseTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Выдача и погашение одноразовых токенов. В БД попадает только SHA-256 токена,
+ * поэтому утечка таблицы не дает действующих токенов.
+ */
+@Service
+@RequiredArgsConstructor
+public class SingleUseTokenService {
+
+    private final SingleUseTokenRepository tokenRepository;
+
+    /**
+     * Сохраняет токен; прежние токены того же назначения у пользователя отзываются
+     */
+    @Transactional
+    public void issue(String userId, SingleUseToken.Purpose purpose, String token, Instant expiresAt) {
+        tokenRepository.revokeAll(userId, purpose);
+
+        SingleUseToken entity = new SingleUseToken();
+        entity.setTokenHash(hash(token));
+        entity.setPurpose(purpose);
+        entity.setUserId(userId);
+        entity.setExpiresAt(expiresAt);
+        tokenRepository.save(entity);
+    }
+
+    /**
+     * Погашает действующий токен
+     *
+     * @return id пользователя или пусто, если токен неизвестен, истек или уже использован
+     */
+    @Transactional
+    public Optional<String> consume(String token, SingleUseToken.Purpose purpose) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        Instant now = Instant.now();
+        return tokenRepository.findUserId(tokenHash, purpose, now)
+            .filter(userId -> tokenRepository.consume(tokenHash, now) == 1);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.SyncChangeRepository;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал изменений хранилища пользователя.
+ * Записи добавляются в той же транзакции, что и изменение пароля/заметки.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncChangeLogService {
+    
+    private final SyncChangeRepository changeRepository;
+    private final UserRepository userRepository;
+    private final VaultVersionService vaultVersions;
+    private final VaultListingCache listingCache;
+    private final ClusterCacheBus cacheBus;
+    private final SyncStreamService syncStream;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(User user, SyncChange.EntityType entityType, Long entityId, SyncChange.ChangeType changeType) {
+        recordAll(user, List.of(new Entry(entityType, entityId, changeType)));
+    }
+    
+    /**
+     * Записывает несколько изменений одним обновлением счетчика и одним пакетом INSERT
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(User user, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // UPDATE блокирует строку пользователя до конца транзакции, поэтому seq
+        // выдаются и коммитятся строго по порядку для одного пользователя
+        userRepository.incrementChangeSeq(user.getId(), entries.size());
+        long version = userRepository.findChangeSeq(user.getId());
+        long seq = version - entries.size();
+        
+        List<SyncChange> changes = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            SyncChange change = new SyncChange();
+            change.setUserId(user.getId());
+            change.setSeq(++seq);
+            change.setEntityType(entry.entityType());
+            change.setEntityId(entry.entityId());
+            change.setChangeType(entry.changeType());
+            changes.add(change);
+        }
+        changeRepository.saveAll(changes);
+        vaultVersions.advanceAfterCommit(user.getId(), version);
+        // Сброс до фиксации безопасен: байты, закэшированные с прежней версией, не пройдут ее проверку
+        listingCache.invalidate(user.getId());
+        cacheBus.publishAfterCommit(CacheEvent.vault(user.getId()));
+        syncStream.publishAfterCommit(user.getId(), changes);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getCurrentCursor(User user) {
+        Long seq = userRepository.findChangeSeq(user.getId());
+        return seq != null ? seq : 0L;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SyncChange> findChangesAfter(User user, long cursor, int limit) {
+        return changeRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(
+            user.getId(), cursor, PageRequest.of(0, limit));
+    }
+    
+    public record Entry(SyncChange.EntityType entityType, Long entityId, SyncChange.ChangeType changeType) {}
+}
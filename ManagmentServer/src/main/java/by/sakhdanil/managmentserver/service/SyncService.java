@@ -0,0 +1,99 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.dto.sync.SyncChangesResponse;
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncService {
+
+    public static final int DEFAULT_CHANGES_LIMIT = 500;
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
+    private final SyncChangeLogService changeLogService;
+    private final PasswordEntryService passwordService;
+    private final SecureNoteService noteService;
+    private final VaultVersionService vaultVersions;
+
+    /**
+     * Возвращает изменения после курсора. Без курсора отдает только текущую позицию журнала:
+     * клиент делает полную выгрузку и дальше работает инкрементально.
+     */
+    public SyncChangesResponse getChanges(User user, Long cursor, int limit) {
+        if (cursor == null) {
+            return new SyncChangesResponse(changeLogService.getCurrentCursor(user), false,
+                List.of(), List.of(), List.of(), List.of());
+        }
+
+        // Клиент уже на последней версии хранилища - журнал не читаем
+        if (cursor >= vaultVersions.current(user.getId())) {
+            return new SyncChangesResponse(cursor, false, List.of(), List.of(), List.of(), List.of());
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_LIMIT));
+        List<SyncChange> changes = changeLogService.findChangesAfter(user, cursor, pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        // Схлопываем несколько изменений одной записи: важна только последняя операция
+        Map<Long, SyncChange.ChangeType> passwordChanges = new LinkedHashMap<>();
+        Map<Long, SyncChange.ChangeType> noteChanges = new LinkedHashMap<>();
+        long nextCursor = cursor;
+        for (SyncChange change : changes) {
+            Map<Long, SyncChange.ChangeType> target = change.getEntityType() == SyncChange.EntityType.PASSWORD
+                ? passwordChanges
+                : noteChanges;
+            target.put(change.getEntityId(), change.getChangeType());
+            nextCursor = change.getSeq();
+        }
+
+        List<PasswordResponse> passwords = passwordService.getPasswordsByIds(upsertedIds(passwordChanges), user);
+        List<NoteResponse> notes = noteService.getNotesByIds(upsertedIds(noteChanges), user);
+
+        return new SyncChangesResponse(
+            nextCursor,
+            hasMore,
+            passwords,
+            notes,
+            deletedIds(passwordChanges, passwords.stream().map(PasswordResponse::id).collect(Collectors.toSet())),
+            deletedIds(noteChanges, notes.stream().map(NoteResponse::id).collect(Collectors.toSet()))
+        );
+    }
+
+    private List<Long> upsertedIds(Map<Long, SyncChange.ChangeType> changes) {
+        List<Long> ids = new ArrayList<>();
+        changes.forEach((id, type) -> {
+            if (type != SyncChange.ChangeType.DELETE) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private List<Long> deletedIds(Map<Long, SyncChange.ChangeType> changes, Set<Long> foundIds) {
+        List<Long> ids = new ArrayList<>();
+        changes.forEach((id, type) -> {
+            // Запись могла быть удалена уже после этой страницы журнала - тоже считаем удаленной
+            if (type == SyncChange.ChangeType.DELETE || !foundIds.contains(id)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
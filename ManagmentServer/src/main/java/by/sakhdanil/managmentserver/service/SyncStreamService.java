@@ -0,0 +1,374 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.sync.SyncEvent;
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поток уведомлений об изменениях хранилища (Server-Sent Events) для всех устройств пользователя.
+ * <p>
+ * Уведомление легкое - тип и ID записи и новая позиция журнала; сами данные клиент забирает
+ * через /api/sync/changes. Изменение не ждет клиентов: события попадают в ограниченный буфер
+ * соединения, а запись в сокет идет в applicationTaskExecutor Spring, по одной задаче на соединение.
+ * Соединение, запись в которое висит дольше sendTimeout, закрывается, чтобы зависшие клиенты
+ * не держали потоки исполнителя и места в лимите соединений пользователя.
+ * Если медленный клиент переполнил буфер, накопленные события заменяются одним уведомлением
+ * о последней версии - по курсору клиент все равно получит все изменения.
+ * Изменения с других экземпляров сервера приходят через ClusterCacheBus без подробностей, только с версией.
+ */
+@Service
+@Slf4j
+public class SyncStreamService implements CacheEventListener {
+
+    static final String EVENT_NAME = "change";
+
+    private final VaultVersionService vaultVersions;
+    private final UserRepository userRepository;
+    private final TaskExecutor taskExecutor;
+    private final TaskScheduler taskScheduler;
+    private final long timeoutMillis;
+    private final Duration heartbeat;
+    private final Duration sendTimeout;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter collapsed;
+    private final Counter stalled;
+    private ScheduledFuture<?> heartbeats;
+    private ScheduledFuture<?> stallChecks;
+
+    public SyncStreamService(VaultVersionService vaultVersions,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+                             TaskScheduler taskScheduler,
+                             @Value("${sync.stream.timeout:30m}") Duration timeout,
+                             @Value("${sync.stream.heartbeat:15s}") Duration heartbeat,
+                             @Value("${sync.stream.send-timeout:10s}") Duration sendTimeout,
+                             @Value("${sync.stream.buffer-size:256}") int bufferSize,
+                             @Value("${sync.stream.max-connections-per-user:8}") int maxConnectionsPerUser) {
+        this.vaultVersions = vaultVersions;
+        this.userRepository = userRepository;
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeat = heartbeat;
+        this.sendTimeout = sendTimeout;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+
+        Gauge.builder("sync.stream.connections", connections, AtomicInteger::get)
+            .description("Открытые потоки уведомлений /api/sync/stream")
+            .register(meterRegistry);
+        this.collapsed = Counter.builder("sync.stream.collapsed")
+            .description("Переполнения буфера соединения, замененные уведомлением о последней версии")
+            .register(meterRegistry);
+        this.stalled = Counter.builder("sync.stream.stalled")
+            .description("Соединения, закрытые из-за записи дольше sendTimeout")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        heartbeats = taskScheduler.scheduleWithFixedDelay(this::sendHeartbeats, Instant.now().plus(heartbeat), heartbeat);
+        Duration checkInterval = sendTimeout.dividedBy(2);
+        stallChecks = taskScheduler.scheduleWithFixedDelay(this::closeStalled, Instant.now().plus(checkInterval), checkInterval);
+    }
+
+    /**
+     * Закрывает потоки до остановки Tomcat: иначе открытые соединения задержат плавное
+     * завершение на весь его таймаут. Клиенты переподключатся к другому экземпляру
+     */
+    @EventListener(ContextClosedEvent.class)
+    void closeAll() {
+        subscribers.values().forEach(list -> list.forEach(Subscriber::close));
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeats.cancel(false);
+        stallChecks.cancel(false);
+        closeAll();
+    }
+
+    /**
+     * Открывает поток для устройства. Первым событием уходит текущая версия хранилища:
+     * по ней клиент догоняет изменения, пропущенные, пока соединения не было
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        List<Subscriber> userSubscribers = subscribers.compute(userId, (key, list) -> {
+            List<Subscriber> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(subscriber);
+            return result;
+        });
+        connections.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> remove(subscriber));
+
+        // Сверх лимита закрываем самые старые соединения - скорее всего, уже брошенные
+        while (userSubscribers.size() > maxConnectionsPerUser) {
+            userSubscribers.get(0).close();
+        }
+
+        subscriber.offer(SyncEvent.version(vaultVersions.current(userId)));
+        return emitter;
+    }
+
+    /**
+     * Рассылает уведомления после фиксации транзакции: раньше клиент не увидел бы изменений в /api/sync/changes
+     */
+    public void publishAfterCommit(String userId, List<SyncChange> changes) {
+        // Большинство изменений делается без открытых потоков - не выделяем ничего лишнего
+        if (changes.isEmpty() || !subscribers.containsKey(userId)) {
+            return;
+        }
+        List<SyncEvent> events = changes.stream()
+            .map(change -> new SyncEvent(change.getEntityType(), change.getEntityId(), change.getChangeType(), change.getSeq()))
+            .toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, events);
+                }
+            });
+        } else {
+            publish(userId, events);
+        }
+    }
+
+    @Override
+    public void onCacheEvent(CacheEvent event) {
+        if (event.kind() == CacheEvent.Kind.VAULT && subscribers.containsKey(event.key())) {
+            publishStoredVersion(event.key());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        // Изменения с других экземпляров могли потеряться - сообщаем всем клиентам текущие версии
+        subscribers.keySet().forEach(this::publishStoredVersion);
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    int connectionCount() {
+        return connections.get();
+    }
+
+    private void publishStoredVersion(String userId) {
+        // Читаем из базы, а не из VaultVersionService: его запись могла еще не сброситься этим же событием
+        Long version = userRepository.findChangeSeq(userId);
+        publish(userId, List.of(SyncEvent.version(version != null ? version : 0L)));
+    }
+
+    private void publish(String userId, List<SyncEvent> events) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            if (events.size() > bufferSize) {
+                subscriber.offer(SyncEvent.version(events.get(events.size() - 1).version()));
+            } else {
+                events.forEach(subscriber::offer);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(list -> list.forEach(Subscriber::heartbeat));
+    }
+
+    void closeStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> {
+            if (subscriber.isStalled(now)) {
+                subscriber.abandon();
+            }
+        }));
+    }
+
+    private void remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.userId, (key, list) -> {
+            removed[0] = list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        if (removed[0]) {
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Соединение одного устройства: буфер событий и признак запланированной отправки
+     */
+    private final class Subscriber {
+
+        private static final long IDLE = Long.MIN_VALUE;
+
+        private final String userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean sending; // защищено buffer
+        private volatile long sendStartedAt = IDLE;
+        private volatile boolean abandoned; // меняется под buffer
+
+        private Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SyncEvent event) {
+            SseEmitter.SseEventBuilder message = SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(Long.toString(event.version()))
+                .data(event, MediaType.APPLICATION_JSON);
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.clear();
+                    message = SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .id(Long.toString(event.version()))
+                        .data(SyncEvent.version(event.version()), MediaType.APPLICATION_JSON);
+                    collapsed.increment();
+                }
+                buffer.add(message);
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (buffer) {
+                // Идущие события и так держат соединение открытым
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                buffer.add(SseEmitter.event().comment("heartbeat"));
+            }
+            schedule();
+        }
+
+        void close() {
+            remove(this);
+            emitter.complete();
+        }
+
+        boolean isStalled(long now) {
+            long started = sendStartedAt;
+            return started != IDLE && now - started > sendTimeout.toNanos();
+        }
+
+        /**
+         * Убирает зависшее соединение из рассылки. Сам emitter держит монитор на время записи,
+         * поэтому завершает его поток отправки, когда запись вернется (не позже таймаута записи Tomcat)
+         */
+        void abandon() {
+            synchronized (buffer) {
+                if (abandoned) {
+                    return;
+                }
+                abandoned = true;
+                buffer.clear();
+            }
+            remove(this);
+            stalled.increment();
+            log.debug("Sync stream for user {} stalled for more than {}, closing", userId, sendTimeout);
+        }
+
+        private void schedule() {
+            synchronized (buffer) {
+                if (sending || abandoned) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                taskExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                // Исполнитель перегружен: клиент переподключится и догонит изменения по курсору
+                synchronized (buffer) {
+                    sending = false;
+                }
+                log.warn("⚠️ Sync stream for user {} closed, sender executor is saturated", userId);
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder message;
+                synchronized (buffer) {
+                    message = buffer.poll();
+                    if (message == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    // Клиент отключился: завершаем асинхронный запрос, иначе он висит до таймаута
+                    log.debug("Sync stream for user {} closed: {}", userId, e.getMessage());
+                    finish(e);
+                    return;
+                } finally {
+                    sendStartedAt = IDLE;
+                }
+                if (abandoned) {
+                    finish(new TimeoutException("Sync stream send exceeded " + sendTimeout));
+                    return;
+                }
+            }
+        }
+
+        private void finish(Throwable error) {
+            remove(this);
+            synchronized (buffer) {
+                buffer.clear();
+                sending = false;
+            }
+            emitter.completeWithError(error);
+        }
+    }
+}
@@ -4,8 +4,7 @@ import by.sakhdanil.managmentserver.dto.auth.*;
 import by.sakhdanil.managmentserver.dto.user.JwtResponse;
 import by.sakhdanil.managmentserver.dto.user.LoginRequest;
 import by.sakhdanil.managmentserver.dto.user.RegisterRequest;
-import by.sakhdanil.managmentserver.entity.PasswordEntry;
-import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.SingleUseToken;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,9 +16,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +29,11 @@ public class UserService implements UserDetailsService {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final OtpStore otpStore;
+    private final SingleUseTokenService tokenService;
+    private final VaultSnapshotReader vaultSnapshotReader;
+    private final PrincipalCache principalCache;
+    private final ClusterCacheBus cacheBus;
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -87,8 +91,7 @@ public class UserService implements UserDetailsService {
                 } else {
                     // Пользователь существует но не подтвержден - переотправляем OTP
                     String otpCode = emailService.generateOtpCode();
-                    user.setOtp(otpCode, "SYNC_SETUP", 10); // 10 минут
-                    userRepository.save(user);
+                    otpStore.put(user.getUsername(), "SYNC_SETUP", otpCode);
                     
                     emailService.sendSyncSetupOtp(user.getEmail(), user.getUsername(), otpCode);
                     
@@ -133,12 +136,12 @@ public class UserService implements UserDetailsService {
             user.setLocalUserId(request.getLocalUserId());
             user.setEmailVerified(false);
             
-            // Генерируем и устанавливаем OTP код
-            String otpCode = emailService.generateOtpCode();
-            user.setOtp(otpCode, "SYNC_SETUP", 10); // 10 минут
-            
             userRepository.save(user);
             
+            // Генерируем OTP код
+            String otpCode = emailService.generateOtpCode();
+            otpStore.put(user.getUsername(), "SYNC_SETUP", otpCode);
+            
             // Отправляем OTP на email
             emailService.sendSyncSetupOtp(request.getEmail(), request.getUsername(), otpCode);
             
@@ -176,17 +179,17 @@ public class UserService implements UserDetailsService {
             User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            if (!user.isOtpValid(request.getOtpCode(), request.getOtpType())) {
+            // Код одноразовый: успешная проверка его удаляет
+            if (!otpStore.verify(user.getUsername(), request.getOtpType(), request.getOtpCode())) {
                 throw new RuntimeException("Invalid or expired OTP code");
             }
             
-            // Очищаем OTP код
-            user.clearOtp();
-            
             // Активируем пользователя если это верификация синхронизации
             if ("SYNC_SETUP".equals(request.getOtpType())) {
                 user.setEmailVerified(true);
                 userRepository.save(user);
+                principalCache.invalidate(user.getUsername());
+                cacheBus.publishAfterCommit(CacheEvent.principal(user.getUsername()));
                 
                 // Генерируем JWT токен
                 String token = jwtService.generateToken(user);
@@ -201,8 +204,6 @@ public class UserService implements UserDetailsService {
                 );
             }
             
-            userRepository.save(user);
-            
             return Map.of(
                 "success", true,
                 "message", "OTP verified successfully"
@@ -226,11 +227,9 @@ public class UserService implements UserDetailsService {
                 throw new RuntimeException("Account not verified. Please complete sync setup first.");
             }
             
-            // Генерируем и устанавливаем OTP код для восстановления
+            // Генерируем OTP код для восстановления
             String otpCode = emailService.generateOtpCode();
-            user.setOtp(otpCode, "ACCOUNT_RECOVERY", 10); // 10 минут
-            
-            userRepository.save(user);
+            otpStore.put(user.getUsername(), "ACCOUNT_RECOVERY", otpCode);
             
             // Отправляем OTP на email
             emailService.sendAccountRecoveryOtp(email, username, otpCode);
@@ -267,18 +266,14 @@ public class UserService implements UserDetailsService {
             }
             
             userRepository.save(user);
+            principalCache.invalidate(user.getUsername());
+            cacheBus.publishAfterCommit(CacheEvent.principal(user.getUsername()));
             
             // Генерируем JWT токен
             String token = jwtService.generateToken(user);
             
             // Получаем все данные пользователя
-            List<Map<String, Object>> passwords = user.getPasswordEntries().stream()
-                .map(this::convertPasswordToMap)
-                .collect(Collectors.toList());
-            
-            List<Map<String, Object>> notes = user.getNotes().stream()
-                .map(this::convertNoteToMap)
-                .collect(Collectors.toList());
+            VaultSnapshotReader.Snapshot vault = vaultSnapshotReader.read(user.getId());
             
             log.info("✅ Account recovery/connection completed for user: {}", request.getUsername());
             
@@ -293,8 +288,8 @@ public class UserService implements UserDetailsService {
                     "username", user.getUsername(),
                     "email", user.getEmail()
                 ),
-                "passwords", passwords,
-                "notes", notes
+                "passwords", vault.passwords(),
+                "notes", vault.notes()
             );
             
         } catch (Exception e) {
@@ -322,16 +317,15 @@ public class UserService implements UserDetailsService {
             
             // Генерируем одноразовый токен переноса
             String transferToken = generateTransferToken();
-            user.setTransferToken(transferToken, 5); // 5 минут
-            
-            userRepository.save(user);
+            Instant expiresAt = Instant.now().plus(Duration.ofMinutes(5));
+            tokenService.issue(user.getId(), SingleUseToken.Purpose.TRANSFER, transferToken, expiresAt);
             
             log.info("✅ Transfer token created for user: {}", request.getUsername());
             
             return Map.of(
                 "success", true,
                 "transferToken", transferToken,
-                "expiresAt", user.getTransferTokenExpiresAt().toString(),
+                "expiresAt", expiresAt.toString(),
                 "expiresInMinutes", 5
             );
             
@@ -346,28 +340,17 @@ public class UserService implements UserDetailsService {
 
     public Map<String, Object> useTransferToken(String transferToken) {
         try {
-            User user = userRepository.findByTransferToken(transferToken)
-                .orElseThrow(() -> new RuntimeException("Invalid transfer token"));
-            
-            if (!user.isTransferTokenValid(transferToken)) {
-                throw new RuntimeException("Transfer token expired or invalid");
-            }
-            
-            // Очищаем токен переноса (одноразовый)
-            user.clearTransferToken();
-            userRepository.save(user);
+            // Токен одноразовый: погашение удаляет его
+            String userId = tokenService.consume(transferToken, SingleUseToken.Purpose.TRANSFER)
+                .orElseThrow(() -> new RuntimeException("Transfer token expired or invalid"));
+            User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
             
             // Генерируем новый JWT токен для нового устройства
             String authToken = jwtService.generateToken(user);
             
             // Получаем все данные пользователя
-            List<Map<String, Object>> passwords = user.getPasswordEntries().stream()
-                .map(this::convertPasswordToMap)
-                .collect(Collectors.toList());
-            
-            List<Map<String, Object>> notes = user.getNotes().stream()
-                .map(this::convertNoteToMap)
-                .collect(Collectors.toList());
+            VaultSnapshotReader.Snapshot vault = vaultSnapshotReader.read(user.getId());
             
             log.info("✅ Transfer token used successfully for user: {}", user.getUsername());
             
@@ -380,8 +363,8 @@ public class UserService implements UserDetailsService {
                     "username", user.getUsername(),
                     "email", user.getEmail()
                 ),
-                "passwords", passwords,
-                "notes", notes,
+                "passwords", vault.passwords(),
+                "notes", vault.notes(),
                 "masterPasswordHash", user.getPasswordHash(),
                 "salt", user.getSalt()
             );
@@ -401,30 +384,6 @@ public class UserService implements UserDetailsService {
         return UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
     }
 
-    private Map<String, Object> convertPasswordToMap(PasswordEntry password) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", password.getId());
-        map.put("encryptedTitle", password.getEncryptedTitle());
-        map.put("encryptedSite", password.getEncryptedSite());
-        map.put("encryptedLogin", password.getEncryptedLogin());
-        map.put("encryptedPassword", password.getEncryptedPassword());
-        map.put("encryptedType", password.getEncryptedType());
-        map.put("createdAt", password.getCreatedAt());
-        map.put("updatedAt", password.getUpdatedAt());
-        return map;
-    }
-
-    private Map<String, Object> convertNoteToMap(SecureNote note) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", note.getId());
-        map.put("encryptedTitle", note.getEncryptedTitle());
-        map.put("encryptedType", note.getEncryptedType());
-        map.put("encryptedData", note.getEncryptedData());
-        map.put("createdAt", note.getCreatedAt());
-        map.put("updatedAt", note.getUpdatedAt());
-        return map;
-    }
-
     /**
      * Облачный вход через email, username и master password
      */
@@ -462,9 +421,7 @@ public class UserService implements UserDetailsService {
             
             // Генерируем OTP код для дополнительной безопасности
             String otpCode = emailService.generateOtpCode();
-            user.setOtp(otpCode, "CLOUD_LOGIN", 10); // 10 минут
-            
-            userRepository.save(user);
+            otpStore.put(user.getUsername(), "CLOUD_LOGIN", otpCode);
             
             // Отправляем OTP на email
             emailService.sendCloudLoginOtp(email, username, otpCode);
@@ -498,25 +455,15 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
             // Проверяем OTP код
-            if (!user.isOtpValid(otpCode, "CLOUD_LOGIN")) {
+            if (!otpStore.verify(user.getUsername(), "CLOUD_LOGIN", otpCode)) {
                 throw new RuntimeException("Invalid or expired OTP code");
             }
             
-            // Очищаем OTP код
-            user.clearOtp();
-            userRepository.save(user);
-            
             // Генерируем JWT токен
             String authToken = jwtService.generateToken(user);
             
             // Получаем все данные пользователя для синхронизации
-            List<Map<String, Object>> passwords = user.getPasswordEntries().stream()
-                .map(this::convertPasswordToMap)
-                .collect(Collectors.toList());
-            
-            List<Map<String, Object>> notes = user.getNotes().stream()
-                .map(this::convertNoteToMap)
-                .collect(Collectors.toList());
+            VaultSnapshotReader.Snapshot vault = vaultSnapshotReader.read(user.getId());
             
             log.info("✅ Cloud OTP verification successful for user: {}", username);
             
@@ -529,8 +476,8 @@ public class UserService implements UserDetailsService {
                 "email", user.getEmail(),
                 "passwordHash", user.getPasswordHash(),
                 "salt", user.getSalt(),
-                "passwords", passwords,
-                "notes", notes
+                "passwords", vault.passwords(),
+                "notes", vault.notes()
             );
             
         } catch (Exception e) {
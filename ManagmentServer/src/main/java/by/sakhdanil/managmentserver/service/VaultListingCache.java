@@ -0,0 +1,162 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.config.SmileCodecConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Кэш полных списков хранилища в уже сериализованном виде (JSON или Smile).
+ * <p>
+ * Повторный запрос списка отдается из памяти без обращения к базе и без сериализации.
+ * Объем ограничен суммарным размером тел; вытеснение - W-TinyLFU (Caffeine), поэтому
+ * разовые большие выгрузки не вытесняют часто синхронизируемые хранилища.
+ * Каждая запись помечена версией хранилища, прочитанной до загрузки данных: после изменения
+ * версия растет, и устаревшие байты не отдаются, даже если сброс записи еще не дошел.
+ */
+@Service
+public class VaultListingCache implements CacheEventListener {
+
+    // Приблизительный размер ключа и служебных полей записи сверх самого тела
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final List<String> LISTINGS = List.of("passwords", "notes");
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, SmileCodecConfig.APPLICATION_SMILE);
+
+    private final VaultVersionService vaultVersions;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final Cache<Key, Body> cache;
+
+    public VaultListingCache(VaultVersionService vaultVersions,
+                             ObjectMapper objectMapper,
+                             Jackson2ObjectMapperBuilder objectMapperBuilder,
+                             MeterRegistry meterRegistry,
+                             @Value("${vault.listing-cache.max-size:64MB}") DataSize maxSize) {
+        this.vaultVersions = vaultVersions;
+        this.jsonMapper = objectMapper;
+        this.smileMapper = SmileCodecConfig.smileMapper(objectMapperBuilder);
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((Key key, Body body) -> body.bytes().length + ENTRY_OVERHEAD)
+            .recordStats()
+            .build();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "vault.listing");
+        Gauge.builder("vault.listing.cache.bytes", cache,
+                c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+            .description("Суммарный размер сериализованных списков в кэше")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("vault.listing.cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .description("Доля запросов списков, отданных из кэша")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Сильный ETag списка в формате из Accept. JSON и Smile - разные байты, поэтому и ETag у них разный;
+     * у JSON он прежний, чтобы сохраненные клиентами значения остались действительными
+     */
+    public String etag(String userId, String listing, String accept) {
+        boolean smile = SmileCodecConfig.APPLICATION_SMILE.equals(negotiate(accept));
+        return vaultVersions.etag(userId, smile ? listing + "-smile" : listing);
+    }
+
+    /**
+     * Тело ответа со списком в формате из Accept: из кэша или загруженное и сериализованное заново
+     */
+    public ResponseEntity<byte[]> respond(String userId, String listing, String accept, Supplier<List<?>> loader) {
+        MediaType format = negotiate(accept);
+        Key key = new Key(userId, listing, format.getSubtype());
+        // Версия читается до загрузки: при изменении между ними запись будет помечена старой версией
+        long version = vaultVersions.current(userId);
+
+        Body body = cache.getIfPresent(key);
+        if (body == null || body.version() != version) {
+            body = new Body(version, serialize(format, loader.get()));
+            cache.put(key, body);
+        }
+        return ResponseEntity.ok().contentType(format).body(body.bytes());
+    }
+
+    /**
+     * Сбрасывает списки пользователя; вызывается при каждом изменении хранилища
+     */
+    public void invalidate(String userId) {
+        List<Key> keys = new ArrayList<>(LISTINGS.size() * FORMATS.size());
+        for (String listing : LISTINGS) {
+            for (MediaType format : FORMATS) {
+                keys.add(new Key(userId, listing, format.getSubtype()));
+            }
+        }
+        cache.invalidateAll(keys);
+    }
+
+    @Override
+    public void onCacheEvent(CacheEvent event) {
+        if (event.kind() == CacheEvent.Kind.VAULT) {
+            invalidate(event.key());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        cache.invalidateAll();
+    }
+
+    long weightedSize() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private byte[] serialize(MediaType format, List<?> entries) {
+        try {
+            return (SmileCodecConfig.APPLICATION_SMILE.equals(format) ? smileMapper : jsonMapper).writeValueAsBytes(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize vault listing", e);
+        }
+    }
+
+    // Smile выбирается, только если клиент явно предпочитает его JSON; иначе - JSON, как раньше
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() > 0 && SmileCodecConfig.APPLICATION_SMILE.equalsTypeAndSubtype(type)) {
+                return SmileCodecConfig.APPLICATION_SMILE;
+            }
+            if (type.getQualityValue() > 0 && type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private record Key(String userId, String listing, String format) {}
+
+    private record Body(long version, byte[] bytes) {}
+}
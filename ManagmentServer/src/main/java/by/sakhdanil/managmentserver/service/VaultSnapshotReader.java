@@ -0,0 +1,35 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.repository.PasswordEntryRepository;
+import by.sakhdanil.managmentserver.repository.SecureNoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Полный снимок хранилища пользователя для восстановления, переноса на устройство и облачного входа.
+ * <p>
+ * Ровно два запроса (пароли и заметки) с DTO-проекциями: не загружаются сущности, ленивые коллекции
+ * User и их копии для dirty checking, а записи попадают в ответ без промежуточных Map.
+ */
+@Service
+@RequiredArgsConstructor
+public class VaultSnapshotReader {
+
+    private final PasswordEntryRepository passwordRepository;
+    private final SecureNoteRepository noteRepository;
+
+    @Transactional(readOnly = true)
+    public Snapshot read(String userId) {
+        return new Snapshot(
+            passwordRepository.findResponsesByUserId(userId),
+            noteRepository.findResponsesByUserId(userId)
+        );
+    }
+
+    public record Snapshot(List<PasswordResponse> passwords, List<NoteResponse> notes) {}
+}
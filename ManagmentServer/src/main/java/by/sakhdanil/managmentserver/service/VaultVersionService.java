@@ -0,0 +1,125 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Версия хранилища пользователя для условных запросов (ETag / If-None-Match).
+ * <p>
+ * Версия - счетчик журнала изменений users.change_seq: он растет при каждом изменении паролей
+ * и заметок. Значения держатся в памяти без блокировок и обновляются после фиксации транзакции
+ * с изменением, поэтому проверка неизмененного хранилища не обращается к базе.
+ * Изменения с других экземпляров сервера приходят через ClusterCacheBus; если шина выключена,
+ * задержку их появления ограничивает срок жизни записи, после которого версия перечитывается
+ * одним запросом по первичному ключу.
+ */
+@Service
+public class VaultVersionService implements CacheEventListener {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public VaultVersionService(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${vault.version-cache.ttl:5s}") Duration ttl,
+                               @Value("${vault.version-cache.max-size:100000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("vault.version.cache")
+            .tag("result", "hit")
+            .description("Проверки версии хранилища без обращения к базе")
+            .register(meterRegistry);
+        this.misses = Counter.builder("vault.version.cache")
+            .tag("result", "miss")
+            .description("Проверки версии хранилища с чтением users.change_seq")
+            .register(meterRegistry);
+        Gauge.builder("vault.version.cache.size", versions, Map::size)
+            .register(meterRegistry);
+    }
+
+    public long current(String userId) {
+        long now = System.nanoTime();
+        Version version = versions.get(userId);
+        if (version != null && now - version.loadedAt() < ttlNanos) {
+            hits.increment();
+            return version.value();
+        }
+
+        misses.increment();
+        Long stored = userRepository.findChangeSeq(userId);
+        return remember(userId, stored != null ? stored : 0L, now);
+    }
+
+    /**
+     * Сильный ETag списка записей; меняется при любом изменении хранилища
+     */
+    public String etag(String userId, String listing) {
+        return "\"" + listing + "-" + current(userId) + "\"";
+    }
+
+    /**
+     * Запоминает новую версию после фиксации текущей транзакции: до нее изменение
+     * не видно другим запросам, и отдавать новый ETag с прежними данными нельзя
+     */
+    public void advanceAfterCommit(String userId, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(userId, version, System.nanoTime());
+                }
+            });
+        } else {
+            remember(userId, version, System.nanoTime());
+        }
+    }
+
+    public void evict(String userId) {
+        versions.remove(userId);
+    }
+
+    @Override
+    public void onCacheEvent(CacheEvent event) {
+        if (event.kind() == CacheEvent.Kind.VAULT) {
+            evict(event.key());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        versions.clear();
+    }
+
+    int size() {
+        return versions.size();
+    }
+
+    private long remember(String userId, long value, long now) {
+        if (versions.size() >= maxSize && !versions.containsKey(userId)) {
+            versions.values().removeIf(version -> now - version.loadedAt() >= ttlNanos);
+            if (versions.size() >= maxSize) {
+                versions.clear();
+            }
+        }
+        // Версия только растет: чтение из базы, начатое до фиксации изменения, не откатит ее назад
+        return versions.merge(userId, new Version(value, now), (previous, loaded) ->
+            previous.value() > loaded.value() ? new Version(previous.value(), now) : loaded).value();
+    }
+
+    private record Version(long value, long loadedAt) {}
+}
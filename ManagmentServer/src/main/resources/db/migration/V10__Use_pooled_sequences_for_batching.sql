@@ -0,0 +1,11 @@
+-- Переход с IDENTITY на последовательности с pooled-оптимизатором Hibernate (allocationSize = 50),
+-- чтобы INSERT записей паролей, заметок и журнала синхронизации выполнялись JDBC-батчами
+
+-- Hibernate сам выделяет id блоками по 50, значение по умолчанию больше не используется
+ALTER TABLE password_entries ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE secure_notes ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE sync_changes ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE password_entries_id_seq INCREMENT BY 50;
+ALTER SEQUENCE secure_notes_id_seq INCREMENT BY 50;
+ALTER SEQUENCE sync_changes_id_seq INCREMENT BY 50;
@@ -0,0 +1,22 @@
+-- Очередь исходящих писем: письмо сохраняется вместе с OTP, отправляет его отдельный обработчик пакетами
+
+CREATE SEQUENCE email_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE email_outbox (
+    id BIGINT PRIMARY KEY,
+    dedup_key VARCHAR(320) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Выборка писем к отправке
+CREATE INDEX idx_email_outbox_status_next ON email_outbox(status, next_attempt_at);
+-- Поиск неотправленного или недавно отправленного письма того же вида тому же пользователю
+CREATE INDEX idx_email_outbox_dedup ON email_outbox(dedup_key, status);
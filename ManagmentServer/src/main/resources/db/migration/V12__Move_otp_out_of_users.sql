@@ -0,0 +1,17 @@
+-- OTP коды больше не хранятся в строке пользователя: выдача и проверка кода не должны обновлять users.
+-- По умолчанию коды живут в памяти сервера (otp.store = memory); таблица otp_challenges
+-- используется при otp.store = database, когда экземпляров сервера несколько.
+-- Коды, выданные до обновления, теряются - пользователь просто запросит новый.
+
+ALTER TABLE users DROP COLUMN otp_code;
+ALTER TABLE users DROP COLUMN otp_expires_at;
+ALTER TABLE users DROP COLUMN otp_type;
+
+CREATE TABLE otp_challenges (
+    id VARCHAR(120) PRIMARY KEY,
+    code_hash VARCHAR(64) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_otp_challenges_expires ON otp_challenges(expires_at);
@@ -0,0 +1,28 @@
+-- Одноразовые токены переноса переезжают из users в отдельную таблицу.
+-- Хранится только SHA-256 токена; поиск идет по уникальному индексу.
+-- Действующие токены переноса (живут 5 минут) при обновлении теряются.
+
+CREATE SEQUENCE single_use_tokens_id_seq INCREMENT BY 50;
+
+CREATE TABLE single_use_tokens (
+    id BIGINT PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL,
+    purpose VARCHAR(16) NOT NULL,
+    user_id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- INCLUDE: поиск пользователя по токену выполняется index-only scan, без чтения таблицы
+CREATE UNIQUE INDEX ux_single_use_tokens_hash ON single_use_tokens(token_hash) INCLUDE (purpose, user_id, expires_at);
+-- Пакетное удаление истекших токенов
+CREATE INDEX idx_single_use_tokens_expires ON single_use_tokens(expires_at);
+-- Отзыв прежних токенов пользователя и каскадное удаление
+CREATE INDEX idx_single_use_tokens_user ON single_use_tokens(user_id, purpose);
+
+ALTER TABLE users DROP COLUMN transfer_token;
+ALTER TABLE users DROP COLUMN transfer_token_expires_at;
+
+-- Поиск брошенных неподтвержденных аккаунтов, не затрагивая подтвержденных
+CREATE INDEX idx_users_unverified_created ON users(created_at) WHERE email_verified = FALSE;
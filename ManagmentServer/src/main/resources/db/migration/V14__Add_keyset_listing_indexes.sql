@@ -0,0 +1,9 @@
+-- Постраничные списки идут по (updated_at DESC, id DESC) внутри пользователя:
+-- страница читается коротким обратным проходом по индексу без сортировки.
+-- Прежние индексы по user_id покрываются префиксом новых.
+
+CREATE INDEX idx_password_entries_user_updated ON password_entries(user_id, updated_at, id);
+CREATE INDEX idx_secure_notes_user_updated ON secure_notes(user_id, updated_at, id);
+
+DROP INDEX IF EXISTS idx_password_entries_user_id;
+DROP INDEX IF EXISTS idx_secure_notes_user_id;
@@ -0,0 +1,18 @@
+-- Журнал изменений хранилища для инкрементальной синхронизации
+
+-- Счетчик изменений пользователя (источник seq для sync_changes)
+ALTER TABLE users ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE sync_changes (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(36) NOT NULL,
+    seq BIGINT NOT NULL,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Выборка изменений после курсора идет по (user_id, seq)
+CREATE UNIQUE INDEX idx_sync_changes_user_seq ON sync_changes(user_id, seq);
@@ -0,0 +1,104 @@
+package by.sakhdanil.managmentserver.benchmark;
+
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки JWT на один запрос в JwtAuthFilter.
+ * <p>
+ * {@code legacy} повторяет прежний путь: ключ и парсер создаются заново, токен разбирается
+ * трижды (extractUsername + isTokenValid). {@code singleParse} - один разбор с общим ключом и парсером,
+ * {@code cached} - повторный запрос с тем же токеном при включенном кэше проверенных токенов.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=by.sakhdanil.managmentserver.benchmark.JwtVerificationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-which-should-be-at-least-256-bits-long-for-hmac";
+
+    private JwtService singleParseService;
+    private JwtService cachedService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        singleParseService = createService(0);
+        cachedService = createService(1024);
+
+        user = new User();
+        user.setId("benchmark-id");
+        user.setUsername("benchmark-user");
+        token = singleParseService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyParse(token).getSubject();
+        boolean subjectMatches = legacyParse(token).getSubject().equals(user.getUsername());
+        boolean expired = legacyParse(token).getExpiration().before(new Date());
+        return username != null && subjectMatches && !expired;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = singleParseService.verify(token);
+        return singleParseService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        Claims claims = cachedService.verify(token);
+        return cachedService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+
+    private static JwtService createService(int verifiedCacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(service, "verifiedCacheSize", verifiedCacheSize);
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtVerificationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package by.sakhdanil.managmentserver.benchmark;
+
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.dto.sync.SyncChangesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Размер и время (де)сериализации страницы журнала синхронизации в JSON и Smile.
+ * <p>
+ * Поля записей - base64 шифротекста разной длины, как у настоящих клиентов.
+ * Размеры ответов печатаются перед измерением.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=by.sakhdanil.managmentserver.benchmark.SyncCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyncCodecBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int entries;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+    private SyncChangesResponse changes;
+    private byte[] json;
+    private byte[] smile;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        changes = createChanges(entries);
+        json = jsonMapper.writeValueAsBytes(changes);
+        smile = smileMapper.writeValueAsBytes(changes);
+        System.out.printf("%nentries=%d json=%d bytes smile=%d bytes (%.1f%%)%n",
+            entries, json.length, smile.length, 100.0 * smile.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(changes);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(changes);
+    }
+
+    @Benchmark
+    public SyncChangesResponse deserializeJson() throws IOException {
+        return jsonMapper.readValue(json, SyncChangesResponse.class);
+    }
+
+    @Benchmark
+    public SyncChangesResponse deserializeSmile() throws IOException {
+        return smileMapper.readValue(smile, SyncChangesResponse.class);
+    }
+
+    private static SyncChangesResponse createChanges(int entries) {
+        Random random = new Random(42);
+        Instant now = Instant.now();
+        List<PasswordResponse> passwords = new ArrayList<>();
+        List<NoteResponse> notes = new ArrayList<>();
+        for (long id = 1; id <= entries / 2; id++) {
+            passwords.add(new PasswordResponse(id, ciphertext(random, 32), ciphertext(random, 48),
+                ciphertext(random, 32), ciphertext(random, 48), ciphertext(random, 16), now, now));
+            notes.add(new NoteResponse(id, ciphertext(random, 32), ciphertext(random, 16),
+                ciphertext(random, 64 + random.nextInt(960)), now, now));
+        }
+        return new SyncChangesResponse(entries, false, passwords, notes, List.of(), List.of());
+    }
+
+    private static String ciphertext(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SyncCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
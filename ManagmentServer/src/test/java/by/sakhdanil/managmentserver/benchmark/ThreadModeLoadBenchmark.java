@@ -0,0 +1,150 @@
+package by.sakhdanil.managmentserver.benchmark;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочное сравнение пула потоков Tomcat (platform, 200 потоков) и виртуальных потоков
+ * (как при spring.threads.virtual.enabled=true) при 50, 500 и 5000 одновременных клиентах.
+ * <p>
+ * Обработчик блокируется на {@code bench.blockingMillis} (по умолчанию 50ms) - столько в среднем
+ * занимают JDBC, SMTP или запрос к удаленному серверу. Путь /pinned делает то же внутри synchronized,
+ * как драйвер с synchronized-методами (sqlite-jdbc): виртуальный поток при этом занимает носитель.
+ * Клиенты работают по замкнутому циклу (следующий запрос после ответа на предыдущий).
+ * <p>
+ * Нужна JVM 21+. Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=by.sakhdanil.managmentserver.benchmark.ThreadModeLoadBenchmark}
+ * (параметры: -Dbench.clients=50,500,5000 -Dbench.seconds=10 -Dbench.path=/blocking|/pinned)
+ */
+public class ThreadModeLoadBenchmark {
+
+    private static final long BLOCKING_MILLIS = Long.getLong("bench.blockingMillis", 50);
+    private static final Object DRIVER_MONITOR = new Object();
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = Arrays.stream(System.getProperty("bench.clients", "50,500,5000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+        Duration measure = Duration.ofSeconds(Long.getLong("bench.seconds", 10));
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 3));
+        String path = System.getProperty("bench.path", "/blocking");
+
+        System.out.printf("%-9s %-8s %8s %12s %10s %10s %8s%n",
+            "mode", "path", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            WebServer server = startServer(virtual);
+            try {
+                for (int concurrency : clients) {
+                    Result result = run(server.getPort(), path, concurrency, warmup, measure);
+                    System.out.printf("%-9s %-8s %8d %12.0f %10.1f %10.1f %8d%n",
+                        virtual ? "virtual" : "platform", path, concurrency,
+                        result.throughput(), result.p50Millis(), result.p99Millis(), result.errors());
+                }
+            } finally {
+                server.stop();
+            }
+        }
+        // Потоки HttpClient не daemon, а close() появился только в Java 21
+        System.exit(0);
+    }
+
+    private static WebServer startServer(boolean virtual) {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        if (virtual) {
+            factory.addProtocolHandlerCustomizers(protocol -> protocol.setExecutor(new VirtualThreadExecutor("bench-vt-")));
+        }
+        factory.addConnectorCustomizers(connector -> connector.setProperty("maxKeepAliveRequests", "-1"));
+        WebServer server = factory.getWebServer(context ->
+            context.addServlet("blocking", new BlockingServlet()).addMapping("/*"));
+        server.start();
+        return server;
+    }
+
+    private static Result run(int port, String path, int concurrency, Duration warmup, Duration measure)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+            .timeout(Duration.ofSeconds(60)).build();
+
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long measureEnd = measureStart + measure.toNanos();
+        long[] latencies = new long[(int) Math.min(50_000_000L, measure.toMillis() * concurrency)];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            new Object() {
+                void next() {
+                    long start = System.nanoTime();
+                    if (start >= measureEnd) {
+                        done.countDown();
+                        return;
+                    }
+                    client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                        long end = System.nanoTime();
+                        if (start >= measureStart && end <= measureEnd) {
+                            if (error != null || response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            } else {
+                                int index = recorded.getAndIncrement();
+                                if (index < latencies.length) {
+                                    latencies[index] = end - start;
+                                }
+                            }
+                        }
+                        next();
+                    });
+                }
+            }.next();
+        }
+        done.await();
+
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Result(count / (measure.toNanos() / 1e9), percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, long errors) {}
+
+    private static class BlockingServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                if (request.getRequestURI().startsWith("/pinned")) {
+                    synchronized (DRIVER_MONITOR) {
+                        // Монитор на соединение, как у драйвера: один поток внутри, остальные ждут
+                        Thread.sleep(BLOCKING_MILLIS / 10);
+                    }
+                } else {
+                    Thread.sleep(BLOCKING_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getWriter().write("ok");
+        }
+    }
+}
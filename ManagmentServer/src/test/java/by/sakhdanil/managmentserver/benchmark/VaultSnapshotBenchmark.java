@@ -0,0 +1,209 @@
+package by.sakhdanil.managmentserver.benchmark;
+
+import by.sakhdanil.managmentserver.ManagmentServerApplication;
+import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import by.sakhdanil.managmentserver.service.PasswordEntryService;
+import by.sakhdanil.managmentserver.service.VaultListingCache;
+import by.sakhdanil.managmentserver.service.VaultSnapshotReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сборка и сериализация полного хранилища для восстановления, переноса и облачного входа
+ * при 1k, 10k и 100k записей (поровну паролей и заметок, H2 в памяти).
+ * <p>
+ * {@code entityMaps} повторяет прежний путь: ленивые коллекции User и копия каждой записи в HashMap.
+ * {@code dtoProjection} - VaultSnapshotReader. Выделение памяти на операцию видно с {@code -prof gc}.
+ * {@code listingUncached} и {@code listingCached} - ответ GET /api/passwords через VaultListingCache
+ * при промахе (выборка и сериализация) и при попадании в кэш.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=by.sakhdanil.managmentserver.benchmark.VaultSnapshotBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VaultSnapshotBenchmark {
+
+    private static final String CIPHERTEXT = "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y96Qsv2Lm+31cmzaAILwyt";
+
+    @Param({"1000", "10000", "100000"})
+    private int entries;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private VaultSnapshotReader snapshotReader;
+    private ObjectMapper objectMapper;
+    private VaultListingCache listingCache;
+    private PasswordEntryService passwordService;
+    private User user;
+    private String userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ManagmentServerApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test")
+            .properties("logging.level.root=WARN", "spring.docker.compose.enabled=false")
+            .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+        snapshotReader = context.getBean(VaultSnapshotReader.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        listingCache = context.getBean(VaultListingCache.class);
+        passwordService = context.getBean(PasswordEntryService.class);
+
+        user = new User();
+        user.setUsername("benchmark-user");
+        user.setEmail("benchmark@example.com");
+        user.setSalt("salt");
+        user.setPasswordHash("hash");
+        user.setEmailVerified(true);
+        user = context.getBean(UserRepository.class).save(user);
+        userId = user.getId();
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long entityMaps() throws IOException {
+        Map<String, Object> response = transactionTemplate.execute(status -> {
+            User user = entityManager.find(User.class, userId);
+            List<Map<String, Object>> passwords = user.getPasswordEntries().stream()
+                .map(VaultSnapshotBenchmark::passwordToMap)
+                .collect(Collectors.toList());
+            List<Map<String, Object>> notes = user.getNotes().stream()
+                .map(VaultSnapshotBenchmark::noteToMap)
+                .collect(Collectors.toList());
+            entityManager.clear();
+            return Map.of("success", true, "passwords", passwords, "notes", notes);
+        });
+        return serialize(response);
+    }
+
+    @Benchmark
+    public long dtoProjection() throws IOException {
+        VaultSnapshotReader.Snapshot vault = snapshotReader.read(userId);
+        return serialize(Map.of("success", true, "passwords", vault.passwords(), "notes", vault.notes()));
+    }
+
+    @Benchmark
+    public int listingUncached() {
+        listingCache.invalidate(userId);
+        return listingCache.respond(userId, "passwords", null, () -> passwordService.getAllPasswords(user))
+            .getBody().length;
+    }
+
+    @Benchmark
+    public int listingCached() {
+        return listingCache.respond(userId, "passwords", null, () -> passwordService.getAllPasswords(user))
+            .getBody().length;
+    }
+
+    private long serialize(Object response) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, response);
+        return out.count;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> passwords = new ArrayList<>();
+        List<Object[]> notes = new ArrayList<>();
+        for (long id = 1; id <= entries / 2; id++) {
+            passwords.add(new Object[] {id, userId, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, now, now});
+            notes.add(new Object[] {id, userId, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into password_entries (id, user_id, encrypted_title, encrypted_site, " +
+            "encrypted_login, encrypted_password, encrypted_type, created_at, updated_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", passwords);
+        jdbcTemplate.batchUpdate("insert into secure_notes (id, user_id, encrypted_title, encrypted_type, " +
+            "encrypted_data, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?)", notes);
+    }
+
+    private static Map<String, Object> passwordToMap(PasswordEntry password) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", password.getId());
+        map.put("encryptedTitle", password.getEncryptedTitle());
+        map.put("encryptedSite", password.getEncryptedSite());
+        map.put("encryptedLogin", password.getEncryptedLogin());
+        map.put("encryptedPassword", password.getEncryptedPassword());
+        map.put("encryptedType", password.getEncryptedType());
+        map.put("createdAt", password.getCreatedAt());
+        map.put("updatedAt", password.getUpdatedAt());
+        return map;
+    }
+
+    private static Map<String, Object> noteToMap(SecureNote note) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", note.getId());
+        map.put("encryptedTitle", note.getEncryptedTitle());
+        map.put("encryptedType", note.getEncryptedType());
+        map.put("encryptedData", note.getEncryptedData());
+        map.put("createdAt", note.getCreatedAt());
+        map.put("updatedAt", note.getUpdatedAt());
+        return map;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(VaultSnapshotBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package by.sakhdanil.managmentserver.config;
+
+import by.sakhdanil.managmentserver.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+    private ConcurrencyLimitProperties properties;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        when(jwtService.verify("valid-token")).thenReturn(mock(Claims.class));
+        when(jwtService.verify("forged-token")).thenThrow(new JwtException("bad signature"));
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        properties.setSampleWindow(Duration.ofMillis(100));
+        properties.setMinWindowSamples(5);
+    }
+
+    @Test
+    void adaptiveLimit_GrowsWithStableLatencyAndShrinksWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties, 0);
+        long now = 0;
+
+        // When
+        for (int window = 0; window < 10; window++) {
+            now = feedWindow(limit, now, 10 * MILLIS, 10);
+        }
+        int grown = limit.getLimit();
+        for (int window = 0; window < 10; window++) {
+            now = feedWindow(limit, now, 100 * MILLIS, grown);
+        }
+
+        // Then
+        assertTrue(grown > 10, "limit should grow while latency is stable: " + grown);
+        assertTrue(limit.getLimit() < grown, "limit should shrink when latency rises: " + limit.getLimit());
+        assertTrue(limit.getLimit() >= properties.getMinLimit());
+    }
+
+    @Test
+    void adaptiveLimit_LowPriorityShareExhaustedBeforeVault() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties, 0);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(0.5) > 0);
+        }
+
+        // Then
+        assertEquals(-1, limit.tryAcquire(0.5));
+        assertEquals(6, limit.tryAcquire(1.0));
+        limit.release();
+        assertEquals(5, limit.getInFlight());
+    }
+
+    @Test
+    void doFilter_AuthShareExhausted_Returns503ButVaultRequestPasses() throws Exception {
+        // Given
+        properties.setInitialLimit(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties,
+            requestLogger(meterRegistry), new ObjectMapper(), jwtService, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Один /auth-запрос занимает всю долю /auth (2 * 0.5)
+            executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("POST", "/auth/login"), new MockHttpServletResponse(),
+                    (req, res) -> {
+                        entered.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                return null;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // When
+            MockHttpServletResponse auth = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/auth/login"), auth, new MockFilterChain());
+            MockHttpServletRequest vaultRequest = new MockHttpServletRequest("GET", "/api/passwords");
+            vaultRequest.addHeader("Authorization", "Bearer valid-token");
+            MockHttpServletResponse vault = new MockHttpServletResponse();
+            filter.doFilter(vaultRequest, vault, new MockFilterChain());
+
+            // Then
+            assertEquals(503, auth.getStatus());
+            assertEquals("1", auth.getHeader("Retry-After"));
+            assertEquals(200, vault.getStatus());
+            assertEquals(1.0, meterRegistry.get("concurrency.shed").tag("priority", "auth").counter().count());
+            assertEquals(1.0, meterRegistry.get("concurrency.in.flight").gauge().value());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void classify_BearerHeaderCountsAsVaultOnlyForVerifiedToken() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties,
+            requestLogger(meterRegistry), new ObjectMapper(), jwtService, meterRegistry);
+        MockHttpServletRequest valid = new MockHttpServletRequest("GET", "/api/passwords");
+        valid.addHeader("Authorization", "Bearer valid-token");
+        MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/api/passwords");
+        forged.addHeader("Authorization", "Bearer forged-token");
+        MockHttpServletRequest forgedLogin = new MockHttpServletRequest("POST", "/api/auth/login");
+        forgedLogin.addHeader("Authorization", "Bearer forged-token");
+
+        // When / Then
+        assertEquals(ConcurrencyLimitFilter.Priority.VAULT, filter.classify(valid));
+        assertEquals(ConcurrencyLimitFilter.Priority.OTHER, filter.classify(forged));
+        assertEquals(ConcurrencyLimitFilter.Priority.AUTH, filter.classify(forgedLogin));
+    }
+
+    // Журнал без запущенной записи: в этих тестах его вывод не проверяется
+    private static RequestLogger requestLogger(SimpleMeterRegistry meterRegistry) {
+        return new RequestLogger(16, 1.0, "", Duration.ofMillis(200), meterRegistry, mock(TaskScheduler.class));
+    }
+
+    private static long feedWindow(AdaptiveConcurrencyLimit limit, long start, long rtt, int inFlight) {
+        long now = start;
+        for (int i = 0; i < 10; i++) {
+            now += 10 * MILLIS;
+            limit.onSample(rtt, inFlight, now);
+        }
+        return now;
+    }
+}
@@ -0,0 +1,183 @@
+package by.sakhdanil.managmentserver.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Медленные клиенты против встроенного Tomcat с {@link GuardedNioProtocol}
+ */
+class ConnectionGuardTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private ConnectionGuard connectionGuard;
+    private WebServer server;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        ConnectionGuardProperties properties = new ConnectionGuardProperties();
+        properties.setMaxConnectionsPerIp(4);
+        properties.setHeaderTimeout(Duration.ofMillis(500));
+        properties.setMinBodyBytesPerSecond(100);
+        properties.setBodyGracePeriod(Duration.ofMillis(500));
+        properties.setSweepInterval(Duration.ofMillis(100));
+
+        meterRegistry = new SimpleMeterRegistry();
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        connectionGuard = new ConnectionGuard(properties, meterRegistry, taskScheduler);
+        connectionGuard.start();
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new ConnectionGuardConfig().connectionGuardCustomizer(connectionGuard, properties).customize(factory);
+        server = factory.getWebServer(context -> context.addServlet("echo", new EchoServlet()).addMapping("/*"));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        connectionGuard.stop();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void slowHeaders_ConnectionClosedWhileNormalRequestsSucceed() throws Exception {
+        try (Socket attacker = new Socket("127.0.0.1", server.getPort())) {
+            attacker.setSoTimeout(100);
+            OutputStream out = attacker.getOutputStream();
+            out.write("GET / HTTP/1.1\r\nHost: localhost\r\n".getBytes(StandardCharsets.US_ASCII));
+
+            // Заголовок раз в 100ms: таймаут чтения Tomcat каждый раз сбрасывается
+            boolean closed = false;
+            for (int i = 0; i < 30 && !closed; i++) {
+                assertEquals(200, get().statusCode());
+                try {
+                    out.write(("X-Slow-" + i + ": 1\r\n").getBytes(StandardCharsets.US_ASCII));
+                    closed = attacker.getInputStream().read() == -1;
+                } catch (SocketTimeoutException e) {
+                    // соединение еще открыто
+                } catch (IOException e) {
+                    closed = true;
+                }
+            }
+
+            assertTrue(closed, "slow-header connection should be closed");
+        }
+        assertEquals(1.0, meterRegistry.get("connection.guard.closed").tag("reason", "header_timeout").counter().count());
+        assertEquals(200, get().statusCode());
+    }
+
+    @Test
+    void slowBody_ConnectionClosed() throws Exception {
+        try (Socket attacker = new Socket("127.0.0.1", server.getPort())) {
+            attacker.setSoTimeout(3000);
+            OutputStream out = attacker.getOutputStream();
+            out.write("POST / HTTP/1.1\r\nHost: localhost\r\nContent-Length: 10000\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+
+            boolean closed = false;
+            for (int i = 0; i < 30 && !closed; i++) {
+                try {
+                    out.write('a');
+                    out.flush();
+                    Thread.sleep(100);
+                } catch (IOException e) {
+                    closed = true;
+                }
+                closed = closed || meterRegistry.get("connection.guard.closed").tag("reason", "slow_body").counter().count() > 0;
+            }
+
+            assertTrue(closed, "slow-body connection should be closed");
+            assertNotEquals("HTTP/1.1 200", readStatusLine(attacker.getInputStream()));
+        }
+        assertEquals(200, get().statusCode());
+    }
+
+    @Test
+    void connectionsOverPerIpLimit_RejectedAndFreedOnClose() throws Exception {
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                idle.add(new Socket("127.0.0.1", server.getPort()));
+            }
+            waitFor(() -> connectionGuard.connectionCount("127.0.0.1") == 4);
+
+            try (Socket rejected = new Socket("127.0.0.1", server.getPort())) {
+                rejected.setSoTimeout(2000);
+                assertEquals(-1, rejected.getInputStream().read());
+            }
+            assertEquals(1.0, meterRegistry.get("connection.guard.closed").tag("reason", "per_ip_limit").counter().count());
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+
+        waitFor(() -> connectionGuard.connectionCount("127.0.0.1") == 0);
+        assertEquals(200, get().statusCode());
+    }
+
+    private HttpResponse<String> get() throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/")).build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String readStatusLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        try {
+            int c;
+            while ((c = in.read()) != -1 && c != '\r' && line.length() < 12) {
+                line.append((char) c);
+            }
+        } catch (IOException e) {
+            // соединение сброшено
+        }
+        return line.toString();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 50 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class EchoServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.getWriter().write("ok");
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            byte[] body = request.getInputStream().readAllBytes();
+            response.getWriter().write(String.valueOf(body.length));
+        }
+    }
+}
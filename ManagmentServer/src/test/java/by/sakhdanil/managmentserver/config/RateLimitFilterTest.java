@@ -0,0 +1,116 @@
+package by.sakhdanil.managmentserver.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(
+            policy("login-ip", RateLimitProperties.KeyType.IP, 3),
+            policy("login-user", RateLimitProperties.KeyType.USERNAME, 2)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        filter = new RateLimitFilter(properties,
+            new RequestLogger(16, 1.0, "", Duration.ofMillis(200), meterRegistry, taskScheduler),
+            new ObjectMapper(), meterRegistry, taskScheduler);
+    }
+
+    @Test
+    void doFilter_UsernameOverLimit_Returns429AndKeepsBodyForAllowedRequests() throws Exception {
+        // Given
+        MockHttpServletResponse first = login("10.0.0.1", "Alice");
+        MockHttpServletResponse second = login("10.0.0.2", "alice");
+
+        // When
+        MockHttpServletResponse third = login("10.0.0.3", "ALICE");
+
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertNotNull(third.getHeader("Retry-After"));
+        assertTrue(third.getContentAsString().contains("Too many requests"));
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected").tag("policy", "login-user").counter().count());
+    }
+
+    @Test
+    void doFilter_IpOverLimit_OtherClientsNotAffected() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, login("10.0.0.1", "user" + i).getStatus());
+        }
+
+        // When
+        MockHttpServletResponse flooder = login("10.0.0.1", "another");
+        MockHttpServletResponse legitimate = login("10.0.0.9", "legit");
+
+        // Then
+        assertEquals(429, flooder.getStatus());
+        assertEquals(200, legitimate.getStatus());
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected").tag("policy", "login-ip").counter().count());
+    }
+
+    @Test
+    void tokenBucket_RefillsAfterEmissionInterval() {
+        // Given
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+        long second = Duration.ofSeconds(1).toNanos();
+
+        // When & Then
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(second, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(second));
+        assertFalse(bucket.isIdle(second, second));
+        assertTrue(bucket.isIdle(5 * second, second));
+    }
+
+    private MockHttpServletResponse login(String ip, String username) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"secret\"}";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        if (chain.getRequest() != null) {
+            // Контроллер должен получить тело целиком, несмотря на чтение username в фильтре
+            String forwarded = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(body, forwarded);
+        }
+        return response;
+    }
+
+    private static RateLimitProperties.Policy policy(String name, RateLimitProperties.KeyType key, int capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPaths(List.of("/auth/login"));
+        policy.setKey(key);
+        policy.setCapacity(capacity);
+        policy.setPeriod(Duration.ofMinutes(1));
+        return policy;
+    }
+}
@@ -0,0 +1,101 @@
+package by.sakhdanil.managmentserver.config;
+
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordBatchOperation;
+import by.sakhdanil.managmentserver.dto.password.PasswordBatchRequest;
+import by.sakhdanil.managmentserver.dto.password.PasswordRequest;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.dto.sync.SyncChangesResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SmileCodecConfigTest {
+
+    private static final String CIPHERTEXT = "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRIipRkwB0K1Y96Qsv2Lm+31cmzaAILwyt";
+
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    private List<HttpMessageConverter<?>> converters;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<Jackson2ObjectMapperBuilder> builder = mock(ObjectProvider.class);
+        when(builder.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+
+        jsonConverter = new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+        converters = new ArrayList<>(List.of(jsonConverter, new MappingJackson2SmileHttpMessageConverter()));
+        new SmileCodecConfig(builder).extendMessageConverters(converters);
+        smileConverter = (MappingJackson2SmileHttpMessageConverter) converters.get(converters.size() - 1);
+    }
+
+    @Test
+    void extendMessageConverters_KeepsJsonFirstAndSingleSmileConverter() {
+        assertSame(jsonConverter, converters.get(0));
+        assertEquals(1, converters.stream().filter(MappingJackson2SmileHttpMessageConverter.class::isInstance).count());
+        assertTrue(smileConverter.canWrite(SyncChangesResponse.class, SmileCodecConfig.APPLICATION_SMILE));
+    }
+
+    @Test
+    void syncChangesResponse_SmileRoundTrip_PreservesDataAndIsSmallerThanJson() throws Exception {
+        // Given
+        SyncChangesResponse changes = sampleChanges(200);
+
+        // When
+        MockHttpOutputMessage smile = new MockHttpOutputMessage();
+        smileConverter.write(changes, SmileCodecConfig.APPLICATION_SMILE, smile);
+        MockHttpOutputMessage json = new MockHttpOutputMessage();
+        jsonConverter.write(changes, MediaType.APPLICATION_JSON, json);
+        Object decoded = smileConverter.read(SyncChangesResponse.class, new MockHttpInputMessage(smile.getBodyAsBytes()));
+
+        // Then
+        assertEquals(changes, decoded);
+        assertTrue(smile.getBodyAsBytes().length < json.getBodyAsBytes().length,
+            "smile=" + smile.getBodyAsBytes().length + " json=" + json.getBodyAsBytes().length);
+    }
+
+    @Test
+    void passwordBatchRequest_SmileRequestBody_IsReadBack() throws Exception {
+        // Given
+        PasswordBatchRequest request = new PasswordBatchRequest(List.of(
+            new PasswordBatchOperation(BatchOperationType.CREATE, "1", null,
+                new PasswordRequest(CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT)),
+            new PasswordBatchOperation(BatchOperationType.DELETE, "2", 42L, null)
+        ));
+        MockHttpOutputMessage body = new MockHttpOutputMessage();
+        smileConverter.write(request, SmileCodecConfig.APPLICATION_SMILE, body);
+
+        // When
+        Object decoded = smileConverter.read(PasswordBatchRequest.class, new MockHttpInputMessage(body.getBodyAsBytes()));
+
+        // Then
+        assertEquals(request, decoded);
+    }
+
+    static SyncChangesResponse sampleChanges(int entries) {
+        Instant now = Instant.parse("2024-01-15T10:30:00.123Z");
+        List<PasswordResponse> passwords = new ArrayList<>();
+        List<NoteResponse> notes = new ArrayList<>();
+        for (long id = 1; id <= entries / 2; id++) {
+            passwords.add(new PasswordResponse(id, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT, now, now));
+            notes.add(new NoteResponse(id, CIPHERTEXT, CIPHERTEXT, CIPHERTEXT + CIPHERTEXT, now, now));
+        }
+        return new SyncChangesResponse(entries, false, passwords, notes, List.of(7L, 8L), List.of(9L));
+    }
+}
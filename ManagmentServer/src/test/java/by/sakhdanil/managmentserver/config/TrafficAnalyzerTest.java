@@ -0,0 +1,142 @@
+package by.sakhdanil.managmentserver.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TrafficAnalyzerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrafficAnalyzer trafficAnalyzer;
+
+    @BeforeEach
+    void setUp() {
+        TrafficAnalysisProperties properties = new TrafficAnalysisProperties();
+        properties.setMinRequests(500);
+        properties.setTopK(8);
+        meterRegistry = new SimpleMeterRegistry();
+        trafficAnalyzer = new TrafficAnalyzer(properties, meterRegistry, mock(TaskScheduler.class));
+    }
+
+    @Test
+    void record_FloodHiddenInSpoofedAddresses_BlocksOnlyFloodingIp() {
+        // Given: 100000 разных поддельных адресов и один источник, дающий треть трафика
+        String blocked = null;
+        for (int i = 0; i < 100_000; i++) {
+            trafficAnalyzer.record("10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255),
+                "Mozilla/5.0 #" + i, "/auth/login");
+            if (i % 2 == 0) {
+                String result = trafficAnalyzer.record("203.0.113.7", "python-requests", "/api/passwords/" + i);
+                blocked = blocked == null ? result : blocked;
+            }
+        }
+
+        // When
+        String legitimate = trafficAnalyzer.record("192.0.2.10", "Electron", "/api/passwords");
+        Map<String, Object> snapshot = trafficAnalyzer.snapshot();
+
+        // Then
+        assertEquals("ip:203.0.113.7", blocked);
+        assertNull(legitimate);
+        assertTrue(trafficAnalyzer.blockedForSeconds("ip:203.0.113.7") > 0);
+        assertTrue(meterRegistry.get("traffic.blocked").tag("dimension", "ip").counter().count() > 0);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> hitters = (List<Map<String, Object>>) snapshot.get("heavyHitters");
+        assertTrue(hitters.size() <= 8);
+        assertTrue(hitters.stream().anyMatch(h -> "route".equals(h.get("dimension")) && "/api/passwords/{id}".equals(h.get("key"))));
+        assertTrue(hitters.stream().anyMatch(h -> "203.0.113.7".equals(h.get("key")) && Boolean.TRUE.equals(h.get("blocked"))));
+        assertEquals(Map.of("ip:203.0.113.7", ((Map<?, ?>) snapshot.get("blocked")).get("ip:203.0.113.7")),
+            snapshot.get("blocked"));
+    }
+
+    @Test
+    void record_UserAgentWithVictimAddressHashCode_DoesNotBlockVictim() {
+        // Given: user-agent подобран так, что String.hashCode его ключа совпадает с ключом адреса жертвы
+        String victimKey = "ip:192.0.2.55";
+        String userAgent = withHashCode("user_agent:", victimKey.hashCode());
+        assertEquals(victimKey.hashCode(), ("user_agent:" + userAgent).hashCode());
+        for (int i = 0; i < 20_000; i++) {
+            trafficAnalyzer.record("10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255), userAgent, "/auth/login");
+        }
+
+        // When
+        String result = trafficAnalyzer.record("192.0.2.55", "Electron", "/api/passwords");
+
+        // Then
+        assertNull(result);
+        assertEquals(0, trafficAnalyzer.blockedForSeconds(victimKey));
+    }
+
+    @Test
+    void countMinSketch_KeysWithEqualHashCode_AreCountedSeparately() {
+        // Given
+        CountMinSketch.Hasher hasher = new CountMinSketch.Hasher(4);
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        assertEquals("ip:10.0.0.Aa".hashCode(), "ip:10.0.0.BB".hashCode());
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(hasher.hash("ip:10.0.0.Aa"));
+        }
+
+        // Then
+        assertEquals(1000, sketch.estimate(hasher.hash("ip:10.0.0.Aa")));
+        assertEquals(0, sketch.estimate(hasher.hash("ip:10.0.0.BB")));
+    }
+
+    @Test
+    void sipHash24_MatchesReferenceVector() {
+        // Ключ 00..0f, сообщение 00..0e (тестовый вектор из описания SipHash)
+        byte[] message = new byte[15];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+
+        assertEquals(0x726fdb47dd0e0e31L, CountMinSketch.sipHash24(0x0706050403020100L, 0x0f0e0d0c0b0a0908L, new byte[0]));
+        assertEquals(0xa129ca6149be45e5L, CountMinSketch.sipHash24(0x0706050403020100L, 0x0f0e0d0c0b0a0908L, message));
+    }
+
+    @Test
+    void rotate_WindowPassed_ForgetsOldTraffic() {
+        // Given
+        for (int i = 0; i < 300; i++) {
+            trafficAnalyzer.record("198.51.100.1", "curl", "/auth/health");
+        }
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            trafficAnalyzer.rotate();
+        }
+
+        // Then
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> hitters = (List<Map<String, Object>>) trafficAnalyzer.snapshot().get("heavyHitters");
+        assertTrue(hitters.isEmpty());
+        assertEquals(500, trafficAnalyzer.threshold());
+    }
+
+    // Дописывает к префиксу 7 символов 'A'..'_' так, чтобы String.hashCode результата был равен target
+    private static String withHashCode(String prefix, int target) {
+        long power = 1;
+        long offset = 0;
+        for (int i = 0; i < 7; i++) {
+            offset += 'A' * power;
+            power *= 31;
+        }
+        long remainder = Integer.toUnsignedLong(target - prefix.hashCode() * (int) power - (int) offset);
+        char[] suffix = new char[7];
+        for (int i = 6; i >= 0; i--) {
+            suffix[i] = (char) ('A' + remainder % 31);
+            remainder /= 31;
+        }
+        return new String(suffix);
+    }
+}
@@ -4,13 +4,23 @@ import by.sakhdanil.managmentserver.dto.note.NoteRequest;
 import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.service.SecureNoteService;
+import by.sakhdanil.managmentserver.service.VaultListingCache;
+import by.sakhdanil.managmentserver.service.VaultVersionService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.Instant;
 import java.util.List;
@@ -19,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,7 +38,11 @@ class NoteControllerUnitTest {
     @Mock
     private SecureNoteService noteService;
 
-    @InjectMocks
+    @Mock
+    private VaultVersionService vaultVersions;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
     private NoteController noteController;
 
     private User testUser;
@@ -36,6 +51,9 @@ class NoteControllerUnitTest {
 
     @BeforeEach
     void setUp() {
+        noteController = new NoteController(noteService, new VaultListingCache(vaultVersions,
+            objectMapper, Jackson2ObjectMapperBuilder.json(), new SimpleMeterRegistry(), DataSize.ofMegabytes(1)));
+
         testUser = new User();
         testUser.setId("test-user-id");
         testUser.setUsername("testuser");
@@ -45,22 +63,73 @@ class NoteControllerUnitTest {
     }
 
     @Test
-    void getAllNotes_ReturnsNotesList() {
+    void getAllNotes_ReturnsNotesList() throws Exception {
         // Given
+        when(vaultVersions.etag("test-user-id", "notes")).thenReturn("\"notes-3\"");
+        when(vaultVersions.current("test-user-id")).thenReturn(3L);
         when(noteService.getAllNotes(any(User.class))).thenReturn(List.of(noteResponse));
+        MockHttpServletResponse response = new MockHttpServletResponse();
 
         // When
-        ResponseEntity<List<NoteResponse>> result = noteController.getAllNotes(testUser);
+        ResponseEntity<byte[]> result = noteController.getAllNotes(testUser,
+            new ServletWebRequest(new MockHttpServletRequest("GET", "/api/notes"), response), response);
 
         // Then
         assertNotNull(result);
         assertEquals(200, result.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
         assertNotNull(result.getBody());
-        assertEquals(1, result.getBody().size());
-        assertEquals(1L, result.getBody().get(0).id());
-        assertEquals("encrypted-title", result.getBody().get(0).encryptedTitle());
-        assertEquals("encrypted-type", result.getBody().get(0).encryptedType());
-        assertEquals("encrypted-data", result.getBody().get(0).encryptedData());
+        List<NoteResponse> notes = objectMapper.readValue(result.getBody(), new TypeReference<>() {});
+        assertEquals(1, notes.size());
+        assertEquals(1L, notes.get(0).id());
+        assertEquals("encrypted-title", notes.get(0).encryptedTitle());
+        assertEquals("encrypted-type", notes.get(0).encryptedType());
+        assertEquals("encrypted-data", notes.get(0).encryptedData());
+        assertEquals("\"notes-3\"", response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+    }
+
+    @Test
+    void getAllNotes_MatchingIfNoneMatch_ReturnsNotModifiedWithoutQuery() {
+        // Given
+        when(vaultVersions.etag("test-user-id", "notes")).thenReturn("\"notes-3\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.addHeader("If-None-Match", "\"notes-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<byte[]> result = noteController.getAllNotes(testUser,
+            new ServletWebRequest(request, response), response);
+
+        // Then
+        assertNull(result);
+        assertEquals(304, response.getStatus());
+        assertEquals("\"notes-3\"", response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+        verifyNoInteractions(noteService);
+    }
+
+    @Test
+    void getAllNotes_SmileAccept_JsonETagDoesNotMatch() {
+        // Given
+        when(vaultVersions.etag("test-user-id", "notes-smile")).thenReturn("\"notes-smile-3\"");
+        when(vaultVersions.current("test-user-id")).thenReturn(3L);
+        when(noteService.getAllNotes(any(User.class))).thenReturn(List.of(noteResponse));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.addHeader("Accept", "application/x-jackson-smile");
+        request.addHeader("If-None-Match", "\"notes-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<byte[]> result = noteController.getAllNotes(testUser,
+            new ServletWebRequest(request, response), response);
+
+        // Then: ETag JSON-представления не подходит для Smile
+        assertNotNull(result);
+        assertEquals(200, result.getStatusCodeValue());
+        assertEquals("application/x-jackson-smile", result.getHeaders().getContentType().toString());
+        assertEquals("\"notes-smile-3\"", response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
     }
 
     @Test
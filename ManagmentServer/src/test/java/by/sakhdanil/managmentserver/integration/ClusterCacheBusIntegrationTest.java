@@ -0,0 +1,156 @@
+package by.sakhdanil.managmentserver.integration;
+
+import by.sakhdanil.managmentserver.ManagmentServerApplication;
+import by.sakhdanil.managmentserver.dto.password.PasswordRequest;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import by.sakhdanil.managmentserver.service.CacheEvent;
+import by.sakhdanil.managmentserver.service.ClusterCacheBus;
+import by.sakhdanil.managmentserver.service.PasswordEntryService;
+import by.sakhdanil.managmentserver.service.PrincipalCache;
+import by.sakhdanil.managmentserver.service.VaultVersionService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Два экземпляра сервера на одной базе (встроенный PostgreSQL): изменение на одном
+ * сбрасывает кэши другого через LISTEN/NOTIFY, в том числе после разрыва соединения шины.
+ */
+class ClusterCacheBusIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        first = startNode();
+        second = startNode();
+        awaitListening();
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void vaultChangeOnOneNode_AdvancesVersionOnOther() {
+        // Given
+        User user = persistUser("vault-owner");
+        VaultVersionService secondVersions = second.getBean(VaultVersionService.class);
+        assertEquals(0L, secondVersions.current(user.getId()));
+
+        // When
+        first.getBean(PasswordEntryService.class)
+            .createPassword(new PasswordRequest("title", "site", "login", "password", "type"), user);
+
+        // Then
+        await(() -> secondVersions.current(user.getId()) == 1L);
+    }
+
+    @Test
+    void principalChangeOnOneNode_EvictsPrincipalOnOther() {
+        // Given
+        User user = persistUser("principal-owner");
+        PrincipalCache secondPrincipals = second.getBean(PrincipalCache.class);
+        secondPrincipals.get(user.getUsername());
+        int cached = secondPrincipals.size();
+
+        // When
+        first.getBean(ClusterCacheBus.class).publishAfterCommit(CacheEvent.principal(user.getUsername()));
+
+        // Then
+        await(() -> secondPrincipals.size() == cached - 1);
+    }
+
+    @Test
+    void busConnectionTerminated_ReconnectsAndResetsCaches() {
+        // Given
+        User user = persistUser("reconnect-owner");
+        PrincipalCache secondPrincipals = second.getBean(PrincipalCache.class);
+        VaultVersionService secondVersions = second.getBean(VaultVersionService.class);
+        secondPrincipals.get(user.getUsername());
+        assertEquals(0L, secondVersions.current(user.getId()));
+
+        // When
+        first.getBean(JdbcTemplate.class).queryForList(
+            "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = 'cluster-cache-bus'");
+
+        // Then
+        await(() -> secondPrincipals.size() == 0);
+        awaitListening();
+        first.getBean(PasswordEntryService.class)
+            .createPassword(new PasswordRequest("title", "site", "login", "password", "type"), user);
+        await(() -> secondVersions.current(user.getId()) == 1L);
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        // Аргументы командной строки перекрывают application.yaml, в отличие от properties(...)
+        return new SpringApplicationBuilder(ManagmentServerApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.docker.compose.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--cluster.cache-bus.enabled=true",
+                "--cluster.cache-bus.batch-window=20ms",
+                "--cluster.cache-bus.initial-backoff=100ms",
+                // Версия хранилища обновляется только через шину, не по сроку жизни
+                "--vault.version-cache.ttl=1h");
+    }
+
+    private static User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setSalt("salt");
+        user.setPasswordHash("hash");
+        return first.getBean(UserRepository.class).save(user);
+    }
+
+    private static void awaitListening() {
+        await(() -> first.getBean(ClusterCacheBus.class).isListening()
+            && second.getBean(ClusterCacheBus.class).isListening());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + TIMEOUT);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
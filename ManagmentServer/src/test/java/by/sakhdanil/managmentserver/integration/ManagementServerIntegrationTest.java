@@ -114,6 +114,44 @@ class ManagementServerIntegrationTest {
         assertEquals(HttpStatus.FORBIDDEN, response2.getStatusCode());
     }
 
+    @Test
+    void actuatorMetrics_RequireOperatorCredentials() {
+        // В тестах экспорт в Prometheus выключен, проверяем ту же цепочку на /actuator/metrics.
+        // Без учетных данных и с пользовательским токеном метрики недоступны
+        // (отказ доходит до клиента как 403 после перенаправления на /error, как и для /api/**)
+        ResponseEntity<String> anonymous = restTemplate.getForEntity("/actuator/metrics", String.class);
+        assertEquals(HttpStatus.FORBIDDEN, anonymous.getStatusCode());
+
+        HttpHeaders bearer = new HttpHeaders();
+        bearer.setBearerAuth("invalid-token");
+        ResponseEntity<String> withToken = restTemplate.exchange(
+            "/actuator/metrics", HttpMethod.GET, new HttpEntity<>(bearer), String.class);
+        assertEquals(HttpStatus.FORBIDDEN, withToken.getStatusCode());
+
+        ResponseEntity<String> wrongPassword = restTemplate.withBasicAuth("actuator", "wrong")
+            .getForEntity("/actuator/metrics", String.class);
+        assertEquals(HttpStatus.FORBIDDEN, wrongPassword.getStatusCode());
+
+        // Оператор со своим паролем получает метрики, health остается публичным
+        ResponseEntity<String> operator = restTemplate.withBasicAuth("actuator", "test-actuator-password")
+            .getForEntity("/actuator/metrics", String.class);
+        assertEquals(HttpStatus.OK, operator.getStatusCode());
+
+        ResponseEntity<String> health = restTemplate.getForEntity("/actuator/health", String.class);
+        assertEquals(HttpStatus.OK, health.getStatusCode());
+    }
+
+    @Test
+    void heavyHittersReport_RequiresOperatorCredentials() {
+        // Отчет содержит адреса и user-agent других клиентов
+        ResponseEntity<String> anonymous = restTemplate.getForEntity("/actuator/heavyhitters", String.class);
+        assertEquals(HttpStatus.FORBIDDEN, anonymous.getStatusCode());
+
+        ResponseEntity<String> operator = restTemplate.withBasicAuth("actuator", "test-actuator-password")
+            .getForEntity("/actuator/heavyhitters", String.class);
+        assertEquals(HttpStatus.OK, operator.getStatusCode());
+    }
+
     @Test
     void registerExistingUser_ReturnsError() {
         // Register first user
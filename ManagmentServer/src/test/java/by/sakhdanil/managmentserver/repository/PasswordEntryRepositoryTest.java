@@ -0,0 +1,127 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.dto.listing.EntrySummary;
+import by.sakhdanil.managmentserver.dto.listing.ListingPage;
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.service.PasswordEntryService;
+import by.sakhdanil.managmentserver.service.SyncChangeLogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class PasswordEntryRepositoryTest {
+
+    private static final int ENTRIES = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PasswordEntryRepository passwordRepository;
+
+    private PasswordEntryService passwordService;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        passwordService = new PasswordEntryService(passwordRepository, mock(SyncChangeLogService.class));
+
+        owner = persistUser("owner");
+        User other = persistUser("other");
+
+        // По три записи на одно время обновления: порядок внутри него задает id
+        Instant base = Instant.parse("2024-01-15T10:00:00Z");
+        for (int i = 0; i < ENTRIES; i++) {
+            persistPassword(owner, "title" + i, base.plusSeconds(i / 3));
+        }
+        persistPassword(other, "foreign", base.plusSeconds(3600));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getPasswordSummaries_WalkAllPages_ReturnsEachEntryOnceNewestFirst() {
+        // Given
+        List<EntrySummary> seen = new ArrayList<>();
+        String cursor = null;
+
+        // When
+        do {
+            ListingPage<EntrySummary> page = passwordService.getPasswordSummaries(owner, cursor, 4);
+            assertTrue(page.items().size() <= 4);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(ENTRIES, seen.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < seen.size(); i++) {
+            assertTrue(ids.add(seen.get(i).id()));
+            assertNotEquals("foreign", seen.get(i).encryptedTitle());
+            if (i > 0) {
+                EntrySummary previous = seen.get(i - 1);
+                assertTrue(previous.updatedAt().isAfter(seen.get(i).updatedAt())
+                    || previous.updatedAt().equals(seen.get(i).updatedAt()) && previous.id() > seen.get(i).id());
+            }
+        }
+        assertEquals("title24", seen.get(0).encryptedTitle());
+    }
+
+    @Test
+    void getPasswordPage_FullFields_ReturnsCiphertextAndStopsOnLastPage() {
+        // When
+        ListingPage<PasswordResponse> first = passwordService.getPasswordPage(owner, null, 20);
+        ListingPage<PasswordResponse> last = passwordService.getPasswordPage(owner, first.nextCursor(), 20);
+
+        // Then
+        assertEquals(20, first.items().size());
+        assertNotNull(first.nextCursor());
+        assertEquals("password", first.items().get(0).encryptedPassword());
+        assertEquals(ENTRIES - 20, last.items().size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void getPasswordSummaries_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            passwordService.getPasswordSummaries(owner, "not-a-cursor", 10));
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setSalt("salt");
+        user.setPasswordHash("hash");
+        return entityManager.persist(user);
+    }
+
+    private void persistPassword(User user, String title, Instant updatedAt) {
+        PasswordEntry password = new PasswordEntry();
+        password.setUser(user);
+        password.setEncryptedTitle(title);
+        password.setEncryptedSite("site");
+        password.setEncryptedLogin("login");
+        password.setEncryptedPassword("password");
+        password.setEncryptedType("type");
+        password.setUpdatedAt(updatedAt);
+        entityManager.persist(password);
+    }
+}
@@ -0,0 +1,128 @@
+package by.sakhdanil.managmentserver.repository;
+
+import by.sakhdanil.managmentserver.entity.SingleUseToken;
+import by.sakhdanil.managmentserver.service.SingleUseTokenService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Запросы одноразовых токенов на схеме из миграций Flyway (встроенный PostgreSQL):
+ * планы проверяются по индексам V13, а не по схеме, которую Hibernate строит в H2.
+ * Таблицы заполняются один раз на класс; каждый тест откатывает свои изменения.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SingleUseTokenRepositoryTest {
+
+    private static final int USERS = 10_000;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SingleUseTokenRepository tokenRepository;
+
+    private SingleUseTokenService tokenService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        // Вне транзакции теста: данные общие для всех тестов класса. Истек каждый 20-й токен
+        jdbcTemplate.update("INSERT INTO users (id, username, email, salt, password_hash, email_verified) " +
+            "SELECT 'user-' || i, 'user' || i, 'user' || i || '@example.com', 'salt', 'hash', TRUE " +
+            "FROM generate_series(0, ?) AS i", USERS - 1);
+        jdbcTemplate.update("INSERT INTO single_use_tokens (id, token_hash, purpose, user_id, expires_at) " +
+            "SELECT nextval('single_use_tokens_id_seq'), encode(sha256(convert_to('TOKEN' || i, 'UTF8')), 'hex'), " +
+            "'TRANSFER', 'user-' || i, " +
+            "CASE WHEN i % 20 = 0 THEN LOCALTIMESTAMP - INTERVAL '1 second' ELSE LOCALTIMESTAMP + INTERVAL '5 minutes' END " +
+            "FROM generate_series(0, ?) AS i", USERS - 1);
+        // Статистика и карта видимости, как у давно работающей таблицы: без них планировщик выбирает иначе
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        jdbcTemplate.execute("VACUUM ANALYZE single_use_tokens");
+        tokenService = new SingleUseTokenService(tokenRepository);
+    }
+
+    @Test
+    void consume_ValidToken_ReturnsOwnerOnlyOnce() {
+        // When & Then
+        assertEquals("user-4321", tokenService.consume("TOKEN4321", SingleUseToken.Purpose.TRANSFER).orElseThrow());
+        assertTrue(tokenService.consume("TOKEN4321", SingleUseToken.Purpose.TRANSFER).isEmpty());
+        assertTrue(tokenService.consume("TOKEN4320", SingleUseToken.Purpose.TRANSFER).isEmpty()); // истек
+        assertTrue(tokenService.consume("UNKNOWN", SingleUseToken.Purpose.TRANSFER).isEmpty());
+    }
+
+    @Test
+    void findUserId_LargeTable_UsesIndexOnlyScanOnTokenHash() {
+        // When
+        String plan = explain("SELECT user_id FROM single_use_tokens " +
+            "WHERE token_hash = 'abc' AND purpose = 'TRANSFER' AND expires_at > LOCALTIMESTAMP");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using ux_single_use_tokens_hash"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void findExpiredIds_LargeTable_ReadsBoundedBatchByExpiresIndex() {
+        // When
+        var firstBatch = tokenRepository.findExpiredIds(Instant.now(), PageRequest.of(0, 200));
+        String plan = explain("SELECT id FROM single_use_tokens WHERE expires_at <= LOCALTIMESTAMP LIMIT 200");
+
+        // Then
+        assertEquals(200, firstBatch.size());
+        assertTrue(plan.contains("idx_single_use_tokens_expires"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void issue_ExistingToken_RevokesPreviousToken() {
+        // When
+        tokenService.issue("user-7", SingleUseToken.Purpose.TRANSFER, "NEWTOKEN7", Instant.now().plusSeconds(300));
+
+        // Then
+        assertTrue(tokenService.consume("TOKEN7", SingleUseToken.Purpose.TRANSFER).isEmpty());
+        assertEquals("user-7", tokenService.consume("NEWTOKEN7", SingleUseToken.Purpose.TRANSFER).orElseThrow());
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -88,4 +91,20 @@ class UserRepositoryTest {
         assertNotNull(savedUser.getCreatedAt());
         assertNotNull(savedUser.getUpdatedAt());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findAbandonedUnverified_UnverifiedUserWithEmptyVault_ReturnsIdAndUsername() {
+        // Given
+        testUser.setEmail("testuser@example.com");
+        User saved = entityManager.persistAndFlush(testUser);
+
+        // When
+        List<UserRepository.AbandonedUser> abandoned =
+            userRepository.findAbandonedUnverified(Instant.now().plusSeconds(60), PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(1, abandoned.size());
+        assertEquals(saved.getId(), abandoned.get(0).getId());
+        assertEquals("testuser", abandoned.get(0).getUsername());
+    }
+}
@@ -0,0 +1,158 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.backup.BackupImportMode;
+import by.sakhdanil.managmentserver.dto.backup.BackupImportResponse;
+import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.PasswordEntryRepository;
+import by.sakhdanil.managmentserver.repository.SecureNoteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BackupServiceTest {
+
+    @Mock
+    private SecureNoteRepository noteRepository;
+
+    @Mock
+    private PasswordEntryRepository passwordRepository;
+
+    @Mock
+    private SyncChangeLogService changeLogService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private BackupService backupService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        backupService = new BackupService(
+            noteRepository,
+            passwordRepository,
+            new SecureNoteService(noteRepository, changeLogService),
+            new PasswordEntryService(passwordRepository, changeLogService),
+            changeLogService,
+            objectMapper,
+            entityManager
+        );
+
+        ReflectionTestUtils.setField(backupService, "importMaxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(backupService, "importMaxEntries", 10);
+
+        testUser = new User();
+        testUser.setId("test-user-id");
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void exportTo_WritesAllEntriesAndDetachesThem() throws Exception {
+        // Given
+        SecureNote note = new SecureNote();
+        note.setId(1L);
+        note.setEncryptedTitle("encrypted-note-title");
+        note.setEncryptedType("encrypted-note-type");
+        note.setEncryptedData("encrypted-note-data");
+        note.setCreatedAt(Instant.now());
+        note.setUpdatedAt(Instant.now());
+
+        PasswordEntry password = new PasswordEntry();
+        password.setId(2L);
+        password.setEncryptedTitle("encrypted-password-title");
+        password.setCreatedAt(Instant.now());
+        password.setUpdatedAt(Instant.now());
+
+        when(noteRepository.streamByUser(testUser)).thenReturn(Stream.of(note));
+        when(passwordRepository.streamByUser(testUser)).thenReturn(Stream.of(password));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        backupService.exportTo(testUser, out);
+
+        // Then
+        JsonNode backup = objectMapper.readTree(out.toByteArray());
+        assertEquals(1, backup.get("notes").size());
+        assertEquals("encrypted-note-data", backup.get("notes").get(0).get("encryptedData").asText());
+        assertEquals(1, backup.get("passwords").size());
+        assertEquals(2L, backup.get("passwords").get(0).get("id").asLong());
+        assertEquals("test-user-id", backup.get("userId").asText());
+        assertTrue(backup.has("exportedAt"));
+        verify(entityManager).detach(note);
+        verify(entityManager).detach(password);
+    }
+
+    @Test
+    void importFrom_Merge_UpdatesOwnEntriesCreatesOthersAndSkipsInvalid() throws Exception {
+        // Given
+        SecureNote existingNote = new SecureNote();
+        existingNote.setId(1L);
+        existingNote.setUser(testUser);
+        existingNote.setEncryptedTitle("old-title");
+
+        when(noteRepository.findByUserAndIdIn(eq(testUser), anyCollection())).thenReturn(List.of(existingNote));
+        String backup = """
+            {
+              "notes": [
+                {"id": 1, "encryptedTitle": "new-title", "encryptedType": "type", "encryptedData": "data"},
+                {"id": 99, "encryptedTitle": "title", "encryptedType": "type", "encryptedData": "data"},
+                {"encryptedTitle": "", "encryptedType": "type", "encryptedData": "data"}
+              ],
+              "passwords": [],
+              "exportedAt": "2024-01-15T12:00:00Z",
+              "userId": "test-user-id"
+            }
+            """;
+
+        // When
+        BackupImportResponse response = backupService.importFrom(testUser,
+            new ByteArrayInputStream(backup.getBytes(StandardCharsets.UTF_8)), BackupImportMode.MERGE);
+
+        // Then
+        assertEquals(2, response.notesImported());
+        assertEquals(0, response.passwordsImported());
+        assertEquals(1, response.skipped());
+        assertEquals("new-title", existingNote.getEncryptedTitle());
+        verify(noteRepository).saveAll(argThat(created -> ((List<?>) created).size() == 1));
+        verify(entityManager).flush();
+        verify(changeLogService).recordAll(eq(testUser), argThat(changes -> changes.size() == 2));
+    }
+
+    @Test
+    void importFrom_TooManyEntries_ThrowsException() {
+        // Given
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 11; i++) {
+            notes.append(i == 0 ? "" : ",")
+                .append("{\"encryptedTitle\":\"t\",\"encryptedType\":\"t\",\"encryptedData\":\"d\"}");
+        }
+        byte[] backup = ("{\"notes\":[" + notes + "]}").getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () ->
+            backupService.importFrom(testUser, new ByteArrayInputStream(backup), BackupImportMode.REPLACE));
+    }
+}
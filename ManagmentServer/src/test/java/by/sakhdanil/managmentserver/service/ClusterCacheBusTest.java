@@ -0,0 +1,74 @@
+package by.sakhdanil.managmentserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ClusterCacheBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void encode_ManyEvents_SplitsUnderNotifyLimitAndKeepsOrder() throws Exception {
+        // Given
+        List<CacheEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(CacheEvent.vault("00000000-0000-0000-0000-" + String.format("%012d", i)));
+        }
+
+        // When
+        List<String> payloads = ClusterCacheBus.encode(objectMapper, "node-1", true, events);
+
+        // Then
+        assertTrue(payloads.size() > 1);
+        List<CacheEvent> decoded = new ArrayList<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            assertTrue(payloads.get(i).getBytes(StandardCharsets.UTF_8).length < 8000);
+            ClusterCacheBus.Message message = objectMapper.readValue(payloads.get(i), ClusterCacheBus.Message.class);
+            assertEquals("node-1", message.node());
+            // Полный сброс запрашивается один раз, в первом сообщении
+            assertEquals(i == 0, message.resync());
+            decoded.addAll(message.events());
+        }
+        assertEquals(events, decoded);
+    }
+
+    @Test
+    void encode_ResyncWithoutEvents_SendsSingleMessage() throws Exception {
+        // When
+        List<String> payloads = ClusterCacheBus.encode(objectMapper, "node-1", true, List.of());
+
+        // Then
+        assertEquals(1, payloads.size());
+        ClusterCacheBus.Message message = objectMapper.readValue(payloads.get(0), ClusterCacheBus.Message.class);
+        assertTrue(message.resync());
+        assertTrue(message.events().isEmpty());
+    }
+
+    @Test
+    void publishAfterCommit_Disabled_DoesNotTouchDatabaseOrListeners() {
+        // Given
+        CacheEventListener listener = mock(CacheEventListener.class);
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        ClusterCacheBus bus = new ClusterCacheBus(List.of(listener), objectMapper, new SimpleMeterRegistry(), taskScheduler,
+            false, "jdbc:postgresql://unreachable/db", "", "",
+            Duration.ofMillis(50), 10, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        bus.start();
+
+        // When
+        bus.publishAfterCommit(CacheEvent.vault("user-1"));
+
+        // Then
+        assertFalse(bus.isListening());
+        verifyNoInteractions(listener, taskScheduler);
+    }
+}
@@ -0,0 +1,148 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.OutboxEmail;
+import by.sakhdanil.managmentserver.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxWorkerTest {
+
+    @Mock
+    private OutboxEmailRepository outboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    private EmailOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new EmailOutboxWorker(outboxRepository, mailSender, new TransactionTemplate(transactionManager),
+            meterRegistry, submitted::add, taskScheduler, "noreply@test.com", 50, Duration.ofSeconds(1), 3,
+            Duration.ofSeconds(5), Duration.ofMinutes(5), Duration.ofHours(24));
+    }
+
+    @Test
+    void deliverDue_SendsWholeBatchInOneCallAndMarksSent() {
+        // Given
+        OutboxEmail first = pendingEmail("first@example.com");
+        OutboxEmail second = pendingEmail("second@example.com");
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(first, second));
+
+        // When
+        int delivered = worker.deliverDue();
+
+        // Then
+        assertEquals(2, delivered);
+        ArgumentCaptor<SimpleMailMessage[]> sent = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(mailSender, times(1)).send(sent.capture());
+        assertEquals(2, sent.getValue().length);
+        assertEquals(OutboxEmail.Status.SENT, first.getStatus());
+        assertEquals(OutboxEmail.Status.SENT, second.getStatus());
+        assertNotNull(first.getSentAt());
+        assertEquals(2, meterRegistry.get("email.delivery.latency").timer().count());
+    }
+
+    @Test
+    void wakeUpAfterCommit_NoTransaction_SendsOnceOnTaskExecutor() {
+        // Given
+        OutboxEmail email = pendingEmail("user@example.com");
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(email));
+
+        // When: два письма подряд, пока отправка еще не началась
+        worker.wakeUpAfterCommit();
+        worker.wakeUpAfterCommit();
+
+        // Then: одна задача в исполнителе, отправка только в ней
+        assertEquals(1, submitted.size());
+        verifyNoInteractions(mailSender);
+        submitted.get(0).run();
+        verify(mailSender, times(1)).send(any(SimpleMailMessage[].class));
+        assertEquals(OutboxEmail.Status.SENT, email.getStatus());
+    }
+
+    @Test
+    void deliverDue_OneMessageFails_RetriesOnlyItWithBackoff() {
+        // Given
+        OutboxEmail ok = pendingEmail("ok@example.com");
+        OutboxEmail broken = pendingEmail("broken@example.com");
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(ok, broken));
+        doAnswer(invocation -> {
+            SimpleMailMessage failedMessage = invocation.getArgument(1);
+            throw new MailSendException(Map.of(failedMessage, new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+        Instant before = Instant.now();
+
+        // When
+        worker.deliverDue();
+
+        // Then
+        assertEquals(OutboxEmail.Status.SENT, ok.getStatus());
+        assertEquals(OutboxEmail.Status.PENDING, broken.getStatus());
+        assertEquals(1, broken.getAttempts());
+        assertEquals("550 mailbox unavailable", broken.getLastError());
+        assertFalse(broken.getNextAttemptAt().isBefore(before.plusSeconds(5)));
+    }
+
+    @Test
+    void deliverDue_AttemptsExhausted_MarksFailed() {
+        // Given
+        OutboxEmail email = pendingEmail("user@example.com");
+        email.setAttempts(2);
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(email));
+        doThrow(new MailAuthenticationException("535 authentication failed"))
+            .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // When
+        worker.deliverDue();
+
+        // Then
+        assertEquals(OutboxEmail.Status.FAILED, email.getStatus());
+        assertEquals(3, email.getAttempts());
+        assertEquals(1.0, meterRegistry.get("email.delivery").tag("result", "failed").counter().count());
+    }
+
+    private static OutboxEmail pendingEmail(String recipient) {
+        OutboxEmail email = new OutboxEmail();
+        email.setDedupKey("SYNC_SETUP:" + recipient);
+        email.setRecipient(recipient);
+        email.setSubject("Password Manager - Sync Setup Verification");
+        email.setBody("code");
+        email.setStatus(OutboxEmail.Status.PENDING);
+        email.setNextAttemptAt(Instant.now());
+        email.setCreatedAt(Instant.now());
+        return email;
+    }
+}
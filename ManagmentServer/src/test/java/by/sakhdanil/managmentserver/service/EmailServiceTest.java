@@ -0,0 +1,91 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.entity.OutboxEmail;
+import by.sakhdanil.managmentserver.repository.OutboxEmailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceTest {
+
+    @Mock
+    private OutboxEmailRepository outboxRepository;
+
+    @Mock
+    private EmailOutboxWorker emailOutboxWorker;
+
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailService(outboxRepository, emailOutboxWorker);
+        ReflectionTestUtils.setField(emailService, "appName", "Password Manager");
+    }
+
+    @Test
+    void sendSyncSetupOtp_NoPendingEmail_QueuesNewEmailAndWakesWorker() {
+        // Given
+        when(outboxRepository.findFirstByDedupKeyAndStatus("SYNC_SETUP:testuser", OutboxEmail.Status.PENDING))
+            .thenReturn(Optional.empty());
+
+        // When
+        emailService.sendSyncSetupOtp("test@example.com", "testuser", "123456");
+
+        // Then
+        ArgumentCaptor<OutboxEmail> saved = ArgumentCaptor.forClass(OutboxEmail.class);
+        verify(outboxRepository).save(saved.capture());
+        assertEquals(OutboxEmail.Status.PENDING, saved.getValue().getStatus());
+        assertEquals("test@example.com", saved.getValue().getRecipient());
+        assertTrue(saved.getValue().getBody().contains("123456"));
+        assertFalse(saved.getValue().getNextAttemptAt().isAfter(Instant.now()));
+        verify(emailOutboxWorker).wakeUpAfterCommit();
+    }
+
+    @Test
+    void sendSyncSetupOtp_PendingEmailExists_ReplacesItsCode() {
+        // Given
+        OutboxEmail pending = new OutboxEmail();
+        pending.setDedupKey("SYNC_SETUP:testuser");
+        pending.setStatus(OutboxEmail.Status.PENDING);
+        pending.setBody("old code 111111");
+        when(outboxRepository.findFirstByDedupKeyAndStatus("SYNC_SETUP:testuser", OutboxEmail.Status.PENDING))
+            .thenReturn(Optional.of(pending));
+
+        // When
+        emailService.sendSyncSetupOtp("test@example.com", "testuser", "222222");
+
+        // Then
+        verify(outboxRepository).save(pending);
+        assertTrue(pending.getBody().contains("222222"));
+        assertFalse(pending.getBody().contains("111111"));
+        verify(emailOutboxWorker).recordCollapsed();
+    }
+
+    @Test
+    void sendCloudLoginOtp_PreviousEmailAlreadySent_QueuesReplacementImmediately() {
+        // Given: письмо с прошлым кодом уже ушло, в очереди ничего нет
+        when(outboxRepository.findFirstByDedupKeyAndStatus("CLOUD_LOGIN:testuser", OutboxEmail.Status.PENDING))
+            .thenReturn(Optional.empty());
+
+        // When
+        emailService.sendCloudLoginOtp("test@example.com", "testuser", "654321");
+
+        // Then: новый код действует сразу, поэтому письмо не откладывается
+        ArgumentCaptor<OutboxEmail> saved = ArgumentCaptor.forClass(OutboxEmail.class);
+        verify(outboxRepository).save(saved.capture());
+        assertTrue(saved.getValue().getBody().contains("654321"));
+        assertFalse(saved.getValue().getNextAttemptAt().isAfter(Instant.now()));
+        verify(emailOutboxWorker).wakeUpAfterCommit();
+    }
+}
@@ -0,0 +1,95 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.repository.SingleUseTokenRepository;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredDataSweeperTest {
+
+    @Mock
+    private SingleUseTokenRepository tokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private ClusterCacheBus cacheBus;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private ExpiredDataSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new ExpiredDataSweeper(tokenRepository, userRepository, principalCache, cacheBus,
+            new TransactionTemplate(transactionManager), taskScheduler,
+            Duration.ofMinutes(1), 500, Duration.ofDays(7));
+    }
+
+    @Test
+    void sweep_AbandonedUsers_DeletesAndEvictsPrincipalsEverywhere() {
+        // Given
+        when(tokenRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+        when(userRepository.findAbandonedUnverified(any(), any()))
+            .thenReturn(List.of(abandoned("id-1", "alice"), abandoned("id-2", "bob")));
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(userRepository).deleteAllByIdInBatch(List.of("id-1", "id-2"));
+        verify(principalCache).invalidate("alice");
+        verify(principalCache).invalidate("bob");
+        verify(cacheBus).publishAfterCommit(CacheEvent.principal("alice"));
+        verify(cacheBus).publishAfterCommit(CacheEvent.principal("bob"));
+    }
+
+    @Test
+    void sweep_NothingAbandoned_LeavesCachesAlone() {
+        // Given
+        when(tokenRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+        when(userRepository.findAbandonedUnverified(any(), any())).thenReturn(List.of());
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(userRepository, never()).deleteAllByIdInBatch(any());
+        verifyNoInteractions(principalCache, cacheBus);
+    }
+
+    private static UserRepository.AbandonedUser abandoned(String id, String username) {
+        return new UserRepository.AbandonedUser() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package by.sakhdanil.managmentserver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class InMemoryOtpStoreTest {
+
+    private OtpProperties properties;
+    private InMemoryOtpStore otpStore;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OtpProperties();
+        properties.setMaxAttempts(3);
+        otpStore = new InMemoryOtpStore(properties, mock(TaskScheduler.class));
+    }
+
+    @Test
+    void verify_ValidCode_SucceedsOnlyOnce() {
+        // Given
+        otpStore.put("testuser", "SYNC_SETUP", "123456");
+
+        // When & Then
+        assertFalse(otpStore.verify("testuser", "CLOUD_LOGIN", "123456"));
+        assertTrue(otpStore.verify("testuser", "SYNC_SETUP", "123456"));
+        assertFalse(otpStore.verify("testuser", "SYNC_SETUP", "123456"));
+    }
+
+    @Test
+    void verify_TooManyWrongCodes_InvalidatesCode() {
+        // Given
+        otpStore.put("testuser", "ACCOUNT_RECOVERY", "123456");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertFalse(otpStore.verify("testuser", "ACCOUNT_RECOVERY", "000000"));
+        }
+
+        // Then
+        assertFalse(otpStore.verify("testuser", "ACCOUNT_RECOVERY", "123456"));
+    }
+
+    @Test
+    void put_NewCode_ReplacesPreviousAndResetsAttempts() {
+        // Given
+        otpStore.put("testuser", "CLOUD_LOGIN", "111111");
+        otpStore.verify("testuser", "CLOUD_LOGIN", "000000");
+        otpStore.verify("testuser", "CLOUD_LOGIN", "000000");
+
+        // When
+        otpStore.put("testuser", "CLOUD_LOGIN", "222222");
+
+        // Then
+        assertFalse(otpStore.verify("testuser", "CLOUD_LOGIN", "111111"));
+        assertFalse(otpStore.verify("testuser", "CLOUD_LOGIN", "000000"));
+        assertTrue(otpStore.verify("testuser", "CLOUD_LOGIN", "222222"));
+    }
+
+    @Test
+    void advance_ExpiredCodes_AreEvictedByWheel() throws InterruptedException {
+        // Given
+        properties.setTtl(Duration.ofMillis(30));
+        properties.setWheelTick(Duration.ofMillis(10));
+        properties.setWheelSize(4);
+        otpStore = new InMemoryOtpStore(properties, mock(TaskScheduler.class));
+        otpStore.put("first", "SYNC_SETUP", "123456");
+        otpStore.put("second", "SYNC_SETUP", "123456");
+
+        // When
+        Thread.sleep(80);
+        otpStore.advance();
+
+        // Then
+        assertEquals(0, otpStore.size());
+        assertFalse(otpStore.verify("first", "SYNC_SETUP", "123456"));
+    }
+}
@@ -76,6 +76,24 @@ class JwtServiceTest {
         assertFalse(isValid);
     }
 
+    @Test
+    void verify_CacheEnabled_ReturnsCachedClaimsAndRejectsTamperedToken() {
+        // Given
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 16);
+        String token = jwtService.generateToken(testUser);
+        String tampered = token.substring(0, token.length() - 2)
+            + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When
+        io.jsonwebtoken.Claims first = jwtService.verify(token);
+        io.jsonwebtoken.Claims second = jwtService.verify(token);
+
+        // Then
+        assertSame(first, second);
+        assertTrue(jwtService.isTokenValid(second, testUser));
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtService.verify(tampered));
+    }
+
     @Test
     void isTokenValid_ExpiredToken_ThrowsException() {
         // Given
@@ -1,8 +1,14 @@
 package by.sakhdanil.managmentserver.service;
 
+import by.sakhdanil.managmentserver.dto.batch.BatchItemResult;
+import by.sakhdanil.managmentserver.dto.batch.BatchItemStatus;
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import by.sakhdanil.managmentserver.dto.batch.BatchResponse;
+import by.sakhdanil.managmentserver.dto.password.PasswordBatchOperation;
 import by.sakhdanil.managmentserver.dto.password.PasswordRequest;
 import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
 import by.sakhdanil.managmentserver.entity.PasswordEntry;
+import by.sakhdanil.managmentserver.entity.SyncChange;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.repository.PasswordEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +32,9 @@ class PasswordEntryServiceTest {
     @Mock
     private PasswordEntryRepository passwordRepository;
 
+    @Mock
+    private SyncChangeLogService changeLogService;
+
     @InjectMocks
     private PasswordEntryService passwordService;
 
@@ -195,4 +204,37 @@ class PasswordEntryServiceTest {
         verify(passwordRepository).findByIdAndUser(1L, testUser);
         verify(passwordRepository, never()).deleteByIdAndUser(anyLong(), any(User.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void applyBatch_MixedOperations_ReturnsResultPerOperationInOrder() {
+        // Given
+        List<PasswordBatchOperation> operations = List.of(
+            new PasswordBatchOperation(BatchOperationType.CREATE, "10", null, passwordRequest),
+            new PasswordBatchOperation(BatchOperationType.UPDATE, "11", 1L, passwordRequest),
+            new PasswordBatchOperation(BatchOperationType.DELETE, "12", 2L, null),
+            new PasswordBatchOperation(BatchOperationType.UPDATE, "13", 1L, null)
+        );
+        when(passwordRepository.findByUserAndIdIn(eq(testUser), anyCollection())).thenReturn(List.of(testPassword));
+        when(passwordRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PasswordEntry> created = invocation.getArgument(0);
+            created.forEach(password -> password.setId(51L));
+            return created;
+        });
+
+        // When
+        BatchResponse result = passwordService.applyBatch(operations, testUser);
+
+        // Then
+        assertEquals(4, result.results().size());
+        assertEquals(new BatchItemResult("10", BatchOperationType.CREATE, 51L, BatchItemStatus.OK), result.results().get(0));
+        assertEquals(new BatchItemResult("11", BatchOperationType.UPDATE, 1L, BatchItemStatus.OK), result.results().get(1));
+        assertEquals(new BatchItemResult("12", BatchOperationType.DELETE, 2L, BatchItemStatus.NOT_FOUND), result.results().get(2));
+        assertEquals(BatchItemStatus.INVALID, result.results().get(3).status());
+        verify(passwordRepository).findByUserAndIdIn(eq(testUser), anyCollection());
+        verify(passwordRepository, never()).save(any(PasswordEntry.class));
+        verify(changeLogService).recordAll(testUser, List.of(
+            new SyncChangeLogService.Entry(SyncChange.EntityType.PASSWORD, 51L, SyncChange.ChangeType.CREATE),
+            new SyncChangeLogService.Entry(SyncChange.EntityType.PASSWORD, 1L, SyncChange.ChangeType.UPDATE)
+        ));
+    }
+}
@@ -0,0 +1,87 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.user.AuthenticatedUser;
+import by.sakhdanil.managmentserver.entity.User;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalCache principalCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new PrincipalCache(userRepository, meterRegistry, Duration.ofMinutes(1), 2);
+
+        testUser = new User();
+        testUser.setId("test-user-id");
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setEmailVerified(true);
+    }
+
+    @Test
+    void get_RepeatedLookup_LoadsUserOnce() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        Optional<AuthenticatedUser> first = principalCache.get("testuser");
+        Optional<AuthenticatedUser> second = principalCache.get("testuser");
+
+        // Then
+        assertTrue(first.isPresent());
+        assertEquals("test-user-id", second.orElseThrow().id());
+        assertEquals("test-user-id", second.orElseThrow().toUser().getId());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(1.0, meterRegistry.get("security.principal.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("security.principal.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_AfterInvalidate_ReloadsUser() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        principalCache.get("testuser");
+
+        // When
+        principalCache.invalidate("testuser");
+        principalCache.get("testuser");
+
+        // Then
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void get_UnknownUser_IsNotCached() {
+        // Given
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When
+        principalCache.get("ghost");
+        Optional<AuthenticatedUser> result = principalCache.get("ghost");
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(0, principalCache.size());
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}
@@ -1,8 +1,14 @@
 package by.sakhdanil.managmentserver.service;
 
+import by.sakhdanil.managmentserver.dto.batch.BatchItemResult;
+import by.sakhdanil.managmentserver.dto.batch.BatchItemStatus;
+import by.sakhdanil.managmentserver.dto.batch.BatchOperationType;
+import by.sakhdanil.managmentserver.dto.batch.BatchResponse;
+import by.sakhdanil.managmentserver.dto.note.NoteBatchOperation;
 import by.sakhdanil.managmentserver.dto.note.NoteRequest;
 import by.sakhdanil.managmentserver.dto.note.NoteResponse;
 import by.sakhdanil.managmentserver.entity.SecureNote;
+import by.sakhdanil.managmentserver.entity.SyncChange;
 import by.sakhdanil.managmentserver.entity.User;
 import by.sakhdanil.managmentserver.repository.SecureNoteRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +32,9 @@ class SecureNoteServiceTest {
     @Mock
     private SecureNoteRepository noteRepository;
 
+    @Mock
+    private SyncChangeLogService changeLogService;
+
     @InjectMocks
     private SecureNoteService noteService;
 
@@ -167,4 +176,31 @@ class SecureNoteServiceTest {
         verify(noteRepository).findByIdAndUser(1L, testUser);
         verify(noteRepository, never()).deleteByIdAndUser(anyLong(), any(User.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void applyBatch_CreateAndDelete_ReturnsServerIdsAndRecordsChanges() {
+        // Given
+        List<NoteBatchOperation> operations = List.of(
+            new NoteBatchOperation(BatchOperationType.DELETE, "20", 1L, null),
+            new NoteBatchOperation(BatchOperationType.CREATE, "21", null, noteRequest)
+        );
+        when(noteRepository.findByUserAndIdIn(eq(testUser), anyCollection())).thenReturn(List.of(testNote));
+        when(noteRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<SecureNote> created = invocation.getArgument(0);
+            created.forEach(note -> note.setId(7L));
+            return created;
+        });
+
+        // When
+        BatchResponse result = noteService.applyBatch(operations, testUser);
+
+        // Then
+        assertEquals(new BatchItemResult("20", BatchOperationType.DELETE, 1L, BatchItemStatus.OK), result.results().get(0));
+        assertEquals(new BatchItemResult("21", BatchOperationType.CREATE, 7L, BatchItemStatus.OK), result.results().get(1));
+        verify(noteRepository).deleteAll(List.of(testNote));
+        verify(changeLogService).recordAll(testUser, List.of(
+            new SyncChangeLogService.Entry(SyncChange.EntityType.NOTE, 1L, SyncChange.ChangeType.DELETE),
+            new SyncChangeLogService.Entry(SyncChange.EntityType.NOTE, 7L, SyncChange.ChangeType.CREATE)
+        ));
+    }
+}
@@ -0,0 +1,144 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.password.PasswordResponse;
+import by.sakhdanil.managmentserver.dto.sync.SyncChangesResponse;
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private SyncChangeLogService changeLogService;
+
+    @Mock
+    private PasswordEntryService passwordService;
+
+    @Mock
+    private SecureNoteService noteService;
+
+    @Mock
+    private VaultVersionService vaultVersions;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId("test-user-id");
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void getChanges_NoCursor_ReturnsCurrentCursorWithoutChanges() {
+        // Given
+        when(changeLogService.getCurrentCursor(testUser)).thenReturn(17L);
+
+        // When
+        SyncChangesResponse result = syncService.getChanges(testUser, null, 500);
+
+        // Then
+        assertEquals(17L, result.cursor());
+        assertFalse(result.hasMore());
+        assertTrue(result.passwords().isEmpty());
+        assertTrue(result.deletedPasswordIds().isEmpty());
+        verify(changeLogService, never()).findChangesAfter(any(User.class), anyLong(), anyInt());
+    }
+
+    @Test
+    void getChanges_SeveralChangesOfSameEntry_ReturnsLatestStateAndDeletes() {
+        // Given
+        when(vaultVersions.current(testUser.getId())).thenReturn(9L);
+        List<SyncChange> changes = List.of(
+            change(6L, SyncChange.EntityType.PASSWORD, 1L, SyncChange.ChangeType.CREATE),
+            change(7L, SyncChange.EntityType.PASSWORD, 1L, SyncChange.ChangeType.UPDATE),
+            change(8L, SyncChange.EntityType.PASSWORD, 2L, SyncChange.ChangeType.DELETE),
+            change(9L, SyncChange.EntityType.NOTE, 5L, SyncChange.ChangeType.UPDATE)
+        );
+        PasswordResponse password = new PasswordResponse(1L, "title", "site", "login", "password", "type",
+            Instant.now(), Instant.now());
+        when(changeLogService.findChangesAfter(testUser, 5L, 11)).thenReturn(changes);
+        when(passwordService.getPasswordsByIds(List.of(1L), testUser)).thenReturn(List.of(password));
+        // Заметка 5 удалена уже после этой страницы журнала
+        when(noteService.getNotesByIds(List.of(5L), testUser)).thenReturn(List.of());
+
+        // When
+        SyncChangesResponse result = syncService.getChanges(testUser, 5L, 10);
+
+        // Then
+        assertEquals(9L, result.cursor());
+        assertFalse(result.hasMore());
+        assertEquals(1, result.passwords().size());
+        assertEquals(1L, result.passwords().get(0).id());
+        assertEquals(List.of(2L), result.deletedPasswordIds());
+        assertTrue(result.notes().isEmpty());
+        assertEquals(List.of(5L), result.deletedNoteIds());
+    }
+
+    @Test
+    void getChanges_MoreChangesThanLimit_ReturnsPageAndHasMore() {
+        // Given
+        when(vaultVersions.current(testUser.getId())).thenReturn(3L);
+        List<SyncChange> changes = List.of(
+            change(1L, SyncChange.EntityType.NOTE, 10L, SyncChange.ChangeType.DELETE),
+            change(2L, SyncChange.EntityType.NOTE, 11L, SyncChange.ChangeType.DELETE),
+            change(3L, SyncChange.EntityType.NOTE, 12L, SyncChange.ChangeType.DELETE)
+        );
+        when(changeLogService.findChangesAfter(eq(testUser), eq(0L), eq(3))).thenReturn(changes);
+        when(passwordService.getPasswordsByIds(List.of(), testUser)).thenReturn(List.of());
+        when(noteService.getNotesByIds(List.of(), testUser)).thenReturn(List.of());
+
+        // When
+        SyncChangesResponse result = syncService.getChanges(testUser, 0L, 2);
+
+        // Then
+        assertEquals(2L, result.cursor());
+        assertTrue(result.hasMore());
+        assertEquals(List.of(10L, 11L), result.deletedNoteIds());
+    }
+
+    @Test
+    void getChanges_CursorAtCurrentVersion_ReturnsEmptyPageWithoutReadingLog() {
+        // Given
+        when(vaultVersions.current(testUser.getId())).thenReturn(42L);
+
+        // When
+        SyncChangesResponse result = syncService.getChanges(testUser, 42L, 500);
+
+        // Then
+        assertEquals(42L, result.cursor());
+        assertFalse(result.hasMore());
+        assertTrue(result.passwords().isEmpty());
+        assertTrue(result.notes().isEmpty());
+        verifyNoInteractions(changeLogService, passwordService, noteService);
+    }
+
+    private SyncChange change(Long seq, SyncChange.EntityType type, Long entityId, SyncChange.ChangeType changeType) {
+        SyncChange change = new SyncChange();
+        change.setUserId(testUser.getId());
+        change.setSeq(seq);
+        change.setEntityType(type);
+        change.setEntityId(entityId);
+        change.setChangeType(changeType);
+        return change;
+    }
+}
@@ -0,0 +1,233 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.dto.sync.SyncEvent;
+import by.sakhdanil.managmentserver.entity.SyncChange;
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncStreamServiceTest {
+
+    @Mock
+    private VaultVersionService vaultVersions;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private List<RecordingEmitter> emitters;
+    // Первая отправка в следующее созданное соединение ждет этого сигнала
+    private CountDownLatch sendGate;
+    private SyncStreamService syncStream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        emitters = new ArrayList<>();
+        syncStream = createService(2, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        syncStream.stop();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void publishAfterCommit_SeveralDevices_DeliversToEachDeviceOfUserOnly() throws Exception {
+        // Given
+        when(vaultVersions.current(anyString())).thenReturn(5L);
+        syncStream.subscribe("user-1");
+        syncStream.subscribe("user-1");
+        syncStream.subscribe("user-2");
+
+        // When
+        syncStream.publishAfterCommit("user-1", List.of(change(17L, 6L)));
+
+        // Then
+        for (RecordingEmitter emitter : emitters.subList(0, 2)) {
+            assertEquals(SyncEvent.version(5L), emitter.next());
+            assertEquals(new SyncEvent(SyncChange.EntityType.PASSWORD, 17L, SyncChange.ChangeType.UPDATE, 6L), emitter.next());
+        }
+        assertEquals(SyncEvent.version(5L), emitters.get(2).next());
+        assertNull(emitters.get(2).events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(3, syncStream.connectionCount());
+    }
+
+    @Test
+    void publishAfterCommit_SlowClientOverflowsBuffer_CollapsesToLatestVersion() throws Exception {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+        CountDownLatch release = new CountDownLatch(1);
+        sendGate = release;
+        syncStream.subscribe("user-1");
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals(SyncEvent.version(5L), emitter.next()); // отправка первого события висит до release
+
+        // When
+        for (long seq = 6; seq <= 10; seq++) {
+            syncStream.publishAfterCommit("user-1", List.of(change(seq, seq)));
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(SyncEvent.version(10L), emitter.next());
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2.0, meterRegistry.get("sync.stream.collapsed").counter().count());
+    }
+
+    @Test
+    void onCacheEvent_ChangeOnOtherInstance_SendsStoredVersion() throws Exception {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+        when(userRepository.findChangeSeq("user-1")).thenReturn(9L);
+        syncStream.subscribe("user-1");
+
+        // When
+        syncStream.onCacheEvent(CacheEvent.vault("user-1"));
+        syncStream.onCacheEvent(CacheEvent.vault("user-without-streams"));
+
+        // Then
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals(SyncEvent.version(5L), emitter.next());
+        assertEquals(SyncEvent.version(9L), emitter.next());
+        verify(userRepository, never()).findChangeSeq("user-without-streams");
+    }
+
+    @Test
+    void subscribe_OverConnectionLimit_ClosesOldestConnection() {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            syncStream.subscribe("user-1");
+        }
+
+        // Then
+        assertEquals(2, syncStream.connectionCount());
+        assertTrue(emitters.get(0).completed);
+        assertFalse(emitters.get(2).completed);
+    }
+
+    private SyncStreamService createService(int bufferSize, Duration sendTimeout) {
+        SyncStreamService service = new SyncStreamService(vaultVersions, userRepository, meterRegistry,
+            new SimpleAsyncTaskExecutor("sync-stream-test-"), taskScheduler,
+            Duration.ofMinutes(30), Duration.ofHours(1), sendTimeout, bufferSize, 2) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                sendGate = null;
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        service.start();
+        return service;
+    }
+
+    @Test
+    void closeStalled_SendHangsLongerThanTimeout_DropsSubscriberAndFailsEmitterAfterSend() throws Exception {
+        // Given: запись первого события висит до release
+        syncStream.stop();
+        syncStream = createService(2, Duration.ofMillis(100));
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+        CountDownLatch release = new CountDownLatch(1);
+        sendGate = release;
+        syncStream.subscribe("user-1");
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals(SyncEvent.version(5L), emitter.next());
+
+        // When
+        Thread.sleep(150);
+        syncStream.closeStalled();
+
+        // Then: место в лимите освобождено сразу, emitter завершается после возврата записи
+        assertEquals(0, syncStream.connectionCount());
+        assertEquals(1.0, meterRegistry.get("sync.stream.stalled").counter().count());
+        syncStream.publishAfterCommit("user-1", List.of(change(17L, 6L)));
+        release.countDown();
+        assertInstanceOf(TimeoutException.class, emitter.failure.poll(5, TimeUnit.SECONDS));
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static SyncChange change(Long entityId, long seq) {
+        SyncChange change = new SyncChange();
+        change.setUserId("user-1");
+        change.setSeq(seq);
+        change.setEntityType(SyncChange.EntityType.PASSWORD);
+        change.setEntityId(entityId);
+        change.setChangeType(SyncChange.ChangeType.UPDATE);
+        return change;
+    }
+
+    /**
+     * Запоминает отправленные события вместо записи в ответ
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<SyncEvent> events = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch blockFirstSend;
+        private volatile boolean completed;
+        private final BlockingQueue<Throwable> failure = new LinkedBlockingQueue<>();
+
+        RecordingEmitter(CountDownLatch blockFirstSend) {
+            this.blockFirstSend = blockFirstSend;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                .map(DataWithMediaType::getData)
+                .filter(SyncEvent.class::isInstance)
+                .forEach(data -> events.add((SyncEvent) data));
+            CountDownLatch latch = blockFirstSend;
+            if (latch != null) {
+                blockFirstSend = null;
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            failure.add(error);
+        }
+
+        SyncEvent next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
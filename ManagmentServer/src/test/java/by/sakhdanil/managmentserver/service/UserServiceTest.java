@@ -33,6 +33,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -0,0 +1,130 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.config.SmileCodecConfig;
+import by.sakhdanil.managmentserver.dto.note.NoteResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VaultListingCacheTest {
+
+    @Mock
+    private VaultVersionService vaultVersions;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VaultListingCache listingCache;
+    private AtomicInteger loads;
+    private Supplier<List<?>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listingCache = createCache(DataSize.ofMegabytes(1));
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return List.of(new NoteResponse(1L, "title", "type", "data", Instant.EPOCH, Instant.EPOCH));
+        };
+    }
+
+    @Test
+    void respond_SameVersion_ServesCachedBytesWithoutLoading() {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+
+        // When
+        ResponseEntity<byte[]> first = listingCache.respond("user-1", "notes", "application/json", loader);
+        ResponseEntity<byte[]> second = listingCache.respond("user-1", "notes", "*/*", loader);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("vault.listing.cache.hit.ratio").gauge().value());
+        // Вес записи учитывается асинхронно: weightedSize() дожидается обслуживания кэша
+        assertEquals(listingCache.weightedSize(), meterRegistry.get("vault.listing.cache.bytes").gauge().value());
+        assertTrue(listingCache.weightedSize() > first.getBody().length);
+    }
+
+    @Test
+    void respond_VersionAdvancedOrInvalidated_ReloadsListing() {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L, 6L, 6L);
+
+        // When
+        listingCache.respond("user-1", "notes", null, loader);
+        listingCache.respond("user-1", "notes", null, loader);
+        listingCache.invalidate("user-1");
+        listingCache.respond("user-1", "notes", null, loader);
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void respond_SmilePreferred_CachesFormatsSeparately() throws Exception {
+        // Given
+        when(vaultVersions.current("user-1")).thenReturn(5L);
+        ObjectMapper smileMapper = SmileCodecConfig.smileMapper(Jackson2ObjectMapperBuilder.json());
+
+        // When
+        ResponseEntity<byte[]> smile = listingCache.respond("user-1", "notes",
+            "application/x-jackson-smile, application/json;q=0.9", loader);
+        ResponseEntity<byte[]> json = listingCache.respond("user-1", "notes", "application/json", loader);
+
+        // Then
+        assertEquals(SmileCodecConfig.APPLICATION_SMILE, smile.getHeaders().getContentType());
+        assertEquals(MediaType.APPLICATION_JSON, json.getHeaders().getContentType());
+        List<NoteResponse> notes = smileMapper.readValue(smile.getBody(), new TypeReference<>() {});
+        assertEquals("data", notes.get(0).encryptedData());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void respond_OverByteLimit_EvictsEntries() {
+        // Given
+        listingCache = createCache(DataSize.ofKilobytes(1));
+        when(vaultVersions.current(anyString())).thenReturn(1L);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            listingCache.respond("user-" + i, "notes", null, loader);
+        }
+
+        // Then
+        assertTrue(listingCache.weightedSize() <= 1024);
+    }
+
+    @Test
+    void negotiate_PrefersJsonUnlessSmileRankedHigher() {
+        assertEquals(MediaType.APPLICATION_JSON, VaultListingCache.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, VaultListingCache.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON,
+            VaultListingCache.negotiate("application/x-jackson-smile;q=0.5, application/json"));
+        assertEquals(SmileCodecConfig.APPLICATION_SMILE,
+            VaultListingCache.negotiate("application/x-jackson-smile, application/json;q=0.9"));
+    }
+
+    private VaultListingCache createCache(DataSize maxSize) {
+        return new VaultListingCache(vaultVersions, Jackson2ObjectMapperBuilder.json().build(),
+            Jackson2ObjectMapperBuilder.json(), meterRegistry, maxSize);
+    }
+}
@@ -0,0 +1,94 @@
+package by.sakhdanil.managmentserver.service;
+
+import by.sakhdanil.managmentserver.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VaultVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private VaultVersionService vaultVersions;
+
+    @BeforeEach
+    void setUp() {
+        vaultVersions = new VaultVersionService(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 2);
+    }
+
+    @Test
+    void current_RepeatedLookup_ReadsChangeSeqOnce() {
+        // Given
+        when(userRepository.findChangeSeq("user-1")).thenReturn(7L);
+
+        // When
+        long first = vaultVersions.current("user-1");
+        long second = vaultVersions.current("user-1");
+
+        // Then
+        assertEquals(7L, first);
+        assertEquals(7L, second);
+        assertEquals("\"notes-7\"", vaultVersions.etag("user-1", "notes"));
+        verify(userRepository, times(1)).findChangeSeq("user-1");
+    }
+
+    @Test
+    void advanceAfterCommit_AppliesOnlyAfterCommit() {
+        // Given
+        when(userRepository.findChangeSeq("user-1")).thenReturn(7L);
+        vaultVersions.current("user-1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            vaultVersions.advanceAfterCommit("user-1", 9L);
+
+            // Then
+            assertEquals(7L, vaultVersions.current("user-1"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(9L, vaultVersions.current("user-1"));
+    }
+
+    @Test
+    void current_StaleReloadAfterAdvance_DoesNotMoveVersionBack() {
+        // Given
+        vaultVersions = new VaultVersionService(userRepository, new SimpleMeterRegistry(), Duration.ZERO, 2);
+        vaultVersions.advanceAfterCommit("user-1", 12L);
+        when(userRepository.findChangeSeq("user-1")).thenReturn(11L);
+
+        // When
+        long version = vaultVersions.current("user-1");
+
+        // Then
+        assertEquals(12L, version);
+    }
+
+    @Test
+    void current_MaxSizeReached_EvictsEntries() {
+        // Given
+        when(userRepository.findChangeSeq(anyString())).thenReturn(1L);
+
+        // When
+        vaultVersions.current("user-1");
+        vaultVersions.current("user-2");
+        vaultVersions.current("user-3");
+
+        // Then
+        assertTrue(vaultVersions.size() <= 2);
+    }
+}